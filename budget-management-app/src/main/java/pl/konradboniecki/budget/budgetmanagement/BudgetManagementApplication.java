@@ -1,10 +1,8 @@
 package pl.konradboniecki.budget.budgetmanagement;
 
 import org.springframework.boot.SpringApplication;
-import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import pl.konradboniecki.chassis.ChassisApplication;
 
-@EnableMongoRepositories
 @ChassisApplication
 public class BudgetManagementApplication {
 
@@ -0,0 +1,34 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetConverters;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseConverters;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarConverters;
+
+import java.util.List;
+
+/**
+ * Replaces the reflective mapping of {@code Budget}, {@code Jar} and {@code Expense} with hand-written
+ * converters, for the blocking and the reactive templates alike. Enabled with
+ * {@code budget.mongo.mapping=hand-written}; queries and updates are still mapped through the mapping
+ * context, only entity reads and writes change.
+ */
+@Configuration
+@ConditionalOnProperty(value = "budget.mongo.mapping", havingValue = "hand-written")
+public class HandWrittenMongoMappingConfiguration {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(handWrittenConverters());
+    }
+
+    static List<Object> handWrittenConverters() {
+        return List.of(
+                BudgetConverters.READING, BudgetConverters.WRITING,
+                JarConverters.READING, JarConverters.WRITING,
+                ExpenseConverters.READING, ExpenseConverters.WRITING);
+    }
+}
@@ -0,0 +1,72 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bounds the number of blocking repository calls in flight. Tomcat's platform pool used to cap
+ * that implicitly; with a virtual thread per request every request could wait on the Mongo
+ * connection pool at once and fail with the driver's pool timeout instead of a clean 503.
+ * The permit is held for the repository call only, so methods returning lazy streams are not
+ * routed through it, see {@link #limits(Method)}. Their cursors are consumed by background jobs
+ * and exports outside the request path.
+ */
+public class MongoConcurrencyLimiter implements MethodInterceptor, MeterBinder {
+
+    @Getter
+    private final int permits;
+    private final Duration acquireTimeout;
+    private final Semaphore semaphore;
+    private final LongAdder rejected = new LongAdder();
+
+    public MongoConcurrencyLimiter(int permits, Duration acquireTimeout) {
+        this.permits = permits;
+        this.acquireTimeout = acquireTimeout;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    /**
+     * @return {@code false} for methods returning a {@link Stream}, which is read after the call
+     * returns and the permit is released
+     */
+    public static boolean limits(Method method) {
+        return !Stream.class.isAssignableFrom(method.getReturnType());
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!semaphore.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent database operations.");
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("budget.mongo.limiter.available", semaphore, Semaphore::availablePermits)
+                .register(registry);
+        Gauge.builder("budget.mongo.limiter.waiting", semaphore, Semaphore::getQueueLength)
+                .register(registry);
+        FunctionCounter.builder("budget.mongo.limiter.rejected", rejected, LongAdder::sum)
+                .register(registry);
+    }
+}
@@ -0,0 +1,168 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static pl.konradboniecki.budget.budgetmanagement.configuration.MongoIndexProperties.DriftPolicy.FAIL;
+
+/**
+ * Builds the {@link MongoIndexes} set on startup and compares it with the indexes present
+ * in the live collections. Depending on {@code budget.mongo.indexes.drift-policy} a drift
+ * is only logged or it stops the application before it starts serving traffic. A declared unique
+ * index that is still missing always stops it: writes rely on those indexes to reject duplicates,
+ * e.g. a second budget of a family. Uses the blocking
+ * template, or the reactive one in the reactive profile, which has no blocking driver.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(MongoIndexProperties.class)
+@ConditionalOnProperty(value = "budget.mongo.indexes.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private static final String DEFAULT_ID_INDEX = "_id_";
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final ObjectProvider<ReactiveMongoTemplate> reactiveMongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final MongoIndexProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> drift = new ArrayList<>();
+        MongoIndexes.DECLARED.forEach((entity, declared) -> drift.addAll(reconcile(entity, declared)));
+        if (drift.isEmpty()) {
+            log.info("Mongo indexes match the declared set.");
+            return;
+        }
+        drift.forEach(description -> log.warn("Mongo index drift: {}", description));
+        if (properties.getDriftPolicy() == FAIL) {
+            throw new IllegalStateException("Mongo indexes drifted from the declared set: " + drift);
+        }
+    }
+
+    private List<String> reconcile(Class<?> entity, List<Index> declared) {
+        String collection = mappingContext.getRequiredPersistentEntity(entity).getCollection();
+        IndexOperations indexOps = indexOps(entity);
+        List<Index> retired = MongoIndexes.RETIRED.getOrDefault(entity, List.of());
+        for (IndexInfo legacy : findRetired(indexOps.getIndexInfo(), retired)) {
+            log.info("Dropping retired index {} from collection {}.", legacy.getName(), collection);
+            indexOps.dropIndex(legacy.getName());
+        }
+        for (Index index : declared) {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (DataAccessException e) {
+                log.error("Failed to build index {} on collection {}.", signature(index), collection, e);
+            }
+        }
+        List<IndexInfo> live = indexOps.getIndexInfo();
+        List<String> missingUnique = findMissingUnique(collection, live, declared);
+        if (!missingUnique.isEmpty()) {
+            throw new IllegalStateException("Unique Mongo indexes could not be built: " + missingUnique);
+        }
+        if (properties.isDropUndeclared()) {
+            for (IndexInfo undeclared : findUndeclared(live, declared)) {
+                log.info("Dropping undeclared index {} from collection {}.", undeclared.getName(), collection);
+                indexOps.dropIndex(undeclared.getName());
+            }
+            live = indexOps.getIndexInfo();
+        }
+        return findDrift(collection, live, declared);
+    }
+
+    private IndexOperations indexOps(Class<?> entity) {
+        MongoTemplate template = mongoTemplate.getIfAvailable();
+        if (template != null) {
+            return template.indexOps(entity);
+        }
+        return new ReactiveIndexOperationsAdapter(reactiveMongoTemplate.getObject().indexOps(entity));
+    }
+
+    static List<String> findDrift(String collection, List<IndexInfo> live, List<Index> declared) {
+        Set<String> liveSignatures = live.stream()
+                .filter(info -> !DEFAULT_ID_INDEX.equals(info.getName()))
+                .map(MongoIndexInitializer::signature)
+                .collect(Collectors.toSet());
+        List<String> drift = new ArrayList<>();
+        declared.stream()
+                .map(MongoIndexInitializer::signature)
+                .filter(signature -> !liveSignatures.contains(signature))
+                .forEach(signature -> drift.add(collection + " is missing index " + signature));
+        findUndeclared(live, declared)
+                .forEach(info -> drift.add(collection + " has undeclared index " + info.getName() + " " + signature(info)));
+        return drift;
+    }
+
+    static List<String> findMissingUnique(String collection, List<IndexInfo> live, List<Index> declared) {
+        Set<String> liveSignatures = live.stream()
+                .map(MongoIndexInitializer::signature)
+                .collect(Collectors.toSet());
+        return declared.stream()
+                .filter(index -> index.getIndexOptions().getBoolean("unique", false))
+                .map(MongoIndexInitializer::signature)
+                .filter(signature -> !liveSignatures.contains(signature))
+                .map(signature -> collection + " " + signature)
+                .collect(Collectors.toList());
+    }
+
+    static List<IndexInfo> findRetired(List<IndexInfo> live, List<Index> retired) {
+        Set<String> retiredSignatures = retired.stream()
+                .map(MongoIndexInitializer::signature)
+                .collect(Collectors.toSet());
+        return live.stream()
+                .filter(info -> retiredSignatures.contains(signature(info)))
+                .collect(Collectors.toList());
+    }
+
+    private static List<IndexInfo> findUndeclared(List<IndexInfo> live, List<Index> declared) {
+        Set<String> declaredSignatures = declared.stream()
+                .map(MongoIndexInitializer::signature)
+                .collect(Collectors.toSet());
+        return live.stream()
+                .filter(info -> !DEFAULT_ID_INDEX.equals(info.getName()))
+                .filter(info -> !declaredSignatures.contains(signature(info)))
+                .collect(Collectors.toList());
+    }
+
+    private static String signature(Index index) {
+        String keys = index.getIndexKeys().entrySet().stream()
+                .map(key -> key.getKey() + ":" + key.getValue())
+                .collect(Collectors.joining(", ", "{", "}"));
+        return index.getIndexOptions().getBoolean("unique", false) ? keys + " unique" : keys;
+    }
+
+    private static String signature(IndexInfo info) {
+        String keys = info.getIndexFields().stream()
+                .map(field -> field.getKey() + ":" + direction(field))
+                .collect(Collectors.joining(", ", "{", "}"));
+        return info.isUnique() ? keys + " unique" : keys;
+    }
+
+    private static String direction(IndexField field) {
+        if (field.getDirection() == null) {
+            return field.isGeo() ? "geo" : "text";
+        }
+        return field.getDirection() == Sort.Direction.ASC ? "1" : "-1";
+    }
+}
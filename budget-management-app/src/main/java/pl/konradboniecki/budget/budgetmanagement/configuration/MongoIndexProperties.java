@@ -0,0 +1,18 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "budget.mongo.indexes")
+public class MongoIndexProperties {
+
+    private boolean enabled = true;
+    private boolean dropUndeclared = false;
+    private DriftPolicy driftPolicy = DriftPolicy.WARN;
+
+    public enum DriftPolicy {
+        WARN,
+        FAIL
+    }
+}
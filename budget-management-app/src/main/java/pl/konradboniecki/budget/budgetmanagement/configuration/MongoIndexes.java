@@ -0,0 +1,61 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.springframework.data.mongodb.core.index.Index;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetDeletion;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMonthlyRollup;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+/**
+ * Index set managed by {@link MongoIndexInitializer}. Every entry names the repository
+ * methods it serves; an index that no query needs should not be declared here.
+ */
+final class MongoIndexes {
+
+    static final Map<Class<?>, List<Index>> DECLARED = Map.of(
+            Budget.class, List.of(
+                    // BudgetRepository.findByFamilyId, also enforces one budget per family
+                    new Index().on("familyId", ASC).unique().named("familyId")),
+            BudgetDeletion.class, List.of(
+                    // BudgetDeletionRepository.findAllByStatus on startup
+                    new Index().on("status", ASC).named("status"),
+                    // completed deletions are only kept for clients polling their progress
+                    new Index().on("finishedAt", ASC).expire(Duration.ofDays(7)).named("finishedAt_ttl")),
+            Expense.class, List.of(
+                    // ExpenseRepository.findAllByBudgetId, findAllByBudgetIdAfter (seek on created, id),
+                    // findByIdAndBudgetId, removeByIdAndBudgetId, streamAllByBudgetId and aggregateByBudgetId
+                    // (created range), ExpenseMonthlyRollupRepository.recompute and rebuild
+                    new Index().on("budgetId", ASC).on("created", DESC).on("_id", DESC).named("budgetId_created_id")),
+            ExpenseMonthlyRollup.class, List.of(
+                    // ExpenseMonthlyRollupRepository.findMonthRange, deleteByBudgetId, rebuild
+                    new Index().on("budgetId", ASC).on("month", ASC).unique().named("budgetId_month")),
+            Jar.class, List.of(
+                    // JarRepository.findAllByBudgetId, findAllByBudgetIdAfter (seek on id),
+                    // findByIdAndBudgetId, deleteJarByIdAndBudgetId
+                    new Index().on("budgetId", ASC).on("_id", ASC).named("budgetId_id"),
+                    // JarRepository.findAllByBudgetIdAndStatus, findSliceByBudgetIdAndStatus,
+                    // findAllByBudgetIdAfter with a status (seek on id) and countByStatus (covered)
+                    new Index().on("budgetId", ASC).on("status", ASC).on("_id", ASC).named("budgetId_status_id"))
+    );
+
+    /**
+     * Indexes of earlier releases that are dropped wherever they are still present, regardless of
+     * {@code budget.mongo.indexes.drop-undeclared}.
+     */
+    static final Map<Class<?>, List<Index>> RETIRED = Map.of(
+            // unique budgetId limited a budget to a single expense and a single jar
+            Expense.class, List.of(new Index().on("budgetId", ASC).unique()),
+            Jar.class, List.of(new Index().on("budgetId", ASC).unique())
+    );
+
+    private MongoIndexes() {
+    }
+}
@@ -0,0 +1,40 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+
+import java.util.List;
+
+/**
+ * Blocks on the {@link ReactiveIndexOperations} of the reactive profile, so that
+ * {@link MongoIndexInitializer} reconciles indexes the same way before either stack serves
+ * traffic.
+ */
+@RequiredArgsConstructor
+class ReactiveIndexOperationsAdapter implements IndexOperations {
+
+    private final ReactiveIndexOperations delegate;
+
+    @Override
+    public String ensureIndex(IndexDefinition indexDefinition) {
+        return delegate.ensureIndex(indexDefinition).block();
+    }
+
+    @Override
+    public void dropIndex(String name) {
+        delegate.dropIndex(name).block();
+    }
+
+    @Override
+    public void dropAllIndexes() {
+        delegate.dropAllIndexes().block();
+    }
+
+    @Override
+    public List<IndexInfo> getIndexInfo() {
+        return delegate.getIndexInfo().collectList().block();
+    }
+}
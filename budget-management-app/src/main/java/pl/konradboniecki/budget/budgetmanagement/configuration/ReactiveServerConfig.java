@@ -0,0 +1,22 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Tomcat stays on the classpath for the servlet stack and would otherwise be picked as the
+ * reactive server too. Declaring the factory makes the reactive profile run on Netty.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
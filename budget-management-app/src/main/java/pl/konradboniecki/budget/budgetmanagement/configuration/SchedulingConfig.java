@@ -0,0 +1,13 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} methods for the whole application, apart from the conditional
+ * components declaring them.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,6 @@
 package pl.konradboniecki.budget.budgetmanagement.configuration;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
@@ -11,11 +12,13 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.web.SecurityFilterChain;
 
 import static org.springframework.beans.factory.config.ConfigurableBeanFactory.SCOPE_SINGLETON;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @Scope(scopeName = SCOPE_SINGLETON)
+@ConditionalOnWebApplication(type = SERVLET)
 public class SecurityConfig {
 
     @Bean
@@ -0,0 +1,117 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.connection.ConnectionPoolSettings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Runs Tomcat request handling on virtual threads, so the blocking services and the Mongo driver
+ * calls they make run on a virtual thread per request. Enabled with
+ * {@code budget.virtual-threads.enabled=true} and requires Java 21.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+@ConditionalOnWebApplication(type = SERVLET)
+@ConditionalOnProperty(value = "budget.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    private static final Pointcut LIMITED_METHODS = new StaticMethodMatcherPointcut() {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return MongoConcurrencyLimiter.limits(method);
+        }
+    };
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean
+    public MongoConcurrencyLimiter mongoConcurrencyLimiter(VirtualThreadProperties properties, MongoProperties mongoProperties) {
+        int poolSize = mongoPoolSize(mongoProperties);
+        int permits = properties.getMongoPermits() == null ? poolSize : properties.getMongoPermits();
+        if (permits > poolSize) {
+            log.warn("budget.virtual-threads.mongo-permits={} exceeds the Mongo connection pool size {}, requests will queue in the driver.",
+                    permits, poolSize);
+        }
+        return new MongoConcurrencyLimiter(permits, properties.getMongoAcquireTimeout());
+    }
+
+    /**
+     * Routes every blocking repository call but the streaming ones through the limiter. Reactive
+     * repositories use a different factory bean and are left alone.
+     */
+    @Bean
+    public static BeanPostProcessor mongoConcurrencyLimiterInstaller(ObjectProvider<MongoConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof MongoRepositoryFactoryBean<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvisor(
+                                    new DefaultPointcutAdvisor(LIMITED_METHODS, limiter.getObject()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(VirtualThreadProperties properties) {
+        return new VirtualThreadPinningMonitor(properties.getPinningThreshold());
+    }
+
+    /**
+     * Logs the effective mode and pings Mongo once from a virtual thread, so pinning inside the
+     * driver shows up right after startup instead of under the first real traffic.
+     */
+    @Bean
+    public ApplicationRunner virtualThreadStartupReport(MongoConcurrencyLimiter limiter, MongoProperties mongoProperties,
+                                                        MongoTemplate mongoTemplate, VirtualThreadProperties properties) {
+        return args -> {
+            log.info("Virtual thread mode: Java {}, Tomcat executor per-request virtual threads, {} Mongo permits for a pool of {}, "
+                            + "acquire timeout {}, pinning threshold {}.",
+                    Runtime.version().feature(), limiter.getPermits(), mongoPoolSize(mongoProperties),
+                    properties.getMongoAcquireTimeout(), properties.getPinningThreshold());
+            ExecutorService probe = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            try {
+                Future<?> ping = probe.submit(() -> mongoTemplate.executeCommand("{ ping: 1 }"));
+                ping.get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("Mongo ping from a virtual thread failed.", e);
+            } finally {
+                probe.shutdown();
+            }
+        };
+    }
+
+    private static int mongoPoolSize(MongoProperties mongoProperties) {
+        Integer fromUri = new ConnectionString(mongoProperties.determineUri()).getMaxConnectionPoolSize();
+        return fromUri != null ? fromUri : ConnectionPoolSettings.builder().build().getMaxSize();
+    }
+}
@@ -0,0 +1,125 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event, which the JVM emits when a virtual
+ * thread blocks while it cannot unmount from its carrier, typically inside a synchronized block.
+ * Every new pinning site is logged once with its stack trace; the counts per site are available
+ * from the {@code virtualthreads} actuator endpoint.
+ */
+@Slf4j
+@Endpoint(id = "virtualthreads")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final Map<String, PinningSite> sites = new ConcurrentHashMap<>();
+    private volatile RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        recording = stream;
+        log.info("Reporting virtual threads pinned for longer than {}.", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = recording;
+        recording = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String stack = frames.stream()
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+        record(site(frames), event.getDuration(), stack);
+    }
+
+    void record(String site, Duration duration, String stack) {
+        PinningSite pinningSite = sites.computeIfAbsent(site, key -> {
+            log.warn("Virtual thread pinned for {} at {}:\n{}", duration, key, stack);
+            return new PinningSite();
+        });
+        pinningSite.count.increment();
+        pinningSite.maxNanos.accumulateAndGet(duration.toNanos(), Math::max);
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<Map<String, Object>> pinningSites = sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, PinningSite> site) -> site.getValue().count.sum()).reversed())
+                .map(site -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("site", site.getKey());
+                    entry.put("count", site.getValue().count.sum());
+                    entry.put("maxMillis", Duration.ofNanos(site.getValue().maxNanos.get()).toMillis());
+                    return entry;
+                })
+                .collect(Collectors.toList());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("thresholdMillis", threshold.toMillis());
+        report.put("sites", pinningSites);
+        return report;
+    }
+
+    /**
+     * The first frame outside the JDK is where application or driver code held the monitor.
+     */
+    private static String site(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.isJavaFrame() && !isJdkType(frame.getMethod().getType().getName()))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+    }
+
+    private static boolean isJdkType(String typeName) {
+        return typeName.startsWith("java.") || typeName.startsWith("jdk.") || typeName.startsWith("sun.");
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static final class PinningSite {
+        private final LongAdder count = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+    }
+}
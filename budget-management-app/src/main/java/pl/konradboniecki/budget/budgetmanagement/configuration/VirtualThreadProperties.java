@@ -0,0 +1,19 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "budget.virtual-threads")
+public class VirtualThreadProperties {
+
+    private boolean enabled = false;
+    /**
+     * Maximum number of repository calls running at once. Defaults to the Mongo connection pool size.
+     */
+    private Integer mongoPermits;
+    private Duration mongoAcquireTimeout = Duration.ofSeconds(1);
+    private Duration pinningThreshold = Duration.ofMillis(20);
+}
@@ -0,0 +1,23 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The build targets Java 17, so the Java 21 virtual thread API is reached reflectively.
+ */
+final class VirtualThreads {
+
+    private static final int REQUIRED_JAVA_VERSION = 21;
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java " + REQUIRED_JAVA_VERSION + " or newer, running on " + Runtime.version(), e);
+        }
+    }
+}
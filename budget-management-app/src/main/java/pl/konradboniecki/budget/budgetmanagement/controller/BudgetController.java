@@ -1,21 +1,29 @@
 package pl.konradboniecki.budget.budgetmanagement.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetService;
+import pl.konradboniecki.budget.budgetmanagement.feature.overview.BudgetOverviewService;
 import pl.konradboniecki.budget.openapi.api.BudgetManagementApi;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetOverview;
 import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
 
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
 @AllArgsConstructor
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
 public class BudgetController implements BudgetManagementApi {
 
     private final BudgetService budgetService;
+    private final BudgetOverviewService budgetOverviewService;
 
     @Override
     public ResponseEntity<OASCreatedBudget> createBudget(OASBudgetCreation budgetCreation) {
@@ -33,8 +41,23 @@ public class BudgetController implements BudgetManagementApi {
     }
 
     @Override
-    public ResponseEntity<Void> deleteBudget(String budgetId) {
-        budgetService.deleteBudget(budgetId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<OASBudgetOverview> findBudgetOverview(String budgetId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(budgetOverviewService.findOverview(budgetId));
+    }
+
+    @Override
+    public ResponseEntity<OASBudgetDeletion> deleteBudget(String budgetId) {
+        return ResponseEntity.accepted()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(budgetService.deleteBudget(budgetId));
+    }
+
+    @Override
+    public ResponseEntity<OASBudgetDeletion> findBudgetDeletion(String budgetId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(budgetService.findDeletion(budgetId));
     }
 }
@@ -1,21 +1,46 @@
 package pl.konradboniecki.budget.budgetmanagement.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseConflictException;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseExport;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseExportFormat;
 import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseService;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawPagesProperties;
 import pl.konradboniecki.budget.openapi.api.ExpenseAssociationApi;
 import pl.konradboniecki.budget.openapi.dto.model.*;
 
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
 @AllArgsConstructor
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@EnableConfigurationProperties(RawPagesProperties.class)
 public class ExpenseController implements ExpenseAssociationApi {
 
+    static final String NDJSON = "application/x-ndjson";
+
     private final ExpenseService expenseService;
+    private final RawPagesProperties rawPagesProperties;
+    private final WebRequest webRequest;
 
     @Override
     public ResponseEntity<OASCreatedExpense> createExpense(String budgetId, OASExpenseCreation oaSExpenseCreation) {
@@ -25,6 +50,48 @@ public class ExpenseController implements ExpenseAssociationApi {
                 .body(expenseService.saveExpense(oaSExpenseCreation, budgetId));
     }
 
+    @Override
+    public ResponseEntity<OASExpenseBatchResult> createExpenses(String budgetId, OASExpenseBatchCreation oaSExpenseBatchCreation) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(expenseService.saveExpenses(oaSExpenseBatchCreation, budgetId));
+    }
+
+    /**
+     * NDJSON flavour of {@link #createExpenses}. Mapped by hand because the generated signature
+     * binds the whole body before the method is called, while an import has to be read as it arrives.
+     */
+    @PostMapping(value = "/api/budget-mgt/v1/budgets/{budgetId}/expenses:batch",
+            consumes = NDJSON, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OASExpenseBatchResult> importExpenses(@PathVariable("budgetId") String budgetId,
+                                                                HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(expenseService.importExpenses(request.getInputStream(), budgetId));
+    }
+
+    @Override
+    public ResponseEntity<OASExpenseAggregation> aggregateExpenses(String budgetId, String groupBy, Instant createdFrom, Instant createdTo) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(expenseService.aggregateExpenses(budgetId, groupBy, createdFrom, createdTo));
+    }
+
+    /**
+     * Streams every expense of the budget in creation order, optionally limited to a {@code created}
+     * range. Mapped by hand because the generated API cannot return a {@link StreamingResponseBody}.
+     */
+    @GetMapping("/api/budget-mgt/v1/budgets/{budgetId}/expenses:export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@PathVariable("budgetId") String budgetId,
+                                                                @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                                @RequestParam(value = "createdFrom", required = false) Instant createdFrom,
+                                                                @RequestParam(value = "createdTo", required = false) Instant createdTo) {
+        ExpenseExport export = expenseService.exportExpenses(budgetId, createdFrom, createdTo, ExpenseExportFormat.of(format));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(export.getFormat().getMediaType()))
+                .body(export::writeTo);
+    }
+
     @Override
     public ResponseEntity<Void> deleteExpense(String budgetId, String expenseId) {
         expenseService.removeExpenseFromBudgetOrThrow(expenseId, budgetId);
@@ -47,11 +114,41 @@ public class ExpenseController implements ExpenseAssociationApi {
     }
 
     @Override
-    public ResponseEntity<OASExpensePage> findExpenses(String budgetId, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
-        OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, pageable);
+    public ResponseEntity<OASExpenseTotals> findExpenseTotals(String budgetId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(expenseService.findExpenseTotals(budgetId));
+    }
+
+    @Override
+    public ResponseEntity<OASExpensePage> findExpenses(String budgetId, Integer offset, Integer limit, String cursor, String includeTotals) {
+        Pageable pageable = cursor != null ? null : PageRequest.of(offset, limit);
+        String eTag = expenseService.findListETag(budgetId, cursor, includeTotals);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
+        OASExpensePage expensePage;
+        if (cursor != null) {
+            expensePage = rawPagesProperties.isEnabled()
+                    ? expenseService.findRawExpensePage(budgetId, cursor, limit)
+                    : expenseService.findAllExpensesByBudgetId(budgetId, cursor, limit);
+        } else {
+            expensePage = rawPagesProperties.isEnabled()
+                    ? expenseService.findRawExpensePage(budgetId, pageable, includeTotals)
+                    : expenseService.findAllExpensesByBudgetId(budgetId, pageable, includeTotals);
+        }
         return ResponseEntity.ok()
+                .eTag(eTag)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(expensePage);
     }
+
+    @ExceptionHandler(ExpenseConflictException.class)
+    public ResponseEntity<OASExpense> handleConflict(ExpenseConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getCurrentExpense());
+    }
 }
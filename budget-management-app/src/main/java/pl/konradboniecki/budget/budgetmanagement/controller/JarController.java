@@ -1,20 +1,32 @@
 package pl.konradboniecki.budget.budgetmanagement.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarConflictException;
 import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarService;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawPagesProperties;
 import pl.konradboniecki.budget.openapi.api.JarManagementApi;
 import pl.konradboniecki.budget.openapi.dto.model.*;
 
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
 @AllArgsConstructor
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@EnableConfigurationProperties(RawPagesProperties.class)
 public class JarController implements JarManagementApi {
     private final JarService jarService;
+    private final RawPagesProperties rawPagesProperties;
+    private final WebRequest webRequest;
 
     @Override
     public ResponseEntity<OASJar> findJar(String budgetId, String jarId) {
@@ -24,14 +36,37 @@ public class JarController implements JarManagementApi {
     }
 
     @Override
-    public ResponseEntity<OASJarPage> findJars(String budgetId, Integer page, Integer limit) {
-        Pageable pageable = PageRequest.of(page, limit);
-        OASJarPage jarPage = jarService.findAllJarsByBudgetId(budgetId, pageable);
+    public ResponseEntity<OASJarPage> findJars(String budgetId, Integer page, Integer limit, String cursor, String includeTotals, String status) {
+        Pageable pageable = cursor != null ? null : PageRequest.of(page, limit);
+        String eTag = jarService.findListETag(budgetId, cursor, includeTotals, status);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
+        OASJarPage jarPage;
+        if (cursor != null) {
+            jarPage = rawPagesProperties.isEnabled()
+                    ? jarService.findRawJarPage(budgetId, cursor, limit, status)
+                    : jarService.findAllJarsByBudgetId(budgetId, cursor, limit, status);
+        } else {
+            jarPage = rawPagesProperties.isEnabled()
+                    ? jarService.findRawJarPage(budgetId, pageable, includeTotals, status)
+                    : jarService.findAllJarsByBudgetId(budgetId, pageable, includeTotals, status);
+        }
         return ResponseEntity.ok()
+                .eTag(eTag)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(jarPage);
     }
 
+    @Override
+    public ResponseEntity<OASJarStatusCounts> findJarStatusCounts(String budgetId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jarService.findJarStatusCounts(budgetId));
+    }
+
     @Override
     public ResponseEntity<OASCreatedJar> createJar(String budgetId, OASJarCreation oaSJarCreation) {
         return ResponseEntity
@@ -48,6 +83,22 @@ public class JarController implements JarManagementApi {
                 .body(jarService.updateJar(jarId, budgetId, oaSJarModification));
     }
 
+    @Override
+    public ResponseEntity<OASJar> depositToJar(String budgetId, String jarId, OASJarAmount oaSJarAmount) {
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jarService.depositToJar(jarId, budgetId, oaSJarAmount));
+    }
+
+    @Override
+    public ResponseEntity<OASJar> withdrawFromJar(String budgetId, String jarId, OASJarAmount oaSJarAmount) {
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jarService.withdrawFromJar(jarId, budgetId, oaSJarAmount));
+    }
+
     @Override
     public ResponseEntity<Void> deleteJar(String budgetId, String jarId) {
         jarService.removeJarFromBudgetOrThrow(jarId, budgetId);
@@ -55,4 +106,11 @@ public class JarController implements JarManagementApi {
                 .noContent()
                 .build();
     }
+
+    @ExceptionHandler(JarConflictException.class)
+    public ResponseEntity<OASJar> handleConflict(JarConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getCurrentJar());
+    }
 }
@@ -0,0 +1,71 @@
+package pl.konradboniecki.budget.budgetmanagement.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetService;
+import pl.konradboniecki.budget.budgetmanagement.feature.overview.ReactiveBudgetOverviewService;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetOverview;
+import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
+import pl.konradboniecki.budget.openapi.reactive.api.BudgetManagementApi;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+@AllArgsConstructor
+@RestController
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveBudgetController implements BudgetManagementApi {
+
+    private final ReactiveBudgetService budgetService;
+    private final ReactiveBudgetOverviewService budgetOverviewService;
+
+    @Override
+    public Mono<ResponseEntity<OASCreatedBudget>> createBudget(Mono<OASBudgetCreation> budgetCreation, ServerWebExchange exchange) {
+        return budgetCreation
+                .flatMap(budgetService::saveBudget)
+                .map(createdBudget -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(createdBudget));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASBudget>> findBudget(String budgetId, String idType, ServerWebExchange exchange) {
+        return budgetService.findByOrThrow(budgetId, idType)
+                .map(budget -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(budget));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASBudgetOverview>> findBudgetOverview(String budgetId, ServerWebExchange exchange) {
+        return budgetOverviewService.findOverview(budgetId)
+                .map(overview -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(overview));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASBudgetDeletion>> deleteBudget(String budgetId, ServerWebExchange exchange) {
+        return budgetService.deleteBudget(budgetId)
+                .map(deletion -> ResponseEntity.accepted()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(deletion));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASBudgetDeletion>> findBudgetDeletion(String budgetId, ServerWebExchange exchange) {
+        return budgetService.findDeletion(budgetId)
+                .map(deletion -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(deletion));
+    }
+}
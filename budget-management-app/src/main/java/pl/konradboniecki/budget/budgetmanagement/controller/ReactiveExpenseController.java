@@ -0,0 +1,139 @@
+package pl.konradboniecki.budget.budgetmanagement.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseConflictException;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseExportFormat;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ReactiveExpenseService;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawPagesProperties;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+import pl.konradboniecki.budget.openapi.reactive.api.ExpenseAssociationApi;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+@AllArgsConstructor
+@RestController
+@ConditionalOnWebApplication(type = REACTIVE)
+@EnableConfigurationProperties(RawPagesProperties.class)
+public class ReactiveExpenseController implements ExpenseAssociationApi {
+
+    private final ReactiveExpenseService expenseService;
+    private final RawPagesProperties rawPagesProperties;
+
+    @Override
+    public Mono<ResponseEntity<OASCreatedExpense>> createExpense(String budgetId, Mono<OASExpenseCreation> oaSExpenseCreation, ServerWebExchange exchange) {
+        return oaSExpenseCreation
+                .flatMap(expenseCreation -> expenseService.saveExpense(expenseCreation, budgetId))
+                .map(createdExpense -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(createdExpense));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASExpenseAggregation>> aggregateExpenses(String budgetId, String groupBy, Instant createdFrom, Instant createdTo, ServerWebExchange exchange) {
+        return expenseService.aggregateExpenses(budgetId, groupBy, createdFrom, createdTo)
+                .map(aggregation -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(aggregation));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteExpense(String budgetId, String expenseId, ServerWebExchange exchange) {
+        return expenseService.removeExpenseFromBudgetOrThrow(expenseId, budgetId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASExpense>> findExpense(String budgetId, String expenseId, ServerWebExchange exchange) {
+        return expenseService.findExpense(expenseId, budgetId)
+                .map(expense -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(expense));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASExpense>> modifyExpense(String budgetId, String expenseId, Mono<OASExpenseModification> expenseModification, ServerWebExchange exchange) {
+        return expenseModification
+                .flatMap(modification -> expenseService.updateExpense(expenseId, budgetId, modification))
+                .map(expense -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(expense));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASExpenseTotals>> findExpenseTotals(String budgetId, ServerWebExchange exchange) {
+        return expenseService.findExpenseTotals(budgetId)
+                .map(totals -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(totals));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASExpensePage>> findExpenses(String budgetId, Integer offset, Integer limit, String cursor, String includeTotals, ServerWebExchange exchange) {
+        Mono<OASExpensePage> expensePage;
+        if (rawPagesProperties.isEnabled()) {
+            expensePage = cursor != null
+                    ? expenseService.findRawExpensePage(budgetId, cursor, limit)
+                    : expenseService.findRawExpensePage(budgetId, PageRequest.of(offset, limit), includeTotals);
+        } else {
+            expensePage = cursor != null
+                    ? expenseService.findAllExpensesByBudgetId(budgetId, cursor, limit)
+                    : expenseService.findAllExpensesByBudgetId(budgetId, PageRequest.of(offset, limit), includeTotals);
+        }
+        return expenseService.findListETag(budgetId, cursor, includeTotals)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(eTag -> eTag.isPresent() && exchange.checkNotModified(eTag.get())
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag.get())
+                        .<OASExpensePage>build())
+                        : expensePage.map(page -> ResponseEntity.ok()
+                        .eTag(eTag.orElse(null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(page)));
+    }
+
+    /**
+     * Counterpart of {@link ExpenseController#exportExpenses}, each line is written as its own buffer.
+     */
+    @GetMapping("/api/budget-mgt/v1/budgets/{budgetId}/expenses:export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportExpenses(@PathVariable("budgetId") String budgetId,
+                                                                 @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                                 @RequestParam(value = "createdFrom", required = false) Instant createdFrom,
+                                                                 @RequestParam(value = "createdTo", required = false) Instant createdTo,
+                                                                 ServerWebExchange exchange) {
+        ExpenseExportFormat exportFormat = ExpenseExportFormat.of(format);
+        DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+        return expenseService.exportExpenses(budgetId, createdFrom, createdTo, exportFormat)
+                .map(lines -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                        .body(lines.map(line -> bufferFactory.wrap(line.getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    @ExceptionHandler(ExpenseConflictException.class)
+    public ResponseEntity<OASExpense> handleConflict(ExpenseConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getCurrentExpense());
+    }
+}
@@ -0,0 +1,125 @@
+package pl.konradboniecki.budget.budgetmanagement.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarConflictException;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.ReactiveJarService;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawPagesProperties;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+import pl.konradboniecki.budget.openapi.reactive.api.JarManagementApi;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+@AllArgsConstructor
+@RestController
+@ConditionalOnWebApplication(type = REACTIVE)
+@EnableConfigurationProperties(RawPagesProperties.class)
+public class ReactiveJarController implements JarManagementApi {
+    private final ReactiveJarService jarService;
+    private final RawPagesProperties rawPagesProperties;
+
+    @Override
+    public Mono<ResponseEntity<OASJar>> findJar(String budgetId, String jarId, ServerWebExchange exchange) {
+        return jarService.findJar(jarId, budgetId)
+                .map(jar -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(jar));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASJarPage>> findJars(String budgetId, Integer page, Integer limit, String cursor, String includeTotals, String status, ServerWebExchange exchange) {
+        Mono<OASJarPage> jarPage;
+        if (rawPagesProperties.isEnabled()) {
+            jarPage = cursor != null
+                    ? jarService.findRawJarPage(budgetId, cursor, limit, status)
+                    : jarService.findRawJarPage(budgetId, PageRequest.of(page, limit), includeTotals, status);
+        } else {
+            jarPage = cursor != null
+                    ? jarService.findAllJarsByBudgetId(budgetId, cursor, limit, status)
+                    : jarService.findAllJarsByBudgetId(budgetId, PageRequest.of(page, limit), includeTotals, status);
+        }
+        return jarService.findListETag(budgetId, cursor, includeTotals, status)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(eTag -> eTag.isPresent() && exchange.checkNotModified(eTag.get())
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag.get())
+                        .<OASJarPage>build())
+                        : jarPage.map(jars -> ResponseEntity.ok()
+                        .eTag(eTag.orElse(null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(jars)));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASJarStatusCounts>> findJarStatusCounts(String budgetId, ServerWebExchange exchange) {
+        return jarService.findJarStatusCounts(budgetId)
+                .map(counts -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(counts));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASCreatedJar>> createJar(String budgetId, Mono<OASJarCreation> oaSJarCreation, ServerWebExchange exchange) {
+        return oaSJarCreation
+                .flatMap(jarCreation -> jarService.saveJar(jarCreation, budgetId))
+                .map(createdJar -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(createdJar));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASJar>> modifyJar(String budgetId, String jarId, Mono<OASJarModification> oaSJarModification, ServerWebExchange exchange) {
+        return oaSJarModification
+                .flatMap(jarModification -> jarService.updateJar(jarId, budgetId, jarModification))
+                .map(jar -> ResponseEntity
+                        .ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(jar));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASJar>> depositToJar(String budgetId, String jarId, Mono<OASJarAmount> oaSJarAmount, ServerWebExchange exchange) {
+        return oaSJarAmount
+                .flatMap(jarAmount -> jarService.depositToJar(jarId, budgetId, jarAmount))
+                .map(jar -> ResponseEntity
+                        .ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(jar));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OASJar>> withdrawFromJar(String budgetId, String jarId, Mono<OASJarAmount> oaSJarAmount, ServerWebExchange exchange) {
+        return oaSJarAmount
+                .flatMap(jarAmount -> jarService.withdrawFromJar(jarId, budgetId, jarAmount))
+                .map(jar -> ResponseEntity
+                        .ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(jar));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteJar(String budgetId, String jarId, ServerWebExchange exchange) {
+        return jarService.removeJarFromBudgetOrThrow(jarId, budgetId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @ExceptionHandler(JarConflictException.class)
+    public ResponseEntity<OASJar> handleConflict(JarConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getCurrentJar());
+    }
+}
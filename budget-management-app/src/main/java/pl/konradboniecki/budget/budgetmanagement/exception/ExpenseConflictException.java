@@ -0,0 +1,16 @@
+package pl.konradboniecki.budget.budgetmanagement.exception;
+
+import lombok.Getter;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
+import pl.konradboniecki.chassis.exceptions.ResourceConflictException;
+
+@Getter
+public class ExpenseConflictException extends ResourceConflictException {
+
+    private final OASExpense currentExpense;
+
+    public ExpenseConflictException(String message, OASExpense currentExpense) {
+        super(message);
+        this.currentExpense = currentExpense;
+    }
+}
@@ -0,0 +1,16 @@
+package pl.konradboniecki.budget.budgetmanagement.exception;
+
+import lombok.Getter;
+import pl.konradboniecki.budget.openapi.dto.model.OASJar;
+import pl.konradboniecki.chassis.exceptions.ResourceConflictException;
+
+@Getter
+public class JarConflictException extends ResourceConflictException {
+
+    private final OASJar currentJar;
+
+    public JarConflictException(String message, OASJar currentJar) {
+        super(message);
+        this.currentJar = currentJar;
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class Budget {
 
     @Id
-    @Indexed(unique = true)
     private String id;
     @Indexed(unique = true)
     private String familyId;
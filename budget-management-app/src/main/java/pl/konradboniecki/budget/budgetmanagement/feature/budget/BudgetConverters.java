@@ -0,0 +1,56 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Maps {@link Budget} to and from its stored document without the reflective
+ * {@code MappingMongoConverter}, selected with {@code budget.mongo.mapping=hand-written}. A budget
+ * read without {@code maxJars}, e.g. through an id projection, keeps the default of {@link Budget#Budget()}.
+ */
+public final class BudgetConverters {
+
+    public static final Converter<Document, Budget> READING = new Reading();
+    public static final Converter<Budget, Document> WRITING = new Writing();
+
+    private BudgetConverters() {
+    }
+
+    @ReadingConverter
+    private static class Reading implements Converter<Document, Budget> {
+
+        @Override
+        public Budget convert(Document source) {
+            Budget budget = new Budget()
+                    .setId(source.get("_id", String.class))
+                    .setFamilyId(source.getString("familyId"));
+            if (source.containsKey("maxJars")) {
+                Object maxJars = source.get("maxJars");
+                budget.setMaxJars(maxJars == null ? null : ((Number) maxJars).longValue());
+            }
+            return budget;
+        }
+    }
+
+    @WritingConverter
+    private static class Writing implements Converter<Budget, Document> {
+
+        @Override
+        public Document convert(Budget source) {
+            Document document = new Document();
+            putIfNotNull(document, "_id", source.getId());
+            putIfNotNull(document, "familyId", source.getFamilyId());
+            putIfNotNull(document, "maxJars", source.getMaxJars());
+            document.put("_class", Budget.class.getName());
+            return document;
+        }
+
+        private static void putIfNotNull(Document document, String key, Object value) {
+            if (value != null) {
+                document.put(key, value);
+            }
+        }
+    }
+}
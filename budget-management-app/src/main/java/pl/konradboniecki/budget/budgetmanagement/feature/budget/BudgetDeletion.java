@@ -0,0 +1,33 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Deletion of a budget's jars and expenses, recorded before the budget itself is removed and
+ * kept as {@link #COMPLETED} once {@link BudgetDeletionWorker} has removed them. The record is
+ * what lets the worker resume after a restart, an unfinished deletion stays {@link #IN_PROGRESS}.
+ */
+@Data
+@Accessors(chain = true)
+@Document("budget_deletion")
+public class BudgetDeletion {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    /**
+     * Id of the deleted budget.
+     */
+    @Id
+    private String id;
+    private String status;
+    private Instant requestedAt;
+    private Instant finishedAt;
+    private long jarsDeleted;
+    private long expensesDeleted;
+}
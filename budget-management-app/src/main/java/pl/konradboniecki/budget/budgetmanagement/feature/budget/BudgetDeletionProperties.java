@@ -0,0 +1,34 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "budget.deletion")
+public class BudgetDeletionProperties {
+
+    /**
+     * Resumes deletions left unfinished by the previous run once the application is ready.
+     */
+    private boolean resumeOnStartup = false;
+    /**
+     * Schedule of the sweep resubmitting deletions still in progress, those that failed or were
+     * left behind by a stopped instance.
+     */
+    private String sweepCron = "0 */10 * * * *";
+    /**
+     * Jars or expenses removed by one delete, bounds the work a single command does on the server.
+     */
+    private int batchSize = 500;
+    /**
+     * Pause after every batch, spreads the deletion of a large budget over time instead of
+     * letting it compete with request traffic at full speed.
+     */
+    private Duration pause = Duration.ofMillis(100);
+    /**
+     * Budgets whose jars and expenses are deleted at the same time.
+     */
+    private int threads = 1;
+}
@@ -0,0 +1,12 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BudgetDeletionRepository extends MongoRepository<BudgetDeletion, String>, BudgetDeletionRepositoryCustom {
+
+    List<BudgetDeletion> findAllByStatus(String status);
+}
@@ -0,0 +1,16 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+public interface BudgetDeletionRepositoryCustom {
+
+    /**
+     * Records the deletion of the budget unless it is already recorded, so repeated requests
+     * keep the progress made so far.
+     *
+     * @return the recorded deletion
+     */
+    BudgetDeletion start(String budgetId);
+
+    void addProgress(String budgetId, long jarsDeleted, long expensesDeleted);
+
+    void complete(String budgetId);
+}
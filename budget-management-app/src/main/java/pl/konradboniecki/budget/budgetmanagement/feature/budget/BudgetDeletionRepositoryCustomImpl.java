@@ -0,0 +1,60 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@AllArgsConstructor
+class BudgetDeletionRepositoryCustomImpl implements BudgetDeletionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public BudgetDeletion start(String budgetId) {
+        return mongoTemplate.findAndModify(
+                byBudgetId(budgetId),
+                startUpdate(),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                BudgetDeletion.class);
+    }
+
+    static Query byBudgetId(String budgetId) {
+        return Query.query(where("id").is(budgetId));
+    }
+
+    static Update startUpdate() {
+        return new Update()
+                .setOnInsert("status", BudgetDeletion.IN_PROGRESS)
+                .setOnInsert("requestedAt", Instant.now())
+                .setOnInsert("jarsDeleted", 0L)
+                .setOnInsert("expensesDeleted", 0L);
+    }
+
+    @Override
+    public void addProgress(String budgetId, long jarsDeleted, long expensesDeleted) {
+        mongoTemplate.updateFirst(byBudgetId(budgetId), progressUpdate(jarsDeleted, expensesDeleted), BudgetDeletion.class);
+    }
+
+    static Update progressUpdate(long jarsDeleted, long expensesDeleted) {
+        return new Update()
+                .inc("jarsDeleted", jarsDeleted)
+                .inc("expensesDeleted", expensesDeleted);
+    }
+
+    @Override
+    public void complete(String budgetId) {
+        mongoTemplate.updateFirst(byBudgetId(budgetId), completeUpdate(), BudgetDeletion.class);
+    }
+
+    static Update completeUpdate() {
+        return new Update()
+                .set("status", BudgetDeletion.COMPLETED)
+                .set("finishedAt", Instant.now());
+    }
+}
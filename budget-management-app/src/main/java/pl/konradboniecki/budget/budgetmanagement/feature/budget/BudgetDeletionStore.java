@@ -0,0 +1,33 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import java.util.List;
+
+/**
+ * Writes of a {@link BudgetDeletionWorker}, served by the repositories of whichever driver the
+ * deployment runs: {@link RepositoryBudgetDeletionStore} with the blocking one,
+ * {@link ReactiveBudgetDeletionStore} with the reactive one. Every call returns once the write
+ * is acknowledged, the worker runs on its own threads.
+ */
+interface BudgetDeletionStore {
+
+    List<String> findUnfinished();
+
+    /**
+     * See {@link pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepositoryCustom#deleteBatchByBudgetId(String, int)}.
+     */
+    long deleteJarBatch(String budgetId, int limit);
+
+    /**
+     * See {@link pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepositoryCustom#deleteBatchByBudgetId(String, int)}.
+     */
+    long deleteExpenseBatch(String budgetId, int limit);
+
+    void addProgress(String budgetId, long jarsDeleted, long expensesDeleted);
+
+    /**
+     * Removes the monthly rollups and the totals of the budget, then the budget itself.
+     */
+    void deleteBudget(String budgetId);
+
+    void complete(String budgetId);
+}
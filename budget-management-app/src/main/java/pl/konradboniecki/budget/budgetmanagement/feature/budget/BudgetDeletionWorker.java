@@ -0,0 +1,137 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes jars and expenses of deleted budgets in the background. A budget is worked off in
+ * batches of at most {@code budget.deletion.batch-size} jars and expenses with a {@code pause}
+ * after each, so deleting a large budget costs other requests little latency. Progress is
+ * stored in the {@link BudgetDeletion} after every batch. Deletions left unfinished by a
+ * shutdown or a failure are resubmitted once the application is ready again, with
+ * {@code resume-on-startup}, and on the {@code sweep-cron} schedule. Runs on either serving
+ * stack, see {@link BudgetDeletionStore}.
+ * <p>
+ * Other instances accept jars and expenses for a deleted budget until their
+ * {@link BudgetExistenceCache} entry expires. A final pass therefore runs once the cache
+ * {@code ttl} has passed, only then are the totals removed and the deletion completed.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({BudgetDeletionProperties.class, BudgetExistenceCacheProperties.class})
+public class BudgetDeletionWorker implements DisposableBean {
+
+    private final BudgetDeletionStore store;
+    private final BudgetDeletionProperties properties;
+    private final Duration finalPassDelay;
+    private final ScheduledExecutorService pool;
+    private final Set<String> submitted = ConcurrentHashMap.newKeySet();
+
+    BudgetDeletionWorker(BudgetDeletionStore store, BudgetDeletionProperties properties,
+                         BudgetExistenceCacheProperties cacheProperties) {
+        this.store = store;
+        this.properties = properties;
+        this.finalPassDelay = cacheProperties.isEnabled() ? cacheProperties.getTtl() : Duration.ZERO;
+        this.pool = Executors.newScheduledThreadPool(properties.getThreads(), new CustomizableThreadFactory("budget-deletion-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (properties.isResumeOnStartup()) {
+            resubmitUnfinished();
+        }
+    }
+
+    /**
+     * Picks up deletions that failed on this instance or were left behind by a stopped one.
+     * Another running instance may be working on one of them as well, every step is idempotent.
+     */
+    @Scheduled(cron = "${budget.deletion.sweep-cron:0 */10 * * * *}")
+    public void resubmitUnfinished() {
+        store.findUnfinished().forEach(this::submit);
+    }
+
+    /**
+     * Queues the deletion of the budget's jars and expenses, a budget already queued on this
+     * instance is not queued twice.
+     */
+    public void submit(String budgetId) {
+        if (submitted.add(budgetId)) {
+            pool.execute(() -> firstPass(budgetId));
+        }
+    }
+
+    private void firstPass(String budgetId) {
+        try {
+            if (deleteBatches(budgetId)) {
+                pool.schedule(() -> finalPass(budgetId), finalPassDelay.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to delete jars and expenses of budget {}, retrying on the next sweep.", budgetId, e);
+        }
+        submitted.remove(budgetId);
+    }
+
+    private void finalPass(String budgetId) {
+        try {
+            if (deleteBatches(budgetId)) {
+                store.deleteBudget(budgetId);
+                store.complete(budgetId);
+                log.info("Deleted jars and expenses of budget {}.", budgetId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to delete jars and expenses of budget {}, retrying on the next sweep.", budgetId, e);
+        } finally {
+            submitted.remove(budgetId);
+        }
+    }
+
+    /**
+     * @return {@code false} when interrupted before the budget ran out of jars and expenses
+     */
+    private boolean deleteBatches(String budgetId) {
+        long jars;
+        long expenses;
+        do {
+            jars = store.deleteJarBatch(budgetId, properties.getBatchSize());
+            expenses = store.deleteExpenseBatch(budgetId, properties.getBatchSize());
+            if (jars + expenses > 0) {
+                store.addProgress(budgetId, jars, expenses);
+                if (!pause()) {
+                    log.info("Interrupted deletion of budget {}, resuming on the next sweep.", budgetId);
+                    return false;
+                }
+            }
+        } while (jars + expenses > 0);
+        return true;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.NonNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers whether a budget exists without reading it from Mongo on every expense and jar
+ * request. Known budgets are kept for {@code ttl}, unknown ids only for {@code negative-ttl}
+ * to absorb bursts of requests for missing budgets. Entries are invalidated by
+ * {@link BudgetService} when a budget is created or deleted on this instance; other instances
+ * see the change once their entry expires.
+ */
+@Component
+@EnableConfigurationProperties(BudgetExistenceCacheProperties.class)
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "imperative", matchIfMissing = true)
+public class BudgetExistenceCache implements MeterBinder {
+
+    private final BudgetRepository budgetRepository;
+    private final boolean enabled;
+    private final Cache<String, Boolean> existing;
+    private final Cache<String, Boolean> missing;
+
+    public BudgetExistenceCache(BudgetRepository budgetRepository, BudgetExistenceCacheProperties properties) {
+        this.budgetRepository = budgetRepository;
+        this.enabled = properties.isEnabled();
+        this.existing = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.missing = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+    }
+
+    public boolean exists(@NonNull String budgetId) {
+        if (!enabled) {
+            return budgetRepository.existsById(budgetId);
+        }
+        if (existing.getIfPresent(budgetId) != null) {
+            return true;
+        }
+        if (missing.getIfPresent(budgetId) != null) {
+            return false;
+        }
+        boolean exists = budgetRepository.existsById(budgetId);
+        (exists ? existing : missing).put(budgetId, Boolean.TRUE);
+        return exists;
+    }
+
+    public void invalidate(@NonNull String budgetId) {
+        existing.invalidate(budgetId);
+        missing.invalidate(budgetId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, existing, "budget.existence", "outcome", "found");
+        GuavaCacheMetrics.monitor(registry, missing, "budget.existence", "outcome", "not_found");
+    }
+}
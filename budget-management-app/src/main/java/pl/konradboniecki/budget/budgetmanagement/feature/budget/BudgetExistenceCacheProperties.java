@@ -0,0 +1,16 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "budget.cache.budget-existence")
+public class BudgetExistenceCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(1);
+    private Duration negativeTtl = Duration.ofSeconds(5);
+}
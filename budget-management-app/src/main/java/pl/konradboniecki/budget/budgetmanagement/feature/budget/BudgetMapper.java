@@ -4,6 +4,7 @@ import lombok.NonNull;
 import org.springframework.stereotype.Service;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
 import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
 
 @Service
@@ -34,4 +35,14 @@ public class BudgetMapper {
                 .familyId(budget.getFamilyId())
                 .maxJars(budget.getMaxJars());
     }
+
+    public OASBudgetDeletion toOASBudgetDeletion(@NonNull BudgetDeletion deletion) {
+        return new OASBudgetDeletion()
+                .budgetId(deletion.getId())
+                .status(OASBudgetDeletion.StatusEnum.fromValue(deletion.getStatus()))
+                .requestedAt(deletion.getRequestedAt())
+                .finishedAt(deletion.getFinishedAt())
+                .jarsDeleted(deletion.getJarsDeleted())
+                .expensesDeleted(deletion.getExpensesDeleted());
+    }
 }
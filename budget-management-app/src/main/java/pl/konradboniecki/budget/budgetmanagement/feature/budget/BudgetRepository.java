@@ -1,13 +1,22 @@
 package pl.konradboniecki.budget.budgetmanagement.feature.budget;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BudgetRepository extends MongoRepository<Budget, String> {
     Optional<Budget> findByFamilyId(String id);
 
+    boolean existsByFamilyId(String familyId);
+
     void deleteById(String aLong);
+
+    Long deleteBudgetById(String id);
+
+    @Query(value = "{}", fields = "{ '_id': 1 }")
+    Stream<Budget> streamAllBudgetIds();
 }
@@ -2,11 +2,14 @@ package pl.konradboniecki.budget.budgetmanagement.feature.budget;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
 import pl.konradboniecki.budget.budgetmanagement.exception.FamilyConflictException;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
 import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
 import pl.konradboniecki.chassis.exceptions.BadRequestException;
 import pl.konradboniecki.chassis.exceptions.InternalServerErrorException;
@@ -17,9 +20,14 @@ import java.util.UUID;
 @Slf4j
 @AllArgsConstructor
 @Service
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "imperative", matchIfMissing = true)
 public class BudgetService {
 
     private final BudgetRepository budgetRepository;
+    private final BudgetTotalsRepository budgetTotalsRepository;
+    private final BudgetDeletionRepository budgetDeletionRepository;
+    private final BudgetDeletionWorker budgetDeletionWorker;
+    private final BudgetExistenceCache budgetExistenceCache;
     private final BudgetMapper budgetMapper;
 
     public OASBudget findByOrThrow(String id, String idType) {
@@ -51,28 +59,51 @@ public class BudgetService {
         }
     }
 
+    /**
+     * Inserts the budget without checking the family first, the unique {@code familyId} index
+     * rejects a second budget even when two creations for one family race each other.
+     */
     public OASCreatedBudget saveBudget(OASBudgetCreation budgetCreation) {
         Budget budget = budgetMapper.toBudget(budgetCreation);
-        checkIfBudgetIsAlreadyAssignedToFamily(budget);
         try {
             budget.setId(UUID.randomUUID().toString());
-            Budget savedBudget = budgetRepository.save(budget);
+            Budget savedBudget = budgetRepository.insert(budget);
+            budgetTotalsRepository.initialize(budget.getId());
+            budgetExistenceCache.invalidate(budget.getId());
             return budgetMapper.toOASCreatedBudget(savedBudget);
+        } catch (DuplicateKeyException e) {
+            throw familyConflict(budget);
         } catch (Exception e) {
             log.error("Failed to save Budget: " + budget);
             throw new InternalServerErrorException("Unexpected error occurred.", e);
         }
     }
 
-    public void deleteBudget(String id) {
-        findByIdOrThrow(id);
-        budgetRepository.deleteById(id);
+    /**
+     * Removes the budget and leaves its jars and expenses to {@link BudgetDeletionWorker}. The
+     * deletion is recorded before anything is removed, so that the worker picks it up after a
+     * restart whichever step did not complete.
+     */
+    public OASBudgetDeletion deleteBudget(String id) {
+        if (!budgetRepository.existsById(id)) {
+            throw new BudgetNotFoundException("Budget with id: " + id + " not found.");
+        }
+        BudgetDeletion deletion = budgetDeletionRepository.start(id);
+        budgetRepository.deleteBudgetById(id);
+        budgetTotalsRepository.deleteById(id);
+        budgetExistenceCache.invalidate(id);
+        budgetDeletionWorker.submit(id);
+        return budgetMapper.toOASBudgetDeletion(deletion);
     }
 
-    private void checkIfBudgetIsAlreadyAssignedToFamily(Budget budget) {
-        if (budgetRepository.findByFamilyId(budget.getFamilyId()).isPresent()) {
-            log.error("Failed to create budget. Family with id: {}, already had a budget.", budget.getFamilyId());
-            throw new FamilyConflictException("Conflict during budget creation: invalid family");
-        }
+    public OASBudgetDeletion findDeletion(String budgetId) {
+        return budgetDeletionRepository.findById(budgetId)
+                .map(budgetMapper::toOASBudgetDeletion)
+                .orElseThrow(() -> new BudgetNotFoundException("Deletion of budget with id: " + budgetId + " not found."));
+    }
+
+    static FamilyConflictException familyConflict(Budget budget) {
+        log.error("Failed to create budget. Family with id: {}, already had a budget.", budget.getFamilyId());
+        return new FamilyConflictException("Conflict during budget creation: invalid family");
     }
 }
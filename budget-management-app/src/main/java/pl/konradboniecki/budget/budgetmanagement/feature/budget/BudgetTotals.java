@@ -0,0 +1,56 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Counters maintained next to a budget with atomic increments, so list endpoints can report
+ * estimated totals without counting documents. Writes are not transactional with the
+ * counted documents, hence the values are estimates; {@link BudgetTotalsReconciliation}
+ * recomputes the totals, seeds the counters of budgets created before they were maintained and
+ * corrects drift.
+ */
+@Data
+@Accessors(chain = true)
+@Document("budget_totals")
+public class BudgetTotals {
+
+    @Id
+    private String id;
+    private long expenses;
+    private double expenseAmount;
+    /**
+     * Moved forward by every counted expense and recomputed when the expense holding it is removed
+     * or moved back in time, absent when the budget has no expenses.
+     */
+    private Instant lastExpenseCreated;
+    private long jars;
+    /**
+     * Bumped after every change of the budget's jars or expenses, listings of the budget are
+     * tagged with it. 0 until the first change.
+     */
+    private long changeVersion;
+    /**
+     * Set once the counters hold an exact count to increment from, when the budget is created or
+     * by {@link BudgetTotalsReconciliation}. Until then estimated totals are counted exactly.
+     */
+    private boolean seeded;
+    /**
+     * Set once every expense of the budget is counted in its {@code expense_monthly_rollup}, when
+     * the budget is created or after {@code ExpenseRollupBackfill} rebuilt them. Monthly
+     * aggregations are computed from the expenses until then.
+     */
+    private boolean rollupsComplete;
+
+    /**
+     * @return weak ETag of listings of a budget at {@code changeVersion}, {@code null} before the
+     * first change, when an absent totals document cannot be told from a deleted budget
+     */
+    public static String weakETag(long changeVersion) {
+        return changeVersion > 0 ? "W/\"" + changeVersion + "\"" : null;
+    }
+}
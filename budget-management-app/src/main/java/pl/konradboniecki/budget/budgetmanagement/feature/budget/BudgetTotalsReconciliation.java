@@ -0,0 +1,149 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes expense totals and jar counts of every budget from the expense and jar collections
+ * and compares them with the running {@link BudgetTotals}. Drift is logged and, with
+ * {@code budget.totals.reconciliation.fix}, overwritten by the recomputed values. Runs on
+ * {@code budget.totals.reconciliation.cron} and on demand through the {@code budgettotals}
+ * actuator endpoint.
+ * <p>
+ * Counters that were never seeded, of budgets created before they were maintained, are not
+ * compared but stored from the recomputed values whether fixing or not. With
+ * {@code budget.totals.reconciliation.seed-on-startup} such budgets are seeded once the
+ * application is ready, without recomputing the others.
+ * <p>
+ * Expenses written between recomputing and storing the totals of a budget are lost from the fixed
+ * totals until the next run, which is why fixing is opt-in.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "budgettotals")
+@EnableConfigurationProperties(BudgetTotalsReconciliationProperties.class)
+@ConditionalOnProperty(value = "budget.totals.reconciliation.enabled", havingValue = "true")
+public class BudgetTotalsReconciliation {
+
+    private static final int REPORTED_DRIFTS = 20;
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetTotalsRepository budgetTotalsRepository;
+    private final BudgetTotalsReconciliationProperties properties;
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    @Scheduled(cron = "${budget.totals.reconciliation.cron:0 30 3 * * *}")
+    public void scheduledReconciliation() {
+        reconcile(properties.isFix());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (properties.isSeedOnStartup()) {
+            CompletableFuture.runAsync(this::seed);
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Object> lastReport() {
+        return lastReport;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> reconcile(@Nullable Boolean fix) {
+        return run(fix != null ? fix : properties.isFix(), false);
+    }
+
+    /**
+     * Seeds the counters of budgets that have none, leaving seeded counters unchecked.
+     */
+    public synchronized Map<String, Object> seed() {
+        return run(false, true);
+    }
+
+    private Map<String, Object> run(boolean fixDrift, boolean seedOnly) {
+        Instant startedAt = Instant.now();
+        long checked = 0;
+        long seeded = 0;
+        long drifted = 0;
+        List<String> drifts = new ArrayList<>();
+        try (Stream<Budget> budgets = budgetRepository.streamAllBudgetIds()) {
+            Iterator<Budget> iterator = budgets.iterator();
+            while (iterator.hasNext()) {
+                Budget budget = iterator.next();
+                checked++;
+                BudgetTotals running = budgetTotalsRepository.findCounters(budget.getId());
+                if (running.isSeeded() && seedOnly) {
+                    continue;
+                }
+                BudgetTotals recomputed = budgetTotalsRepository.recomputeTotals(budget.getId());
+                if (!running.isSeeded()) {
+                    seeded++;
+                    budgetTotalsRepository.replaceCounters(recomputed);
+                    continue;
+                }
+                String drift = describeDrift(running, recomputed, properties.getAmountTolerance());
+                if (drift == null) {
+                    continue;
+                }
+                drifted++;
+                log.warn("Totals of budget {} drifted: {}.", budget.getId(), drift);
+                if (drifts.size() < REPORTED_DRIFTS) {
+                    drifts.add(budget.getId() + ": " + drift);
+                }
+                if (fixDrift) {
+                    budgetTotalsRepository.replaceCounters(recomputed);
+                }
+            }
+        }
+        log.info("Reconciled totals of {} budgets, {} seeded, {} drifted{}.",
+                checked, seeded, drifted, fixDrift ? " and fixed" : "");
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt);
+        report.put("checked", checked);
+        report.put("seeded", seeded);
+        report.put("drifted", drifted);
+        report.put("fixed", fixDrift ? drifted : 0L);
+        report.put("drifts", drifts);
+        lastReport = report;
+        return report;
+    }
+
+    static String describeDrift(BudgetTotals running, BudgetTotals recomputed, double amountTolerance) {
+        List<String> differences = new ArrayList<>();
+        if (running.getExpenses() != recomputed.getExpenses()) {
+            differences.add("count " + running.getExpenses() + " instead of " + recomputed.getExpenses());
+        }
+        if (Math.abs(running.getExpenseAmount() - recomputed.getExpenseAmount()) >= amountTolerance) {
+            differences.add("amount " + running.getExpenseAmount() + " instead of " + recomputed.getExpenseAmount());
+        }
+        if (running.getJars() != recomputed.getJars()) {
+            differences.add("jars " + running.getJars() + " instead of " + recomputed.getJars());
+        }
+        if (!Objects.equals(running.getLastExpenseCreated(), recomputed.getLastExpenseCreated())) {
+            differences.add("last expense " + running.getLastExpenseCreated() + " instead of " + recomputed.getLastExpenseCreated());
+        }
+        return differences.isEmpty() ? null : String.join(", ", differences);
+    }
+}
@@ -0,0 +1,28 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "budget.totals.reconciliation")
+public class BudgetTotalsReconciliationProperties {
+
+    private boolean enabled = false;
+    /**
+     * Schedule of the reconciliation, nightly by default.
+     */
+    private String cron = "0 30 3 * * *";
+    /**
+     * When {@code false} drift is only reported, when {@code true} the recomputed totals are stored.
+     */
+    private boolean fix = false;
+    /**
+     * Seeds the counters of budgets that have none once the application is ready, for budgets
+     * created before the counters were maintained. Their estimated totals are counted exactly until then.
+     */
+    private boolean seedOnStartup = true;
+    /**
+     * Amounts differing by less than this are not treated as drift, sums of doubles are not exact.
+     */
+    private double amountTolerance = 0.005;
+}
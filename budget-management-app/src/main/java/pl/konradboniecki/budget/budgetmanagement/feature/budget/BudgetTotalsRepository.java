@@ -0,0 +1,8 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BudgetTotalsRepository extends MongoRepository<BudgetTotals, String>, BudgetTotalsRepositoryCustom {
+}
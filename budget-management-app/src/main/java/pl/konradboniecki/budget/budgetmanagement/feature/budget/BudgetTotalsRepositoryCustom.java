@@ -0,0 +1,90 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Every update of the counters also bumps the change version of the budget. Increments only
+ * update existing totals: a budget without them is either deleted, and must not get them back
+ * from a write that raced its deletion, or was created before the counters were maintained and
+ * is seeded by {@link BudgetTotalsReconciliation}.
+ */
+public interface BudgetTotalsRepositoryCustom {
+
+    /**
+     * Adds {@code count} expenses worth {@code amount} in total, negative values subtract.
+     *
+     * @param lastCreated moves {@code lastExpenseCreated} forward when later, ignored when {@code null}
+     */
+    void incrementExpenses(String budgetId, long count, double amount, Instant lastCreated);
+
+    /**
+     * Called after an expense created at {@code retracted} was removed or moved back in time. When
+     * it held {@code lastExpenseCreated}, replaces it with the creation time of the latest
+     * remaining expense, or unsets it when none is left. Left as it is when a later expense was
+     * counted meanwhile.
+     */
+    void retractLastExpenseCreated(String budgetId, Instant retracted);
+
+    void incrementJars(String budgetId, long delta);
+
+    /**
+     * Bumps the change version for a change that leaves the counters as they are, e.g. a renamed
+     * jar. Called after the change is stored, so a listing tagged with the new version shows it.
+     */
+    void incrementChangeVersion(String budgetId);
+
+    /**
+     * Reads the change version alone, by id.
+     *
+     * @return change version of the budget, 0 when nothing was changed yet
+     */
+    long findChangeVersion(String budgetId);
+
+    /**
+     * @return estimated expense count of the budget, empty until its counters are seeded
+     */
+    Optional<Long> countExpenses(String budgetId);
+
+    /**
+     * @return estimated jar count of the budget, empty until its counters are seeded
+     */
+    Optional<Long> countJars(String budgetId);
+
+    /**
+     * @return expense totals of the budget, zeroed when nothing was counted yet
+     */
+    BudgetTotals findExpenseTotals(String budgetId);
+
+    /**
+     * @return counters of the budget with its {@code seeded} flag, zeroed when nothing was counted yet
+     */
+    BudgetTotals findCounters(String budgetId);
+
+    /**
+     * Computes expense totals and the jar count of the budget from the expense and jar
+     * collections, without storing them.
+     */
+    BudgetTotals recomputeTotals(String budgetId);
+
+    /**
+     * Overwrites the expense totals and the jar count of the budget and marks its counters seeded.
+     */
+    void replaceCounters(BudgetTotals totals);
+
+    /**
+     * Upserts the totals of a budget created without jars and expenses, with its counters seeded
+     * and its expense rollups complete.
+     */
+    void initialize(String budgetId);
+
+    /**
+     * @return whether monthly aggregations of the budget may be read from its expense rollups
+     */
+    boolean hasCompleteRollups(String budgetId);
+
+    /**
+     * Called after the expense rollups of the budget were rebuilt from its expenses.
+     */
+    void markRollupsComplete(String budgetId);
+}
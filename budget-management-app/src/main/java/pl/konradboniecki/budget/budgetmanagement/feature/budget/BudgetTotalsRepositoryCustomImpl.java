@@ -0,0 +1,194 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@AllArgsConstructor
+class BudgetTotalsRepositoryCustomImpl implements BudgetTotalsRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementExpenses(String budgetId, long count, double amount, Instant lastCreated) {
+        mongoTemplate.updateFirst(
+                Query.query(where("id").is(budgetId)),
+                expensesIncrement(count, amount, lastCreated),
+                BudgetTotals.class);
+    }
+
+    static Update expensesIncrement(long count, double amount, Instant lastCreated) {
+        Update update = new Update()
+                .inc("expenses", count)
+                .inc("expenseAmount", amount)
+                .inc("changeVersion", 1);
+        if (lastCreated != null) {
+            update.max("lastExpenseCreated", lastCreated);
+        }
+        return update;
+    }
+
+    @Override
+    public void retractLastExpenseCreated(String budgetId, Instant retracted) {
+        Expense latest = mongoTemplate.findOne(latestExpense(budgetId), Expense.class);
+        mongoTemplate.updateFirst(
+                lastExpenseCreatedAt(budgetId, retracted),
+                lastExpenseCreatedOf(latest),
+                BudgetTotals.class);
+    }
+
+    static Query latestExpense(String budgetId) {
+        Query query = Query.query(where("budgetId").is(budgetId))
+                .with(Sort.by(Sort.Direction.DESC, "created"))
+                .limit(1);
+        query.fields().include("created");
+        return query;
+    }
+
+    /**
+     * Matches only while {@code lastExpenseCreated} still holds the retracted value, so that an
+     * expense counted after the latest one was looked up is not overwritten.
+     */
+    static Query lastExpenseCreatedAt(String budgetId, Instant retracted) {
+        return Query.query(where("id").is(budgetId).and("lastExpenseCreated").is(retracted));
+    }
+
+    static Update lastExpenseCreatedOf(Expense latest) {
+        return latest == null || latest.getCreated() == null
+                ? new Update().unset("lastExpenseCreated")
+                : new Update().set("lastExpenseCreated", latest.getCreated());
+    }
+
+    @Override
+    public void incrementJars(String budgetId, long delta) {
+        mongoTemplate.updateFirst(
+                Query.query(where("id").is(budgetId)),
+                jarsIncrement(delta),
+                BudgetTotals.class);
+    }
+
+    static Update jarsIncrement(long delta) {
+        return new Update()
+                .inc("jars", delta)
+                .inc("changeVersion", 1);
+    }
+
+    @Override
+    public void incrementChangeVersion(String budgetId) {
+        mongoTemplate.updateFirst(
+                Query.query(where("id").is(budgetId)),
+                new Update().inc("changeVersion", 1),
+                BudgetTotals.class);
+    }
+
+    @Override
+    public long findChangeVersion(String budgetId) {
+        BudgetTotals totals = findTotals(budgetId, "changeVersion");
+        return totals == null ? 0L : totals.getChangeVersion();
+    }
+
+    @Override
+    public Optional<Long> countExpenses(String budgetId) {
+        return Optional.ofNullable(findTotals(budgetId, "expenses", "seeded"))
+                .filter(BudgetTotals::isSeeded)
+                .map(totals -> Math.max(totals.getExpenses(), 0L));
+    }
+
+    @Override
+    public Optional<Long> countJars(String budgetId) {
+        return Optional.ofNullable(findTotals(budgetId, "jars", "seeded"))
+                .filter(BudgetTotals::isSeeded)
+                .map(totals -> Math.max(totals.getJars(), 0L));
+    }
+
+    @Override
+    public BudgetTotals findExpenseTotals(String budgetId) {
+        BudgetTotals totals = findTotals(budgetId, "expenses", "expenseAmount", "lastExpenseCreated");
+        return totals == null ? new BudgetTotals().setId(budgetId) : totals;
+    }
+
+    @Override
+    public BudgetTotals findCounters(String budgetId) {
+        BudgetTotals totals = findTotals(budgetId, "expenses", "expenseAmount", "lastExpenseCreated", "jars", "seeded");
+        return totals == null ? new BudgetTotals().setId(budgetId) : totals;
+    }
+
+    @Override
+    public BudgetTotals recomputeTotals(String budgetId) {
+        BudgetTotals totals = mongoTemplate.aggregate(
+                        expenseTotalsAggregation(budgetId), Expense.class, BudgetTotals.class)
+                .getUniqueMappedResult();
+        return (totals == null ? new BudgetTotals() : totals)
+                .setId(budgetId)
+                .setJars(mongoTemplate.count(Query.query(where("budgetId").is(budgetId)), Jar.class));
+    }
+
+    static Aggregation expenseTotalsAggregation(String budgetId) {
+        return Aggregation.newAggregation(
+                match(where("budgetId").is(budgetId)),
+                group()
+                        .count().as("expenses")
+                        .sum("amount").as("expenseAmount")
+                        .max("created").as("lastExpenseCreated"));
+    }
+
+    @Override
+    public void replaceCounters(BudgetTotals totals) {
+        mongoTemplate.upsert(
+                Query.query(where("id").is(totals.getId())),
+                new Update()
+                        .set("expenses", totals.getExpenses())
+                        .set("expenseAmount", totals.getExpenseAmount())
+                        .set("lastExpenseCreated", totals.getLastExpenseCreated())
+                        .set("jars", totals.getJars())
+                        .set("seeded", true)
+                        .inc("changeVersion", 1),
+                BudgetTotals.class);
+    }
+
+    @Override
+    public void initialize(String budgetId) {
+        mongoTemplate.upsert(
+                Query.query(where("id").is(budgetId)),
+                initialization(),
+                BudgetTotals.class);
+    }
+
+    static Update initialization() {
+        return new Update()
+                .set("seeded", true)
+                .set("rollupsComplete", true);
+    }
+
+    @Override
+    public boolean hasCompleteRollups(String budgetId) {
+        BudgetTotals totals = findTotals(budgetId, "rollupsComplete");
+        return totals != null && totals.isRollupsComplete();
+    }
+
+    @Override
+    public void markRollupsComplete(String budgetId) {
+        mongoTemplate.upsert(
+                Query.query(where("id").is(budgetId)),
+                new Update().set("rollupsComplete", true),
+                BudgetTotals.class);
+    }
+
+    private BudgetTotals findTotals(String budgetId, String... counters) {
+        Query query = Query.query(where("id").is(budgetId));
+        query.fields().include(counters);
+        return mongoTemplate.findOne(query, BudgetTotals.class);
+    }
+}
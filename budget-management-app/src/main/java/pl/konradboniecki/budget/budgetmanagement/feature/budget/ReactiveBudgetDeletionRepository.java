@@ -0,0 +1,11 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveBudgetDeletionRepository extends ReactiveMongoRepository<BudgetDeletion, String>, ReactiveBudgetDeletionRepositoryCustom {
+
+    Flux<BudgetDeletion> findAllByStatus(String status);
+}
@@ -0,0 +1,15 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBudgetDeletionRepositoryCustom {
+
+    /**
+     * See {@link BudgetDeletionRepositoryCustom#start(String)}.
+     */
+    Mono<BudgetDeletion> start(String budgetId);
+
+    Mono<Void> addProgress(String budgetId, long jarsDeleted, long expensesDeleted);
+
+    Mono<Void> complete(String budgetId);
+}
@@ -0,0 +1,39 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+@AllArgsConstructor
+class ReactiveBudgetDeletionRepositoryCustomImpl implements ReactiveBudgetDeletionRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<BudgetDeletion> start(String budgetId) {
+        return reactiveMongoTemplate.findAndModify(
+                BudgetDeletionRepositoryCustomImpl.byBudgetId(budgetId),
+                BudgetDeletionRepositoryCustomImpl.startUpdate(),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                BudgetDeletion.class);
+    }
+
+    @Override
+    public Mono<Void> addProgress(String budgetId, long jarsDeleted, long expensesDeleted) {
+        return reactiveMongoTemplate.updateFirst(
+                        BudgetDeletionRepositoryCustomImpl.byBudgetId(budgetId),
+                        BudgetDeletionRepositoryCustomImpl.progressUpdate(jarsDeleted, expensesDeleted),
+                        BudgetDeletion.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> complete(String budgetId) {
+        return reactiveMongoTemplate.updateFirst(
+                        BudgetDeletionRepositoryCustomImpl.byBudgetId(budgetId),
+                        BudgetDeletionRepositoryCustomImpl.completeUpdate(),
+                        BudgetDeletion.class)
+                .then();
+    }
+}
@@ -0,0 +1,63 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ReactiveExpenseMonthlyRollupRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ReactiveExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.ReactiveJarRepository;
+
+import java.util.List;
+
+/**
+ * Blocks on the reactive repositories, which is fine on the worker threads and keeps the
+ * reactive profile on a single driver.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "reactive")
+class ReactiveBudgetDeletionStore implements BudgetDeletionStore {
+
+    private final ReactiveBudgetDeletionRepository budgetDeletionRepository;
+    private final ReactiveBudgetRepository budgetRepository;
+    private final ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private final ReactiveJarRepository jarRepository;
+    private final ReactiveExpenseRepository expenseRepository;
+    private final ReactiveExpenseMonthlyRollupRepository rollupRepository;
+
+    @Override
+    public List<String> findUnfinished() {
+        return budgetDeletionRepository.findAllByStatus(BudgetDeletion.IN_PROGRESS)
+                .map(BudgetDeletion::getId)
+                .collectList()
+                .block();
+    }
+
+    @Override
+    public long deleteJarBatch(String budgetId, int limit) {
+        return jarRepository.deleteBatchByBudgetId(budgetId, limit).block();
+    }
+
+    @Override
+    public long deleteExpenseBatch(String budgetId, int limit) {
+        return expenseRepository.deleteBatchByBudgetId(budgetId, limit).block();
+    }
+
+    @Override
+    public void addProgress(String budgetId, long jarsDeleted, long expensesDeleted) {
+        budgetDeletionRepository.addProgress(budgetId, jarsDeleted, expensesDeleted).block();
+    }
+
+    @Override
+    public void deleteBudget(String budgetId) {
+        rollupRepository.deleteByBudgetId(budgetId)
+                .then(budgetTotalsRepository.deleteById(budgetId))
+                .then(budgetRepository.deleteById(budgetId))
+                .block();
+    }
+
+    @Override
+    public void complete(String budgetId) {
+        budgetDeletionRepository.complete(budgetId).block();
+    }
+}
@@ -0,0 +1,14 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveBudgetRepository extends ReactiveMongoRepository<Budget, String> {
+    Mono<Budget> findByFamilyId(String id);
+
+    Mono<Boolean> existsByFamilyId(String familyId);
+
+    Mono<Long> deleteBudgetById(String id);
+}
@@ -0,0 +1,84 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
+import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+import pl.konradboniecki.chassis.exceptions.InternalServerErrorException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Non-blocking counterpart of {@link BudgetService}, used when the application runs with the
+ * {@code reactive} profile. Both services must stay behaviourally identical.
+ */
+@Slf4j
+@AllArgsConstructor
+@Service
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveBudgetService {
+
+    private final ReactiveBudgetRepository budgetRepository;
+    private final ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private final ReactiveBudgetDeletionRepository budgetDeletionRepository;
+    private final BudgetDeletionWorker budgetDeletionWorker;
+    private final BudgetMapper budgetMapper;
+
+    public Mono<OASBudget> findByOrThrow(String id, String idType) {
+        switch (idType) {
+            case "id":
+                return budgetRepository.findById(id)
+                        .switchIfEmpty(Mono.error(() -> new BudgetNotFoundException("Budget with id: " + id + " not found.")))
+                        .map(budgetMapper::toOASBudget);
+            case "family":
+                return budgetRepository.findByFamilyId(id)
+                        .switchIfEmpty(Mono.error(() -> new BudgetNotFoundException("Budget not found for family with id: " + id)))
+                        .map(budgetMapper::toOASBudget);
+            default:
+                return Mono.error(new BadRequestException("Invalid argument idType=" + idType + ", it should be \"id\" or \"family\""));
+        }
+    }
+
+    public Mono<OASCreatedBudget> saveBudget(OASBudgetCreation budgetCreation) {
+        Budget budget = budgetMapper.toBudget(budgetCreation);
+        budget.setId(UUID.randomUUID().toString());
+        return budgetRepository.insert(budget)
+                .flatMap(savedBudget -> budgetTotalsRepository.initialize(savedBudget.getId()).thenReturn(savedBudget))
+                .onErrorMap(e -> {
+                    if (e instanceof DuplicateKeyException) {
+                        return BudgetService.familyConflict(budget);
+                    }
+                    log.error("Failed to save Budget: " + budget);
+                    return new InternalServerErrorException("Unexpected error occurred.", e);
+                })
+                .map(budgetMapper::toOASCreatedBudget);
+    }
+
+    public Mono<OASBudgetDeletion> deleteBudget(String id) {
+        return budgetRepository.existsById(id)
+                .flatMap(exists -> exists
+                        ? budgetDeletionRepository.start(id)
+                        : Mono.<BudgetDeletion>error(new BudgetNotFoundException("Budget with id: " + id + " not found.")))
+                .flatMap(deletion -> budgetRepository.deleteBudgetById(id)
+                        .then(budgetTotalsRepository.deleteById(id))
+                        .then(Mono.fromRunnable(() -> budgetDeletionWorker.submit(id)))
+                        .thenReturn(deletion))
+                .map(budgetMapper::toOASBudgetDeletion);
+    }
+
+    public Mono<OASBudgetDeletion> findDeletion(String budgetId) {
+        return budgetDeletionRepository.findById(budgetId)
+                .switchIfEmpty(Mono.error(() -> new BudgetNotFoundException("Deletion of budget with id: " + budgetId + " not found.")))
+                .map(budgetMapper::toOASBudgetDeletion);
+    }
+}
@@ -0,0 +1,8 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveBudgetTotalsRepository extends ReactiveMongoRepository<BudgetTotals, String>, ReactiveBudgetTotalsRepositoryCustom {
+}
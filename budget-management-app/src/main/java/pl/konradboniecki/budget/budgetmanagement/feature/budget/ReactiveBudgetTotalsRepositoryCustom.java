@@ -0,0 +1,38 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface ReactiveBudgetTotalsRepositoryCustom {
+
+    Mono<Void> incrementExpenses(String budgetId, long count, double amount, Instant lastCreated);
+
+    /**
+     * See {@link BudgetTotalsRepositoryCustom#retractLastExpenseCreated(String, Instant)}.
+     */
+    Mono<Void> retractLastExpenseCreated(String budgetId, Instant retracted);
+
+    Mono<Void> incrementJars(String budgetId, long delta);
+
+    Mono<Void> incrementChangeVersion(String budgetId);
+
+    /**
+     * Emits 0 when nothing was changed yet, see {@link BudgetTotalsRepositoryCustom#findChangeVersion(String)}.
+     */
+    Mono<Long> findChangeVersion(String budgetId);
+
+    /**
+     * Completes empty until the counters are seeded, see {@link BudgetTotalsRepositoryCustom#countExpenses(String)}.
+     */
+    Mono<Long> countExpenses(String budgetId);
+
+    /**
+     * Completes empty until the counters are seeded, see {@link BudgetTotalsRepositoryCustom#countJars(String)}.
+     */
+    Mono<Long> countJars(String budgetId);
+
+    Mono<BudgetTotals> findExpenseTotals(String budgetId);
+
+    Mono<Void> initialize(String budgetId);
+}
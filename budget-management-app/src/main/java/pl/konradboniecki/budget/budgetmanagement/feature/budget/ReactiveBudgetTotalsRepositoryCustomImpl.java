@@ -0,0 +1,91 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@AllArgsConstructor
+class ReactiveBudgetTotalsRepositoryCustomImpl implements ReactiveBudgetTotalsRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Void> incrementExpenses(String budgetId, long count, double amount, Instant lastCreated) {
+        return update(budgetId, BudgetTotalsRepositoryCustomImpl.expensesIncrement(count, amount, lastCreated));
+    }
+
+    @Override
+    public Mono<Void> retractLastExpenseCreated(String budgetId, Instant retracted) {
+        return reactiveMongoTemplate.findOne(BudgetTotalsRepositoryCustomImpl.latestExpense(budgetId), Expense.class)
+                .map(BudgetTotalsRepositoryCustomImpl::lastExpenseCreatedOf)
+                .defaultIfEmpty(BudgetTotalsRepositoryCustomImpl.lastExpenseCreatedOf(null))
+                .flatMap(update -> reactiveMongoTemplate.updateFirst(
+                        BudgetTotalsRepositoryCustomImpl.lastExpenseCreatedAt(budgetId, retracted), update, BudgetTotals.class))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> incrementJars(String budgetId, long delta) {
+        return update(budgetId, BudgetTotalsRepositoryCustomImpl.jarsIncrement(delta));
+    }
+
+    @Override
+    public Mono<Void> incrementChangeVersion(String budgetId) {
+        return update(budgetId, new Update().inc("changeVersion", 1));
+    }
+
+    @Override
+    public Mono<Long> findChangeVersion(String budgetId) {
+        return findTotals(budgetId, "changeVersion")
+                .map(BudgetTotals::getChangeVersion)
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<Long> countExpenses(String budgetId) {
+        return findTotals(budgetId, "expenses", "seeded")
+                .filter(BudgetTotals::isSeeded)
+                .map(totals -> Math.max(totals.getExpenses(), 0L));
+    }
+
+    @Override
+    public Mono<Long> countJars(String budgetId) {
+        return findTotals(budgetId, "jars", "seeded")
+                .filter(BudgetTotals::isSeeded)
+                .map(totals -> Math.max(totals.getJars(), 0L));
+    }
+
+    @Override
+    public Mono<BudgetTotals> findExpenseTotals(String budgetId) {
+        return findTotals(budgetId, "expenses", "expenseAmount", "lastExpenseCreated")
+                .defaultIfEmpty(new BudgetTotals().setId(budgetId));
+    }
+
+    @Override
+    public Mono<Void> initialize(String budgetId) {
+        return upsert(budgetId, BudgetTotalsRepositoryCustomImpl.initialization());
+    }
+
+    private Mono<Void> update(String budgetId, Update update) {
+        return reactiveMongoTemplate.updateFirst(Query.query(where("id").is(budgetId)), update, BudgetTotals.class)
+                .then();
+    }
+
+    private Mono<Void> upsert(String budgetId, Update update) {
+        return reactiveMongoTemplate.upsert(Query.query(where("id").is(budgetId)), update, BudgetTotals.class)
+                .then();
+    }
+
+    private Mono<BudgetTotals> findTotals(String budgetId, String... counters) {
+        Query query = Query.query(where("id").is(budgetId));
+        query.fields().include(counters);
+        return reactiveMongoTemplate.findOne(query, BudgetTotals.class);
+    }
+}
@@ -0,0 +1,59 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMonthlyRollupRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "imperative", matchIfMissing = true)
+class RepositoryBudgetDeletionStore implements BudgetDeletionStore {
+
+    private final BudgetDeletionRepository budgetDeletionRepository;
+    private final BudgetRepository budgetRepository;
+    private final BudgetTotalsRepository budgetTotalsRepository;
+    private final JarRepository jarRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseMonthlyRollupRepository rollupRepository;
+
+    @Override
+    public List<String> findUnfinished() {
+        return budgetDeletionRepository.findAllByStatus(BudgetDeletion.IN_PROGRESS).stream()
+                .map(BudgetDeletion::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long deleteJarBatch(String budgetId, int limit) {
+        return jarRepository.deleteBatchByBudgetId(budgetId, limit);
+    }
+
+    @Override
+    public long deleteExpenseBatch(String budgetId, int limit) {
+        return expenseRepository.deleteBatchByBudgetId(budgetId, limit);
+    }
+
+    @Override
+    public void addProgress(String budgetId, long jarsDeleted, long expensesDeleted) {
+        budgetDeletionRepository.addProgress(budgetId, jarsDeleted, expensesDeleted);
+    }
+
+    @Override
+    public void deleteBudget(String budgetId) {
+        rollupRepository.deleteByBudgetId(budgetId);
+        budgetTotalsRepository.deleteById(budgetId);
+        // already removed when the deletion was requested, unless the instance stopped in between
+        budgetRepository.deleteById(budgetId);
+    }
+
+    @Override
+    public void complete(String budgetId) {
+        budgetDeletionRepository.complete(budgetId);
+    }
+}
@@ -6,7 +6,7 @@ import lombok.NonNull;
 import lombok.experimental.Accessors;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -18,13 +18,13 @@ import java.time.Instant;
 public class Expense {
 
     @Id
-    @Indexed(unique = true)
     private String id;
-    @Indexed(unique = true)
     private String budgetId;
     private Double amount;
     private String comment;
     private Instant created;
+    @Version
+    private Long version;
 
     public Expense mergeWith(@NonNull Expense secondExpense) {
         if (secondExpense.getId() != null)
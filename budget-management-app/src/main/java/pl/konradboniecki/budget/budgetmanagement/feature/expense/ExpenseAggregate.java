@@ -0,0 +1,24 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+/**
+ * One output document of the expense aggregation pipeline, the group key is the truncated
+ * start of the period.
+ */
+@Data
+@Accessors(chain = true)
+public class ExpenseAggregate {
+
+    @Id
+    private Instant start;
+    private long count;
+    private Double total;
+    private Double min;
+    private Double max;
+    private Double average;
+}
@@ -0,0 +1,18 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "budget.expenses.batch")
+public class ExpenseBatchProperties {
+
+    /**
+     * Number of expenses sent to Mongo in one bulk write.
+     */
+    private int chunkSize = 500;
+    /**
+     * Upper bound of failures listed in an NDJSON import response, further failures are only counted.
+     */
+    private int maxReportedErrors = 100;
+}
@@ -0,0 +1,64 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.Date;
+
+/**
+ * Maps {@link Expense} to and from its stored document without the reflective
+ * {@code MappingMongoConverter}, selected with {@code budget.mongo.mapping=hand-written}.
+ * {@code created} is stored as a BSON date like the reflective mapping stores an {@link java.time.Instant},
+ * so it keeps millisecond precision either way.
+ */
+public final class ExpenseConverters {
+
+    public static final Converter<Document, Expense> READING = new Reading();
+    public static final Converter<Expense, Document> WRITING = new Writing();
+
+    private ExpenseConverters() {
+    }
+
+    @ReadingConverter
+    private static class Reading implements Converter<Document, Expense> {
+
+        @Override
+        public Expense convert(Document source) {
+            Object amount = source.get("amount");
+            Date created = source.getDate("created");
+            Object version = source.get("version");
+            return new Expense()
+                    .setId(source.get("_id", String.class))
+                    .setBudgetId(source.getString("budgetId"))
+                    .setAmount(amount == null ? null : ((Number) amount).doubleValue())
+                    .setComment(source.getString("comment"))
+                    .setCreated(created == null ? null : created.toInstant())
+                    .setVersion(version == null ? null : ((Number) version).longValue());
+        }
+    }
+
+    @WritingConverter
+    private static class Writing implements Converter<Expense, Document> {
+
+        @Override
+        public Document convert(Expense source) {
+            Document document = new Document();
+            putIfNotNull(document, "_id", source.getId());
+            putIfNotNull(document, "budgetId", source.getBudgetId());
+            putIfNotNull(document, "amount", source.getAmount());
+            putIfNotNull(document, "comment", source.getComment());
+            putIfNotNull(document, "created", source.getCreated() == null ? null : Date.from(source.getCreated()));
+            putIfNotNull(document, "version", source.getVersion());
+            document.put("_class", Expense.class.getName());
+            return document;
+        }
+
+        private static void putIfNotNull(Document document, String key, Object value) {
+            if (value != null) {
+                document.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.bson.BsonDocument;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position after an expense in {@link ExpenseRepository#PAGE_ORDER}. Expenses stored before
+ * {@code created} was always set have none, they sort after all dated ones and their cursor
+ * encodes an empty creation time.
+ */
+@Value
+public class ExpenseCursor {
+
+    private static final String SEPARATOR = ":";
+
+    Instant created;
+    String id;
+
+    static ExpenseCursor of(@NonNull Expense expense) {
+        return new ExpenseCursor(expense.getCreated(), expense.getId());
+    }
+
+    static ExpenseCursor of(@NonNull BsonDocument expense) {
+        Instant created = expense.isDateTime("created")
+                ? Instant.ofEpochMilli(expense.getDateTime("created").getValue())
+                : null;
+        return new ExpenseCursor(created, expense.getString("_id").getValue());
+    }
+
+    public String encode() {
+        String position = (created == null ? "" : String.valueOf(created.toEpochMilli())) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(SEPARATOR, 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            Instant created = parts[0].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(parts[0]));
+            return new ExpenseCursor(created, parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
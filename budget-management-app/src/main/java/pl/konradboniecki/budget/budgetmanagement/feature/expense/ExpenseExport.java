@@ -0,0 +1,43 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Export prepared by {@link ExpenseService#exportExpenses}. The query runs only in
+ * {@link #writeTo(OutputStream)}, one cursor batch at a time, so nothing is buffered beyond
+ * the current batch and the writer buffer.
+ */
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class ExpenseExport {
+
+    @Getter
+    private final ExpenseExportFormat format;
+    private final Supplier<Stream<Expense>> expenses;
+    private final ExpenseMapper expenseMapper;
+    private final ObjectWriter jsonWriter;
+
+    public void writeTo(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(format.header());
+        try (Stream<Expense> stream = expenses.get()) {
+            Iterator<Expense> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.write(format.line(expenseMapper.toOASExpense(iterator.next()), jsonWriter));
+            }
+        }
+        writer.flush();
+    }
+}
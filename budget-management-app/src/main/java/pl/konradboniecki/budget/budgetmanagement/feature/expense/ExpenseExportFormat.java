@@ -0,0 +1,74 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Line based formats of the expense export. Every expense is encoded on its own, so an export
+ * can be written while the cursor is still being read.
+ */
+public enum ExpenseExportFormat {
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        public String header() {
+            return "";
+        }
+
+        @Override
+        public String line(OASExpense expense, ObjectWriter jsonWriter) throws JsonProcessingException {
+            return jsonWriter.writeValueAsString(expense) + "\n";
+        }
+    },
+    CSV("text/csv") {
+        @Override
+        public String header() {
+            return "id,budgetId,amount,comment,created\r\n";
+        }
+
+        @Override
+        public String line(OASExpense expense, ObjectWriter jsonWriter) {
+            return String.join(",",
+                    escape(expense.getId()),
+                    escape(expense.getBudgetId()),
+                    escape(expense.getAmount()),
+                    escape(expense.getComment()),
+                    escape(expense.getCreated())) + "\r\n";
+        }
+    };
+
+    private final String mediaType;
+
+    ExpenseExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public abstract String header();
+
+    public abstract String line(OASExpense expense, ObjectWriter jsonWriter) throws JsonProcessingException;
+
+    public static ExpenseExportFormat of(String format) {
+        return Arrays.stream(values())
+                .filter(value -> value.name().equals(format.toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Invalid argument format=" + format + ", it should be \"ndjson\" or \"csv\""));
+    }
+
+    private static String escape(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,14 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "budget.expenses.export")
+public class ExpenseExportProperties {
+
+    /**
+     * Number of expenses fetched from the Mongo cursor per round trip while an export is written.
+     */
+    private int cursorBatchSize = 1000;
+}
@@ -1,11 +1,14 @@
 package pl.konradboniecki.budget.budgetmanagement.feature.expense;
 
 import lombok.NonNull;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import pl.konradboniecki.budget.openapi.dto.model.OASCreatedExpense;
-import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
-import pl.konradboniecki.budget.openapi.dto.model.OASExpenseCreation;
-import pl.konradboniecki.budget.openapi.dto.model.OASExpenseModification;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class ExpenseMapper {
@@ -23,7 +26,8 @@ public class ExpenseMapper {
                 .setBudgetId(expenseModification.getBudgetId())
                 .setAmount(expenseModification.getAmount())
                 .setComment(expenseModification.getComment())
-                .setCreated(expenseModification.getCreated());
+                .setCreated(expenseModification.getCreated())
+                .setVersion(expenseModification.getVersion());
     }
 
     public OASExpense toOASExpense(@NonNull Expense expense) {
@@ -32,7 +36,8 @@ public class ExpenseMapper {
                 .budgetId(expense.getBudgetId())
                 .amount(expense.getAmount())
                 .comment(expense.getComment())
-                .created(expense.getCreated());
+                .created(expense.getCreated())
+                .version(expense.getVersion());
     }
 
     public OASExpenseCreation toOASExpenseCreation(@NonNull Expense expense) {
@@ -48,7 +53,8 @@ public class ExpenseMapper {
                 .budgetId(expense.getBudgetId())
                 .amount(expense.getAmount())
                 .comment(expense.getComment())
-                .created(expense.getCreated());
+                .created(expense.getCreated())
+                .version(expense.getVersion());
     }
 
     public OASExpenseModification toOASExpenseModification(@NonNull Expense expense) {
@@ -57,6 +63,102 @@ public class ExpenseMapper {
                 .budgetId(expense.getBudgetId())
                 .amount(expense.getAmount())
                 .comment(expense.getComment())
-                .created(expense.getCreated());
+                .created(expense.getCreated())
+                .version(expense.getVersion());
+    }
+
+    public OASExpensePage toOASExpensePage(@NonNull Slice<Expense> expenseSlice, Long totalElements) {
+        String nextCursor = nextCursor(expenseSlice.getContent(), expenseSlice.hasNext());
+        return new OASExpensePage()
+                .items(toOASExpenseList(expenseSlice.getContent()))
+                .meta(paginationMetadata(expenseSlice, nextCursor, totalElements));
+    }
+
+    public OASExpensePage toOASExpensePage(@NonNull List<Expense> pageContent, int pageSize, boolean hasNext) {
+        return new OASExpensePage()
+                .items(toOASExpenseList(pageContent))
+                .meta(paginationMetadata(pageContent.size(), pageSize, nextCursor(pageContent, hasNext)));
+    }
+
+    /**
+     * Counterpart of {@link #toOASExpensePage(Slice, Long)} for expenses read as stored documents.
+     */
+    public OASExpensePage toRawExpensePage(@NonNull Slice<RawBsonDocument> expenseSlice, Long totalElements) {
+        String nextCursor = rawNextCursor(expenseSlice.getContent(), expenseSlice.hasNext());
+        return new RawExpensePage(expenseSlice.getContent(), paginationMetadata(expenseSlice, nextCursor, totalElements));
+    }
+
+    /**
+     * Counterpart of {@link #toOASExpensePage(List, int, boolean)} for expenses read as stored documents.
+     */
+    public OASExpensePage toRawExpensePage(@NonNull List<RawBsonDocument> pageContent, int pageSize, boolean hasNext) {
+        String nextCursor = rawNextCursor(pageContent, hasNext);
+        return new RawExpensePage(pageContent, paginationMetadata(pageContent.size(), pageSize, nextCursor));
+    }
+
+    public OASExpenseAggregation toOASExpenseAggregation(@NonNull List<ExpenseAggregate> aggregates, @NonNull String groupBy) {
+        return new OASExpenseAggregation()
+                .groupBy(OASExpenseAggregation.GroupByEnum.fromValue(groupBy))
+                .periods(aggregates.stream()
+                        .map(this::toOASExpensePeriodAggregate)
+                        .collect(Collectors.toList()));
+    }
+
+    public OASExpensePeriodAggregate toOASExpensePeriodAggregate(@NonNull ExpenseAggregate aggregate) {
+        return new OASExpensePeriodAggregate()
+                .start(aggregate.getStart())
+                .count(aggregate.getCount())
+                .total(aggregate.getTotal())
+                .min(aggregate.getMin())
+                .max(aggregate.getMax())
+                .average(aggregate.getAverage());
+    }
+
+    public OASExpenseTotals toOASExpenseTotals(@NonNull BudgetTotals totals) {
+        return new OASExpenseTotals()
+                .count(Math.max(totals.getExpenses(), 0L))
+                .total(totals.getExpenseAmount())
+                .lastExpenseCreated(totals.getLastExpenseCreated());
+    }
+
+    private List<OASExpense> toOASExpenseList(List<Expense> expenses) {
+        return expenses.stream()
+                .map(this::toOASExpense)
+                .collect(Collectors.toList());
+    }
+
+    private String nextCursor(List<Expense> pageContent, boolean hasNext) {
+        if (!hasNext || pageContent.isEmpty()) {
+            return null;
+        }
+        return ExpenseCursor.of(pageContent.get(pageContent.size() - 1)).encode();
+    }
+
+    private String rawNextCursor(List<RawBsonDocument> pageContent, boolean hasNext) {
+        if (!hasNext || pageContent.isEmpty()) {
+            return null;
+        }
+        return ExpenseCursor.of(pageContent.get(pageContent.size() - 1)).encode();
+    }
+
+    private static OASPaginationMetadata paginationMetadata(Slice<?> slice, String nextCursor, Long totalElements) {
+        OASPaginationMetadata paginationMetadata = new OASPaginationMetadata()
+                .elements(slice.getNumberOfElements())
+                .pageSize(slice.getSize())
+                .page(slice.getNumber())
+                .nextCursor(nextCursor);
+        if (totalElements != null) {
+            paginationMetadata
+                    .totalPages((int) ((totalElements + slice.getSize() - 1) / slice.getSize()))
+                    .totalElements(totalElements.intValue());
+        }
+        return paginationMetadata;
+    }
+
+    private static OASPaginationMetadata paginationMetadata(int elements, int pageSize, String nextCursor) {
+        return new OASPaginationMetadata()
+                .elements(elements)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor);
     }
 }
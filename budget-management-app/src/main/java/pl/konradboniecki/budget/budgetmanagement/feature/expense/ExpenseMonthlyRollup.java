@@ -0,0 +1,30 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Sum, count, min and max of the expenses a budget created in one UTC month, keyed by
+ * {@code budgetId:yyyy-MM}. Kept up to date by the expense writes; {@code min} and {@code max}
+ * are recomputed from the month's expenses when an expense holding one of them goes away.
+ */
+@Data
+@Accessors(chain = true)
+@Document("expense_monthly_rollup")
+public class ExpenseMonthlyRollup {
+
+    @Id
+    private String id;
+    private String budgetId;
+    private String month;
+    private long count;
+    private Double sum;
+    private Double min;
+    private Double max;
+    /**
+     * Id of the rebuild that last wrote the month, {@code null} after any other write.
+     */
+    private String rebuildId;
+}
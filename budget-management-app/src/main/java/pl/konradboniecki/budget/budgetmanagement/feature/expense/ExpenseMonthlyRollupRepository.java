@@ -0,0 +1,23 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExpenseMonthlyRollupRepository extends MongoRepository<ExpenseMonthlyRollup, String>, ExpenseMonthlyRollupRepositoryCustom {
+
+    Sort MONTH_ORDER = Sort.by(Sort.Direction.ASC, "month");
+
+    /**
+     * @param fromMonth inclusive {@code yyyy-MM}
+     * @param toMonth   exclusive {@code yyyy-MM}
+     */
+    @Query("{ 'budgetId': ?0, 'month': { $gte: ?1, $lt: ?2 } }")
+    List<ExpenseMonthlyRollup> findMonthRange(String budgetId, String fromMonth, String toMonth, Sort sort);
+
+    Long deleteByBudgetId(String budgetId);
+}
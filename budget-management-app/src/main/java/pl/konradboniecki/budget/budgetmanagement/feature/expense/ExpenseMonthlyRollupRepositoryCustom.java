@@ -0,0 +1,30 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import java.util.List;
+
+public interface ExpenseMonthlyRollupRepositoryCustom {
+
+    /**
+     * Adds created expenses to the rollups of their months with one unordered bulk of upserts.
+     */
+    void addAll(String budgetId, List<Expense> expenses);
+
+    /**
+     * Takes a removed expense out of its month, recomputing the month when it has no rollup yet.
+     * Must be called after the expense is deleted.
+     */
+    void subtract(String budgetId, Expense expense);
+
+    /**
+     * Moves an updated expense from its previous amount and month to the stored ones. Must be
+     * called after the expense is saved.
+     */
+    void replace(String budgetId, Expense before, Expense after);
+
+    /**
+     * Replaces all rollups of the budget with ones computed from its expenses. Months are
+     * overwritten in place, so the budget never has fewer rollups than before while it runs;
+     * months left without expenses are removed afterwards.
+     */
+    void rebuild(String budgetId);
+}
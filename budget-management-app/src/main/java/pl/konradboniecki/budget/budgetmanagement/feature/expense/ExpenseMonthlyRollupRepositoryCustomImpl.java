@@ -0,0 +1,195 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@AllArgsConstructor
+class ExpenseMonthlyRollupRepositoryCustomImpl implements ExpenseMonthlyRollupRepositoryCustom {
+
+    static final String COLLECTION = "expense_monthly_rollup";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void addAll(String budgetId, List<Expense> expenses) {
+        Map<YearMonth, List<Expense>> byMonth = expenses.stream()
+                .filter(expense -> expense.getCreated() != null)
+                .collect(Collectors.groupingBy(expense -> month(expense.getCreated()), TreeMap::new, Collectors.toList()));
+        if (byMonth.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, ExpenseMonthlyRollup.class);
+        byMonth.forEach((month, monthExpenses) -> bulk.upsert(byId(budgetId, month), addition(budgetId, month, monthExpenses)));
+        bulk.execute();
+    }
+
+    @Override
+    public void subtract(String budgetId, Expense expense) {
+        subtractOrRecompute(budgetId, expense);
+    }
+
+    @Override
+    public void replace(String budgetId, Expense before, Expense after) {
+        boolean recomputed = subtractOrRecompute(budgetId, before);
+        if (recomputed && month(before.getCreated()).equals(month(after.getCreated()))) {
+            // the month was rebuilt from the stored expenses, which already hold the new state
+            return;
+        }
+        addAll(budgetId, List.of(after));
+    }
+
+    private boolean subtractOrRecompute(String budgetId, Expense expense) {
+        if (expense.getCreated() == null) {
+            return false;
+        }
+        YearMonth month = month(expense.getCreated());
+        double amount = ExpenseService.amountOf(expense);
+        ExpenseMonthlyRollup rollup = mongoTemplate.findAndModify(
+                byId(budgetId, month),
+                subtraction(amount),
+                FindAndModifyOptions.options().returnNew(true),
+                ExpenseMonthlyRollup.class);
+        if (!needsRecompute(rollup, amount)) {
+            return false;
+        }
+        recompute(budgetId, month);
+        return true;
+    }
+
+    @Override
+    public void rebuild(String budgetId) {
+        String rebuildId = UUID.randomUUID().toString();
+        mongoTemplate.aggregate(rebuildAggregation(budgetId, rebuildId), Expense.class, Document.class);
+        Query notRebuilt = Query.query(where("budgetId").is(budgetId).and("rebuildId").ne(rebuildId));
+        notRebuilt.fields().include("month");
+        // months the merge did not write had no expenses, unless one was added since
+        for (ExpenseMonthlyRollup stale : mongoTemplate.find(notRebuilt, ExpenseMonthlyRollup.class)) {
+            recompute(budgetId, YearMonth.parse(stale.getMonth()));
+        }
+    }
+
+    private void recompute(String budgetId, YearMonth month) {
+        ExpenseMonthlyRollup recomputed = mongoTemplate.aggregate(monthAggregation(budgetId, month), Expense.class, ExpenseMonthlyRollup.class)
+                .getUniqueMappedResult();
+        if (recomputed == null) {
+            mongoTemplate.remove(byId(budgetId, month), ExpenseMonthlyRollup.class);
+        } else {
+            mongoTemplate.save(recomputed.setId(id(budgetId, month)).setBudgetId(budgetId).setMonth(month.toString()));
+        }
+    }
+
+    static YearMonth month(Instant created) {
+        return YearMonth.from(created.atOffset(ZoneOffset.UTC));
+    }
+
+    static String id(String budgetId, YearMonth month) {
+        return budgetId + ":" + month;
+    }
+
+    static Query byId(String budgetId, YearMonth month) {
+        return Query.query(where("id").is(id(budgetId, month)));
+    }
+
+    static Update addition(String budgetId, YearMonth month, List<Expense> expenses) {
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Expense expense : expenses) {
+            double amount = ExpenseService.amountOf(expense);
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+        return new Update()
+                .setOnInsert("budgetId", budgetId)
+                .setOnInsert("month", month.toString())
+                .inc("count", expenses.size())
+                .inc("sum", sum)
+                .min("min", min)
+                .max("max", max);
+    }
+
+    static Update subtraction(double amount) {
+        return new Update()
+                .inc("count", -1)
+                .inc("sum", -amount);
+    }
+
+    /**
+     * {@code $min}/{@code $max} cannot be reverted, so a month is recomputed when the subtracted
+     * amount may have been its minimum or maximum, or when nothing is left in it. A month without
+     * a rollup, of a budget whose rollups were not built yet, is recomputed as well.
+     */
+    static boolean needsRecompute(ExpenseMonthlyRollup rollup, double amount) {
+        if (rollup == null) {
+            return true;
+        }
+        return rollup.getCount() <= 0
+                || rollup.getMin() == null || amount <= rollup.getMin()
+                || rollup.getMax() == null || amount >= rollup.getMax();
+    }
+
+    static Aggregation monthAggregation(String budgetId, YearMonth month) {
+        Instant from = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return Aggregation.newAggregation(
+                match(where("budgetId").is(budgetId).and("created").gte(from).lt(to)),
+                group()
+                        .count().as("count")
+                        .sum("amount").as("sum")
+                        .min("amount").as("min")
+                        .max("amount").as("max"));
+    }
+
+    /**
+     * Groups the budget's expenses by UTC month on the server and writes the result with
+     * {@code $merge}, so a backfill never reads expenses into the application. Every written
+     * month is tagged with {@code rebuildId}.
+     */
+    static Aggregation rebuildAggregation(String budgetId, String rebuildId) {
+        Document month = new Document("$dateToString", new Document("format", "%Y-%m")
+                .append("date", "$created")
+                .append("timezone", "UTC"));
+        Document group = new Document("_id", month)
+                .append("count", new Document("$sum", 1))
+                .append("sum", new Document("$sum", "$amount"))
+                .append("min", new Document("$min", "$amount"))
+                .append("max", new Document("$max", "$amount"));
+        Document project = new Document("_id", new Document("$concat", List.of(budgetId + ":", "$_id")))
+                .append("budgetId", new Document("$literal", budgetId))
+                .append("month", "$_id")
+                .append("count", 1)
+                .append("sum", 1)
+                .append("min", 1)
+                .append("max", 1)
+                .append("rebuildId", new Document("$literal", rebuildId));
+        Document merge = new Document("into", COLLECTION)
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert");
+        return Aggregation.newAggregation(
+                match(where("budgetId").is(budgetId).and("created").ne(null)),
+                context -> new Document("$group", group),
+                context -> new Document("$project", project),
+                context -> new Document("$merge", merge));
+    }
+}
@@ -2,17 +2,25 @@ package pl.konradboniecki.budget.budgetmanagement.feature.expense;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface ExpenseRepository extends MongoRepository<Expense, String> {
+public interface ExpenseRepository extends MongoRepository<Expense, String>, ExpenseRepositoryCustom {
+
+    Sort PAGE_ORDER = Sort.by(Sort.Direction.DESC, "created", "id");
 
     Page<Expense> findAllByBudgetId(String budgetId, Pageable pageable);
 
+    Slice<Expense> findSliceByBudgetId(String budgetId, Pageable pageable);
+
+    long countByBudgetId(String budgetId);
+
     Optional<Expense> findByIdAndBudgetId(String id, String budgetId);
 
-    void deleteByIdAndBudgetId(String id, String budgetId);
+    Long deleteByIdAndBudgetId(String id, String budgetId);
 }
@@ -0,0 +1,79 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ExpenseRepositoryCustom {
+
+    List<Expense> findAllByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit);
+
+    /**
+     * First {@code limit} expenses of the budget, aborted by the server once it runs longer than {@code maxTime}.
+     */
+    List<Expense> findFirstPage(String budgetId, int limit, Duration maxTime);
+
+    /**
+     * {@link #findAllByBudgetIdAfter} returning the documents as stored.
+     */
+    List<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit);
+
+    /**
+     * {@link ExpenseRepository#findSliceByBudgetId} returning the documents as stored.
+     */
+    Slice<RawBsonDocument> findRawSliceByBudgetId(String budgetId, Pageable pageable);
+
+    /**
+     * Deletes the expense in one round trip and returns its {@code amount} and {@code created}, the
+     * only fields read back.
+     */
+    Optional<Expense> removeByIdAndBudgetId(String id, String budgetId);
+
+    /**
+     * Sets the fields {@code changes} carries on the expense matched by id and budget id, and by
+     * version when {@code changes} has one. Fields the modification does not carry are left as
+     * stored.
+     *
+     * @return the expense as it was before the update, so that totals can be adjusted by the
+     * difference; empty when no expense matched
+     */
+    Optional<Expense> setFields(Expense changes);
+
+    /**
+     * Streams expenses of a budget in creation order from an open cursor. The stream must be closed
+     * to release the cursor.
+     *
+     * @param createdFrom inclusive lower bound of {@code created}, unbounded when {@code null}
+     * @param createdTo   exclusive upper bound of {@code created}, unbounded when {@code null}
+     */
+    Stream<Expense> streamAllByBudgetId(String budgetId, Instant createdFrom, Instant createdTo, int batchSize);
+
+    /**
+     * Groups expenses of a budget by the UTC period they were created in.
+     *
+     * @param unit one of {@code day}, {@code week} (starting on Monday) or {@code month}
+     */
+    List<ExpenseAggregate> aggregateByBudgetId(String budgetId, String unit, Instant createdFrom, Instant createdTo);
+
+    /**
+     * Inserts all expenses with one unordered bulk write, so a failing document does not stop the rest.
+     *
+     * @return error messages keyed by the position of the rejected expense in {@code expenses}
+     */
+    Map<Integer, String> insertAllUnordered(List<Expense> expenses);
+
+    /**
+     * Deletes up to {@code limit} expenses of the budget without touching totals or rollups,
+     * which a budget deletion removes as a whole.
+     *
+     * @return number of deleted expenses, 0 once the budget has none left
+     */
+    long deleteBatchByBudgetId(String budgetId, int limit);
+}
@@ -0,0 +1,208 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.mongodb.bulk.BulkWriteError;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawDocuments;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@AllArgsConstructor
+class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Expense> findAllByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit) {
+        return mongoTemplate.find(pageAfter(budgetId, after, limit), Expense.class);
+    }
+
+    @Override
+    public List<Expense> findFirstPage(String budgetId, int limit, Duration maxTime) {
+        return mongoTemplate.find(pageAfter(budgetId, null, limit).maxTime(maxTime), Expense.class);
+    }
+
+    @Override
+    public List<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit) {
+        return RawDocuments.find(mongoTemplate, pageAfter(budgetId, after, limit), Expense.class);
+    }
+
+    @Override
+    public Slice<RawBsonDocument> findRawSliceByBudgetId(String budgetId, Pageable pageable) {
+        return RawDocuments.toSlice(RawDocuments.find(mongoTemplate, sliceOf(budgetId, pageable), Expense.class), pageable);
+    }
+
+    /**
+     * Page of the budget's expenses with one extra document, to find out whether a next page exists.
+     */
+    static Query sliceOf(String budgetId, Pageable pageable) {
+        return Query.query(Criteria.where("budgetId").is(budgetId))
+                .with(pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+    }
+
+    static Query pageAfter(String budgetId, ExpenseCursor after, int limit) {
+        Criteria criteria = Criteria.where("budgetId").is(budgetId);
+        if (after != null && after.getCreated() == null) {
+            // undated expenses sort last, only undated ones with a lower id are left
+            criteria = criteria.and("created").is(null).and("id").lt(after.getId());
+        } else if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("created").lt(after.getCreated()),
+                    Criteria.where("created").is(after.getCreated()).and("id").lt(after.getId()),
+                    Criteria.where("created").is(null));
+        }
+        return new Query(criteria)
+                .with(ExpenseRepository.PAGE_ORDER)
+                .limit(limit);
+    }
+
+    @Override
+    public Optional<Expense> removeByIdAndBudgetId(String id, String budgetId) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(removal(id, budgetId), Expense.class));
+    }
+
+    @Override
+    public Optional<Expense> setFields(Expense changes) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(fieldsUpdateTarget(changes), fieldsUpdate(changes),
+                FindAndModifyOptions.options().returnNew(false), Expense.class));
+    }
+
+    static Query fieldsUpdateTarget(Expense changes) {
+        Criteria criteria = Criteria.where("id").is(changes.getId()).and("budgetId").is(changes.getBudgetId());
+        if (changes.getVersion() != null) {
+            criteria = criteria.and("version").is(changes.getVersion());
+        }
+        return new Query(criteria);
+    }
+
+    /**
+     * Sets only the fields the modification carries, picked the way
+     * {@link Expense#mergeWith(Expense)} picks them. $inc starts a missing version at 1.
+     */
+    static Update fieldsUpdate(Expense changes) {
+        Update update = new Update().inc("version", 1);
+        if (changes.getAmount() != null) {
+            update.set("amount", changes.getAmount());
+        }
+        if (!StringUtils.isEmpty(changes.getComment())) {
+            update.set("comment", changes.getComment());
+        }
+        if (changes.getCreated() != null) {
+            update.set("created", changes.getCreated());
+        }
+        return update;
+    }
+
+    static Query removal(String id, String budgetId) {
+        Query query = Query.query(Criteria.where("id").is(id).and("budgetId").is(budgetId));
+        query.fields().include("amount", "created");
+        return query;
+    }
+
+    @Override
+    public Stream<Expense> streamAllByBudgetId(String budgetId, Instant createdFrom, Instant createdTo, int batchSize) {
+        return mongoTemplate.stream(createdBetween(budgetId, createdFrom, createdTo).cursorBatchSize(batchSize), Expense.class);
+    }
+
+    static Query createdBetween(String budgetId, Instant createdFrom, Instant createdTo) {
+        return new Query(createdBetweenCriteria(budgetId, createdFrom, createdTo))
+                .with(Sort.by(Sort.Direction.ASC, "created", "id"));
+    }
+
+    private static Criteria createdBetweenCriteria(String budgetId, Instant createdFrom, Instant createdTo) {
+        Criteria criteria = Criteria.where("budgetId").is(budgetId);
+        if (createdFrom != null || createdTo != null) {
+            Criteria created = criteria.and("created");
+            if (createdFrom != null) {
+                created.gte(createdFrom);
+            }
+            if (createdTo != null) {
+                created.lt(createdTo);
+            }
+        }
+        return criteria;
+    }
+
+    @Override
+    public List<ExpenseAggregate> aggregateByBudgetId(String budgetId, String unit, Instant createdFrom, Instant createdTo) {
+        return mongoTemplate.aggregate(aggregation(budgetId, unit, createdFrom, createdTo), Expense.class, ExpenseAggregate.class)
+                .getMappedResults();
+    }
+
+    /**
+     * {@code $match} on the budget and created range, served by the (budgetId, created) prefix of the
+     * expense index, followed by a {@code $group} on {@code $dateTrunc} of created (MongoDB 5.0+).
+     */
+    static Aggregation aggregation(String budgetId, String unit, Instant createdFrom, Instant createdTo) {
+        Document period = new Document("date", "$created")
+                .append("unit", unit)
+                .append("timezone", "UTC");
+        if ("week".equals(unit)) {
+            period.append("startOfWeek", "monday");
+        }
+        Document group = new Document("_id", new Document("$dateTrunc", period))
+                .append("count", new Document("$sum", 1))
+                .append("total", new Document("$sum", "$amount"))
+                .append("min", new Document("$min", "$amount"))
+                .append("max", new Document("$max", "$amount"))
+                .append("average", new Document("$avg", "$amount"));
+        return Aggregation.newAggregation(
+                Aggregation.match(createdBetweenCriteria(budgetId, createdFrom, createdTo)),
+                context -> new Document("$group", group),
+                context -> new Document("$sort", new Document("_id", 1)));
+    }
+
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Expense.class)
+                    .insert(expenses)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+        }
+    }
+
+    @Override
+    public long deleteBatchByBudgetId(String budgetId, int limit) {
+        List<String> ids = mongoTemplate.find(batchOfBudget(budgetId, limit), Expense.class).stream()
+                .map(Expense::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0L;
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Expense.class).getDeletedCount();
+    }
+
+    static Query batchOfBudget(String budgetId, int limit) {
+        Query query = Query.query(Criteria.where("budgetId").is(budgetId)).limit(limit);
+        query.fields().include("id");
+        return query;
+    }
+}
@@ -0,0 +1,131 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Builds {@link ExpenseMonthlyRollup}s of existing budgets from their expenses. Budget ids are streamed
+ * and handed out in chunks of {@code budget.expenses.rollup.backfill.chunk-size} to a pool of
+ * {@code parallelism} threads; at most twice as many chunks are held at once, so the job runs in
+ * constant memory for any number of budgets. Each budget is rebuilt by a single server-side
+ * aggregation, which makes the job safe to rerun, e.g. to repair rollups after a failed write.
+ * Monthly aggregations of a budget are served from its rollups once it was rebuilt, see
+ * {@link BudgetTotals#isRollupsComplete()}.
+ * <p>
+ * An expense written while its budget is being rebuilt may be counted twice or not at all in its
+ * month until the next rebuild of that budget.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "expenserollups")
+@EnableConfigurationProperties(ExpenseRollupBackfillProperties.class)
+@ConditionalOnProperty(value = "budget.expenses.rollup.backfill.enabled", havingValue = "true")
+public class ExpenseRollupBackfill {
+
+    private static final int REPORTED_FAILURES = 20;
+
+    private final BudgetRepository budgetRepository;
+    private final ExpenseMonthlyRollupRepository rollupRepository;
+    private final BudgetTotalsRepository budgetTotalsRepository;
+    private final ExpenseRollupBackfillProperties properties;
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (properties.isOnStartup()) {
+            CompletableFuture.runAsync(this::backfill);
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Object> lastReport() {
+        return lastReport;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> backfill() {
+        Instant startedAt = Instant.now();
+        AtomicLong rebuilt = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<String> failures = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(properties.getParallelism() * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(properties.getParallelism());
+        try (Stream<Budget> budgets = budgetRepository.streamAllBudgetIds()) {
+            Iterator<Budget> iterator = budgets.iterator();
+            while (iterator.hasNext()) {
+                List<String> chunk = new ArrayList<>(properties.getChunkSize());
+                while (iterator.hasNext() && chunk.size() < properties.getChunkSize()) {
+                    chunk.add(iterator.next().getId());
+                }
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        rebuildChunk(chunk, rebuilt, failed, failures);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquireUninterruptibly(properties.getParallelism() * 2);
+        } finally {
+            pool.shutdown();
+        }
+        Duration took = Duration.between(startedAt, Instant.now());
+        log.info("Rebuilt expense rollups of {} budgets in {}, {} failed.", rebuilt.get(), took, failed.get());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt);
+        report.put("took", took.toString());
+        report.put("rebuilt", rebuilt.get());
+        report.put("failed", failed.get());
+        synchronized (failures) {
+            report.put("failures", List.copyOf(failures));
+        }
+        lastReport = report;
+        return report;
+    }
+
+    private void rebuildChunk(List<String> budgetIds, AtomicLong rebuilt, AtomicLong failed, List<String> failures) {
+        for (String budgetId : budgetIds) {
+            try {
+                rollupRepository.rebuild(budgetId);
+                budgetTotalsRepository.markRollupsComplete(budgetId);
+                rebuilt.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild expense rollups of budget {}.", budgetId, e);
+                failed.incrementAndGet();
+                synchronized (failures) {
+                    if (failures.size() < REPORTED_FAILURES) {
+                        failures.add(budgetId + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
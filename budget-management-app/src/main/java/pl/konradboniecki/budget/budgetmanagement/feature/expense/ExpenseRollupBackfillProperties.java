@@ -0,0 +1,24 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "budget.expenses.rollup.backfill")
+public class ExpenseRollupBackfillProperties {
+
+    private boolean enabled = false;
+    /**
+     * Starts a backfill once the application is ready, for the first deployment of the rollups.
+     */
+    private boolean onStartup = false;
+    /**
+     * Budgets rebuilt by one task, the unit of work handed to the pool.
+     */
+    private int chunkSize = 100;
+    /**
+     * Chunks rebuilt at the same time. Each rebuild is an aggregation over one budget's expenses,
+     * so this bounds the load the backfill puts on the database.
+     */
+    private int parallelism = 4;
+}
@@ -1,18 +1,41 @@
 package pl.konradboniecki.budget.budgetmanagement.feature.expense;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseConflictException;
 import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseCreationException;
 import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseNotFoundException;
-import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetExistenceCache;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.openapi.dto.model.*;
 import pl.konradboniecki.chassis.exceptions.BadRequestException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -21,12 +44,18 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 @AllArgsConstructor
 @Service
+@EnableConfigurationProperties({ExpenseBatchProperties.class, ExpenseExportProperties.class})
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "imperative", matchIfMissing = true)
 public class ExpenseService {
 
     private final ExpenseRepository expenseRepository;
-    //TODO: create facade to avoid spaghetti code
-    private final BudgetRepository budgetRepository;
+    private final BudgetExistenceCache budgetExistenceCache;
+    private final BudgetTotalsRepository budgetTotalsRepository;
     private final ExpenseMapper expenseMapper;
+    private final ExpenseBatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
+    private final ExpenseExportProperties exportProperties;
+    private final ExpenseMonthlyRollupRepository rollupRepository;
 
     public OASExpense findExpense(String expenseId, String budgetId) {
         Expense expense = findByIdAndBudgetIdOrThrow(expenseId, budgetId);
@@ -43,28 +72,110 @@ public class ExpenseService {
         }
     }
 
+    /**
+     * Weak ETag of the expense listings of the budget, read by id from the budget totals without
+     * touching the expenses. The listing parameters and the budget are checked first, so that an
+     * invalid request or a missing budget is never answered with 304.
+     *
+     * @return {@code null} when no change of the budget was recorded yet
+     */
+    public String findListETag(String budgetId, String cursor, String includeTotals) {
+        validListingOrThrow(cursor, includeTotals);
+        budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.");
+        return BudgetTotals.weakETag(budgetTotalsRepository.findChangeVersion(budgetId));
+    }
+
+    /**
+     * Rejects the listing parameters the listings would reject, without querying anything.
+     */
+    static void validListingOrThrow(String cursor, String includeTotals) {
+        if (cursor != null) {
+            ExpenseCursor.decode(cursor);
+        } else if (!"true".equals(includeTotals) && !"false".equals(includeTotals) && !"estimated".equals(includeTotals)) {
+            throw new BadRequestException("Invalid argument includeTotals=" + includeTotals + ", it should be \"true\", \"false\" or \"estimated\"");
+        }
+    }
+
     public OASExpensePage findAllExpensesByBudgetId(String budgetId, Pageable pageable) {
+        return findAllExpensesByBudgetId(budgetId, pageable, "true");
+    }
+
+    public OASExpensePage findAllExpensesByBudgetId(String budgetId, Pageable pageable, String includeTotals) {
         budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.");
 
-        Page<Expense> expensePage = expenseRepository.findAllByBudgetId(budgetId, pageable);
-        List<OASExpense> items = expensePage.get()
-                .map(expenseMapper::toOASExpense)
-                .collect(Collectors.toList());
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ExpenseRepository.PAGE_ORDER);
+        switch (includeTotals) {
+            case "true":
+                Page<Expense> expensePage = expenseRepository.findAllByBudgetId(budgetId, orderedPageable);
+                return expenseMapper.toOASExpensePage(expensePage, expensePage.getTotalElements());
+            case "estimated":
+                Slice<Expense> estimatedSlice = expenseRepository.findSliceByBudgetId(budgetId, orderedPageable);
+                return expenseMapper.toOASExpensePage(estimatedSlice, estimatedExpenseCount(budgetId));
+            case "false":
+                return expenseMapper.toOASExpensePage(expenseRepository.findSliceByBudgetId(budgetId, orderedPageable), null);
+            default:
+                throw new BadRequestException("Invalid argument includeTotals=" + includeTotals + ", it should be \"true\", \"false\" or \"estimated\"");
+        }
+    }
 
-        OASPaginationMetadata paginationMetadata = new OASPaginationMetadata()
-                .elements(expensePage.getNumberOfElements())
-                .pageSize(pageable.getPageSize())
-                .page(pageable.getPageNumber())
-                .totalPages(expensePage.getTotalPages())
-                .totalElements((int) expensePage.getTotalElements());
-        return new OASExpensePage()
-                .items(items)
-                .meta(paginationMetadata);
+    public OASExpensePage findAllExpensesByBudgetId(String budgetId, String cursor, int limit) {
+        budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.");
+
+        ExpenseCursor after = ExpenseCursor.decode(cursor);
+        List<Expense> expenses = expenseRepository.findAllByBudgetIdAfter(budgetId, after, limit + 1);
+        boolean hasNext = expenses.size() > limit;
+        List<Expense> pageContent = hasNext ? expenses.subList(0, limit) : expenses;
+        return expenseMapper.toOASExpensePage(pageContent, limit, hasNext);
+    }
+
+    /**
+     * Same page as {@link #findAllExpensesByBudgetId(String, Pageable, String)}, with the expenses
+     * passed through as stored instead of mapped one by one.
+     */
+    public OASExpensePage findRawExpensePage(String budgetId, Pageable pageable, String includeTotals) {
+        budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.");
+
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ExpenseRepository.PAGE_ORDER);
+        Slice<RawBsonDocument> expenseSlice;
+        switch (includeTotals) {
+            case "true":
+                expenseSlice = expenseRepository.findRawSliceByBudgetId(budgetId, orderedPageable);
+                long totalElements = PageableExecutionUtils.getPage(expenseSlice.getContent(), orderedPageable,
+                        () -> expenseRepository.countByBudgetId(budgetId)).getTotalElements();
+                return expenseMapper.toRawExpensePage(expenseSlice, totalElements);
+            case "estimated":
+                expenseSlice = expenseRepository.findRawSliceByBudgetId(budgetId, orderedPageable);
+                return expenseMapper.toRawExpensePage(expenseSlice, estimatedExpenseCount(budgetId));
+            case "false":
+                return expenseMapper.toRawExpensePage(expenseRepository.findRawSliceByBudgetId(budgetId, orderedPageable), null);
+            default:
+                throw new BadRequestException("Invalid argument includeTotals=" + includeTotals + ", it should be \"true\", \"false\" or \"estimated\"");
+        }
+    }
+
+    /**
+     * Same page as {@link #findAllExpensesByBudgetId(String, String, int)}, with the expenses
+     * passed through as stored instead of mapped one by one.
+     */
+    public OASExpensePage findRawExpensePage(String budgetId, String cursor, int limit) {
+        budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.");
+
+        ExpenseCursor after = ExpenseCursor.decode(cursor);
+        List<RawBsonDocument> expenses = expenseRepository.findRawByBudgetIdAfter(budgetId, after, limit + 1);
+        boolean hasNext = expenses.size() > limit;
+        List<RawBsonDocument> pageContent = hasNext ? expenses.subList(0, limit) : expenses;
+        return expenseMapper.toRawExpensePage(pageContent, limit, hasNext);
     }
 
     public void removeExpenseFromBudgetOrThrow(String expenseId, String budgetId) {
-        findByIdAndBudgetIdOrThrow(expenseId, budgetId);
-        expenseRepository.deleteByIdAndBudgetId(expenseId, budgetId);
+        budgetExistsOrThrow(budgetId, "Failed to delete expense. Budget not found.");
+        Expense removed = expenseRepository.removeByIdAndBudgetId(expenseId, budgetId)
+                .orElseThrow(() -> new ExpenseNotFoundException("Expense with id: " + expenseId + " not found in budget with id: " + budgetId + "."));
+        budgetTotalsRepository.incrementExpenses(budgetId, -1, -amountOf(removed), null);
+        if (removed.getCreated() != null) {
+            budgetTotalsRepository.retractLastExpenseCreated(budgetId, removed.getCreated());
+        }
+        rollupRepository.subtract(budgetId, removed);
     }
 
     public OASCreatedExpense saveExpense(OASExpenseCreation expenseCreation, String budgetIdFromPath) {
@@ -75,9 +186,252 @@ public class ExpenseService {
         expense.setId(UUID.randomUUID().toString());
         expense.setCreated(Instant.now());
         Expense savedExpense = expenseRepository.save(expense);
+        budgetTotalsRepository.incrementExpenses(budgetIdFromPath, 1, amountOf(expense), expense.getCreated());
+        rollupRepository.addAll(budgetIdFromPath, List.of(expense));
         return expenseMapper.toOASCreatedExpense(savedExpense);
     }
 
+    public OASExpenseBatchResult saveExpenses(OASExpenseBatchCreation batchCreation, String budgetIdFromPath) {
+        checkArgument(batchCreation != null, "expenses to save should not be null");
+        budgetExistsOrThrow(budgetIdFromPath, "Failed to create expenses. Budget not found.");
+
+        List<OASExpenseCreation> items = batchCreation.getItems();
+        OASExpenseBatchItemResult[] results = new OASExpenseBatchItemResult[items.size()];
+        List<Expense> expenses = new ArrayList<>(items.size());
+        List<Integer> positions = new ArrayList<>(items.size());
+        Instant created = Instant.now();
+        for (int index = 0; index < items.size(); index++) {
+            OASExpenseCreation item = items.get(index);
+            results[index] = new OASExpenseBatchItemResult().index(index);
+            String error = validateBatchItem(item, budgetIdFromPath);
+            if (error != null) {
+                results[index].error(error);
+            } else {
+                expenses.add(toNewExpense(item, created));
+                positions.add(index);
+            }
+        }
+
+        int createdCount = 0;
+        for (int from = 0; from < expenses.size(); from += batchProperties.getChunkSize()) {
+            List<Expense> chunk = expenses.subList(from, Math.min(from + batchProperties.getChunkSize(), expenses.size()));
+            Map<Integer, String> failures = insertChunk(chunk, budgetIdFromPath);
+            for (int i = 0; i < chunk.size(); i++) {
+                OASExpenseBatchItemResult result = results[positions.get(from + i)];
+                if (failures.containsKey(i)) {
+                    result.error(failures.get(i));
+                } else {
+                    result.id(chunk.get(i).getId());
+                }
+            }
+            createdCount += chunk.size() - failures.size();
+        }
+        return new OASExpenseBatchResult()
+                .created(createdCount)
+                .failed(items.size() - createdCount)
+                .items(Arrays.asList(results));
+    }
+
+    /**
+     * Streaming variant of {@link #saveExpenses} for NDJSON uploads. Lines are parsed one at a time
+     * and written in chunks of {@code budget.expenses.batch.chunk-size}; the next chunk is not read
+     * before the previous one is stored, so a slow database slows down the upload instead of
+     * filling the heap. Created ids are not returned and only the first
+     * {@code budget.expenses.batch.max-reported-errors} failures are listed, keeping the response
+     * bounded for any file size.
+     */
+    public OASExpenseBatchResult importExpenses(InputStream ndjson, String budgetIdFromPath) throws IOException {
+        budgetExistsOrThrow(budgetIdFromPath, "Failed to import expenses. Budget not found.");
+
+        int chunkSize = batchProperties.getChunkSize();
+        List<OASExpenseBatchItemResult> reportedErrors = new ArrayList<>();
+        List<Expense> chunk = new ArrayList<>(chunkSize);
+        List<Integer> positions = new ArrayList<>(chunkSize);
+        int index = 0;
+        int createdCount = 0;
+        int failedCount = 0;
+        try (MappingIterator<OASExpenseCreation> items = objectMapper.readerFor(OASExpenseCreation.class).readValues(ndjson)) {
+            while (true) {
+                String error;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    OASExpenseCreation item = items.nextValue();
+                    error = validateBatchItem(item, budgetIdFromPath);
+                    if (error == null) {
+                        chunk.add(toNewExpense(item, Instant.now()));
+                        positions.add(index);
+                    }
+                } catch (JsonParseException e) {
+                    failedCount++;
+                    report(reportedErrors, index, "Malformed NDJSON, import stopped: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    error = "Invalid expense: " + e.getOriginalMessage();
+                }
+                if (error != null) {
+                    failedCount++;
+                    report(reportedErrors, index, error);
+                }
+                index++;
+
+                if (chunk.size() == chunkSize) {
+                    int failedInChunk = flushImportChunk(chunk, positions, budgetIdFromPath, reportedErrors);
+                    createdCount += chunk.size() - failedInChunk;
+                    failedCount += failedInChunk;
+                    chunk = new ArrayList<>(chunkSize);
+                    positions = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        int failedInChunk = flushImportChunk(chunk, positions, budgetIdFromPath, reportedErrors);
+        createdCount += chunk.size() - failedInChunk;
+        failedCount += failedInChunk;
+        return new OASExpenseBatchResult()
+                .created(createdCount)
+                .failed(failedCount)
+                .items(reportedErrors);
+    }
+
+    /**
+     * Counted exactly until the counters of the budget are seeded.
+     */
+    private long estimatedExpenseCount(String budgetId) {
+        return budgetTotalsRepository.countExpenses(budgetId)
+                .orElseGet(() -> expenseRepository.countByBudgetId(budgetId));
+    }
+
+    public OASExpenseTotals findExpenseTotals(String budgetId) {
+        budgetExistsOrThrow(budgetId, "Failed to find expense totals. Budget not found.");
+        return expenseMapper.toOASExpenseTotals(budgetTotalsRepository.findExpenseTotals(budgetId));
+    }
+
+    public ExpenseExport exportExpenses(String budgetId, Instant createdFrom, Instant createdTo, ExpenseExportFormat format) {
+        checkCreatedRange(createdFrom, createdTo);
+        budgetExistsOrThrow(budgetId, "Failed to export expenses. Budget not found.");
+        return new ExpenseExport(
+                format,
+                () -> expenseRepository.streamAllByBudgetId(budgetId, createdFrom, createdTo, exportProperties.getCursorBatchSize()),
+                expenseMapper,
+                objectMapper.writer());
+    }
+
+    public OASExpenseAggregation aggregateExpenses(String budgetId, String groupBy, Instant createdFrom, Instant createdTo) {
+        checkGroupBy(groupBy);
+        checkCreatedRange(createdFrom, createdTo);
+        budgetExistsOrThrow(budgetId, "Failed to aggregate expenses. Budget not found.");
+        List<ExpenseAggregate> aggregates = "month".equals(groupBy) && isMonthStart(createdFrom) && isMonthStart(createdTo)
+                && budgetTotalsRepository.hasCompleteRollups(budgetId)
+                ? aggregateMonthlyRollups(budgetId, createdFrom, createdTo)
+                : expenseRepository.aggregateByBudgetId(budgetId, groupBy, createdFrom, createdTo);
+        return expenseMapper.toOASExpenseAggregation(aggregates, groupBy);
+    }
+
+    /**
+     * Monthly aggregation over whole months is served from {@code expense_monthly_rollup}: one small
+     * document per month instead of a pipeline over every expense in the range. Only for budgets
+     * whose rollups are complete, see {@link BudgetTotals#isRollupsComplete()}.
+     */
+    private List<ExpenseAggregate> aggregateMonthlyRollups(String budgetId, Instant createdFrom, Instant createdTo) {
+        String fromMonth = createdFrom == null ? "0000-01" : ExpenseMonthlyRollupRepositoryCustomImpl.month(createdFrom).toString();
+        String toMonth = createdTo == null ? "9999-12" : ExpenseMonthlyRollupRepositoryCustomImpl.month(createdTo).toString();
+        return rollupRepository.findMonthRange(budgetId, fromMonth, toMonth, ExpenseMonthlyRollupRepository.MONTH_ORDER).stream()
+                .filter(rollup -> rollup.getCount() > 0)
+                .map(rollup -> new ExpenseAggregate()
+                        .setStart(YearMonth.parse(rollup.getMonth()).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant())
+                        .setCount(rollup.getCount())
+                        .setTotal(rollup.getSum())
+                        .setMin(rollup.getMin())
+                        .setMax(rollup.getMax())
+                        .setAverage(rollup.getSum() / rollup.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    static boolean isMonthStart(Instant instant) {
+        if (instant == null) {
+            return true;
+        }
+        ZonedDateTime utc = instant.atZone(ZoneOffset.UTC);
+        return utc.getDayOfMonth() == 1 && utc.toLocalTime().equals(LocalTime.MIDNIGHT);
+    }
+
+    static void checkGroupBy(String groupBy) {
+        if (!List.of("day", "week", "month").contains(groupBy)) {
+            throw new BadRequestException("Invalid argument groupBy=" + groupBy + ", it should be \"day\", \"week\" or \"month\"");
+        }
+    }
+
+    static void checkCreatedRange(Instant createdFrom, Instant createdTo) {
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new BadRequestException("Invalid created range, createdFrom should be before createdTo.");
+        }
+    }
+
+    private int flushImportChunk(List<Expense> chunk, List<Integer> positions, String budgetId,
+                                 List<OASExpenseBatchItemResult> reportedErrors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, String> failures = insertChunk(chunk, budgetId);
+        failures.forEach((position, error) -> report(reportedErrors, positions.get(position), error));
+        return failures.size();
+    }
+
+    private void report(List<OASExpenseBatchItemResult> reportedErrors, int index, String error) {
+        if (reportedErrors.size() < batchProperties.getMaxReportedErrors()) {
+            reportedErrors.add(new OASExpenseBatchItemResult().index(index).error(error));
+        }
+    }
+
+    private String validateBatchItem(OASExpenseCreation item, String budgetIdFromPath) {
+        if (item == null) {
+            return "Expense must not be null.";
+        }
+        if (!budgetIdFromPath.equals(item.getBudgetId())) {
+            return "Budget id in body and path don't match.";
+        }
+        return null;
+    }
+
+    private Expense toNewExpense(OASExpenseCreation item, Instant created) {
+        return expenseMapper.toExpense(item)
+                .setId(UUID.randomUUID().toString())
+                .setCreated(created);
+    }
+
+    private Map<Integer, String> insertChunk(List<Expense> chunk, String budgetId) {
+        Map<Integer, String> failures = expenseRepository.insertAllUnordered(chunk);
+        int inserted = 0;
+        double amount = 0;
+        Instant lastCreated = null;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!failures.containsKey(i)) {
+                Expense expense = chunk.get(i);
+                inserted++;
+                amount += amountOf(expense);
+                if (lastCreated == null || expense.getCreated().isAfter(lastCreated)) {
+                    lastCreated = expense.getCreated();
+                }
+            }
+        }
+        if (inserted > 0) {
+            budgetTotalsRepository.incrementExpenses(budgetId, inserted, amount, lastCreated);
+            List<Expense> insertedExpenses = new ArrayList<>(inserted);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!failures.containsKey(i)) {
+                    insertedExpenses.add(chunk.get(i));
+                }
+            }
+            rollupRepository.addAll(budgetId, insertedExpenses);
+        }
+        return failures;
+    }
+
+    static double amountOf(Expense expense) {
+        return expense.getAmount() == null ? 0 : expense.getAmount();
+    }
+
     private void checkIfBudgetIdFromPathAndBodyAreConsistent(OASExpenseCreation expenseCreation, String budgetIdFromPath) {
         String budgetIdFromBody = expenseCreation.getBudgetId();
         if (!budgetIdFromBody.equals(budgetIdFromPath)) {
@@ -86,7 +440,7 @@ public class ExpenseService {
     }
 
     private void budgetExistsOrThrow(String budgetId, String msg) {
-        if (budgetRepository.findById(budgetId).isEmpty()) {
+        if (!budgetExistenceCache.exists(budgetId)) {
             throw new BudgetNotFoundException(msg);
         }
     }
@@ -94,13 +448,56 @@ public class ExpenseService {
     public OASExpense updateExpense(String expenseId, String budgetId, OASExpenseModification expenseModification) {
         budgetIdInBodyAndPathAreConsistentOrThrow(budgetId, expenseModification);
         expenseIdInBodyAndPathAreConsistentOrThrow(expenseId, expenseModification);
+        budgetExistsOrThrow(budgetId, "Failed to update expense. Budget not found.");
 
-        Expense origin = findByIdAndBudgetIdOrThrow(expenseId, budgetId);
-        Expense modifiedExpense = expenseMapper.toExpense(expenseModification);
-        Expense result = expenseRepository.save(origin.mergeWith(modifiedExpense));
+        Expense changes = expenseMapper.toExpense(expenseModification);
+        Optional<Expense> previous = expenseRepository.setFields(changes);
+        if (previous.isEmpty()) {
+            if (changes.getVersion() == null) {
+                throw new ExpenseNotFoundException("Expense with id: " + expenseId + " not found in budget with id: " + budgetId + ".");
+            }
+            throw conflict(findByIdAndBudgetIdOrThrow(expenseId, budgetId));
+        }
+        Expense before = previous.get();
+        Expense result = afterUpdate(before, changes);
+        double amountDelta = amountOf(result) - amountOf(before);
+        if (amountDelta != 0 || !Objects.equals(before.getCreated(), result.getCreated())) {
+            budgetTotalsRepository.incrementExpenses(budgetId, 0, amountDelta, result.getCreated());
+            if (movedBack(before, result)) {
+                budgetTotalsRepository.retractLastExpenseCreated(budgetId, before.getCreated());
+            }
+            rollupRepository.replace(budgetId, before, result);
+        } else {
+            budgetTotalsRepository.incrementChangeVersion(budgetId);
+        }
         return expenseMapper.toOASExpense(result);
     }
 
+    /**
+     * @return whether the update moved the creation time of the expense back, which may leave
+     * {@code lastExpenseCreated} of the budget ahead of every expense
+     */
+    static boolean movedBack(Expense before, Expense result) {
+        return before.getCreated() != null
+                && (result.getCreated() == null || result.getCreated().isBefore(before.getCreated()));
+    }
+
+    /**
+     * The state {@link ExpenseRepositoryCustom#setFields(Expense)} leaves behind, derived from the
+     * previous state it returns instead of being read back.
+     */
+    static Expense afterUpdate(Expense before, Expense changes) {
+        return new Expense()
+                .mergeWith(before)
+                .mergeWith(changes)
+                .setVersion(before.getVersion() == null ? 1L : before.getVersion() + 1);
+    }
+
+    private ExpenseConflictException conflict(Expense latest) {
+        return new ExpenseConflictException("Expense with id: " + latest.getId() + " in budget with id: " + latest.getBudgetId()
+                + " has a newer version.", expenseMapper.toOASExpense(latest));
+    }
+
     private void budgetIdInBodyAndPathAreConsistentOrThrow(String originId, OASExpenseModification expenseModification) {
         String budgetIdFromBody = expenseModification.getBudgetId();
         if (!budgetIdFromBody.equals(originId)) {
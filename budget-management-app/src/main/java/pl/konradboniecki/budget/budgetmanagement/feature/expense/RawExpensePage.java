@@ -0,0 +1,55 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.bson.RawBsonDocument;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawJsonFields;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
+import pl.konradboniecki.budget.openapi.dto.model.OASPaginationMetadata;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Expense page serialized from the stored documents, without an {@link Expense} or
+ * {@link OASExpense} per row. Writes the JSON {@link ExpenseMapper#toOASExpensePage} output is
+ * serialized to, properties in the order of {@link OASExpense}; stored fields the API does not
+ * expose, like {@code _class}, are skipped.
+ */
+class RawExpensePage extends OASExpensePage implements JsonSerializable {
+
+    private final List<RawBsonDocument> expenses;
+
+    RawExpensePage(List<RawBsonDocument> expenses, OASPaginationMetadata meta) {
+        this.expenses = expenses;
+        meta(meta);
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        RawJsonFields fields = new RawJsonFields(generator, provider, OASExpense.class);
+        for (RawBsonDocument expense : expenses) {
+            generator.writeStartObject();
+            fields.string("id", expense.get("_id"));
+            fields.string("budgetId", expense.get("budgetId"));
+            fields.decimal("amount", expense.get("amount"));
+            fields.int64("version", expense.get("version"));
+            fields.string("comment", expense.get("comment"));
+            fields.instant("created", expense.get("created"));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        provider.defaultSerializeField("_meta", getMeta(), generator);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, provider);
+    }
+}
@@ -0,0 +1,11 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveExpenseMonthlyRollupRepository extends ReactiveMongoRepository<ExpenseMonthlyRollup, String>, ReactiveExpenseMonthlyRollupRepositoryCustom {
+
+    Mono<Long> deleteByBudgetId(String budgetId);
+}
@@ -0,0 +1,12 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveExpenseMonthlyRollupRepositoryCustom {
+
+    Mono<Void> add(String budgetId, Expense expense);
+
+    Mono<Void> subtract(String budgetId, Expense expense);
+
+    Mono<Void> replace(String budgetId, Expense before, Expense after);
+}
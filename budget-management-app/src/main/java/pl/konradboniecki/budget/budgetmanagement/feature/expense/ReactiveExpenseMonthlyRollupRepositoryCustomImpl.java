@@ -0,0 +1,65 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import lombok.AllArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMonthlyRollupRepositoryCustomImpl.*;
+
+@AllArgsConstructor
+class ReactiveExpenseMonthlyRollupRepositoryCustomImpl implements ReactiveExpenseMonthlyRollupRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Void> add(String budgetId, Expense expense) {
+        if (expense.getCreated() == null) {
+            return Mono.empty();
+        }
+        YearMonth month = month(expense.getCreated());
+        return reactiveMongoTemplate.upsert(byId(budgetId, month), addition(budgetId, month, List.of(expense)), ExpenseMonthlyRollup.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> subtract(String budgetId, Expense expense) {
+        return subtractOrRecompute(budgetId, expense).then();
+    }
+
+    @Override
+    public Mono<Void> replace(String budgetId, Expense before, Expense after) {
+        return subtractOrRecompute(budgetId, before)
+                .flatMap(recomputed -> recomputed && month(before.getCreated()).equals(month(after.getCreated()))
+                        ? Mono.empty()
+                        : add(budgetId, after));
+    }
+
+    private Mono<Boolean> subtractOrRecompute(String budgetId, Expense expense) {
+        if (expense.getCreated() == null) {
+            return Mono.just(false);
+        }
+        YearMonth month = month(expense.getCreated());
+        double amount = ExpenseService.amountOf(expense);
+        return reactiveMongoTemplate.findAndModify(
+                        byId(budgetId, month),
+                        subtraction(amount),
+                        FindAndModifyOptions.options().returnNew(true),
+                        ExpenseMonthlyRollup.class)
+                .map(rollup -> needsRecompute(rollup, amount))
+                .defaultIfEmpty(needsRecompute(null, amount))
+                .flatMap(recompute -> recompute
+                        ? recompute(budgetId, month).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    private Mono<Void> recompute(String budgetId, YearMonth month) {
+        return reactiveMongoTemplate.aggregate(monthAggregation(budgetId, month), Expense.class, ExpenseMonthlyRollup.class)
+                .next()
+                .flatMap(recomputed -> reactiveMongoTemplate.save(recomputed.setId(id(budgetId, month)).setBudgetId(budgetId).setMonth(month.toString())).then())
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.remove(byId(budgetId, month), ExpenseMonthlyRollup.class).then()));
+    }
+}
@@ -0,0 +1,17 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveExpenseRepository extends ReactiveMongoRepository<Expense, String>, ReactiveExpenseRepositoryCustom {
+
+    Flux<Expense> findAllByBudgetId(String budgetId, Pageable pageable);
+
+    Mono<Long> countByBudgetId(String budgetId);
+
+    Mono<Expense> findByIdAndBudgetId(String id, String budgetId);
+}
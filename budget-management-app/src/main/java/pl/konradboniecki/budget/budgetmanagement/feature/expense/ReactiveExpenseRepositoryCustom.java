@@ -0,0 +1,37 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface ReactiveExpenseRepositoryCustom {
+
+    Flux<Expense> findAllByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit);
+
+    Mono<Slice<Expense>> findSliceByBudgetId(String budgetId, Pageable pageable);
+
+    Flux<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit);
+
+    Mono<Slice<RawBsonDocument>> findRawSliceByBudgetId(String budgetId, Pageable pageable);
+
+    Mono<Expense> removeByIdAndBudgetId(String id, String budgetId);
+
+    /**
+     * Emits the expense as it was before the update, empty when no expense matched, see
+     * {@link ExpenseRepositoryCustom#setFields(Expense)}.
+     */
+    Mono<Expense> setFields(Expense changes);
+
+    Flux<ExpenseAggregate> aggregateByBudgetId(String budgetId, String unit, Instant createdFrom, Instant createdTo);
+
+    Flux<Expense> findAllByBudgetIdCreatedBetween(String budgetId, Instant createdFrom, Instant createdTo, int batchSize);
+
+    /**
+     * See {@link ExpenseRepositoryCustom#deleteBatchByBudgetId(String, int)}.
+     */
+    Mono<Long> deleteBatchByBudgetId(String budgetId, int limit);
+}
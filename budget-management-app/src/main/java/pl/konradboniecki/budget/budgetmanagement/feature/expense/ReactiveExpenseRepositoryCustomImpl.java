@@ -0,0 +1,91 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.mongodb.client.result.DeleteResult;
+import lombok.AllArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawDocuments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+@AllArgsConstructor
+class ReactiveExpenseRepositoryCustomImpl implements ReactiveExpenseRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Expense> findAllByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit) {
+        return reactiveMongoTemplate.find(ExpenseRepositoryCustomImpl.pageAfter(budgetId, after, limit), Expense.class);
+    }
+
+    @Override
+    public Mono<Expense> removeByIdAndBudgetId(String id, String budgetId) {
+        return reactiveMongoTemplate.findAndRemove(ExpenseRepositoryCustomImpl.removal(id, budgetId), Expense.class);
+    }
+
+    @Override
+    public Mono<Expense> setFields(Expense changes) {
+        return reactiveMongoTemplate.findAndModify(ExpenseRepositoryCustomImpl.fieldsUpdateTarget(changes),
+                ExpenseRepositoryCustomImpl.fieldsUpdate(changes), FindAndModifyOptions.options().returnNew(false), Expense.class);
+    }
+
+    @Override
+    public Flux<ExpenseAggregate> aggregateByBudgetId(String budgetId, String unit, Instant createdFrom, Instant createdTo) {
+        return reactiveMongoTemplate.aggregate(
+                ExpenseRepositoryCustomImpl.aggregation(budgetId, unit, createdFrom, createdTo), Expense.class, ExpenseAggregate.class);
+    }
+
+    @Override
+    public Flux<Expense> findAllByBudgetIdCreatedBetween(String budgetId, Instant createdFrom, Instant createdTo, int batchSize) {
+        return reactiveMongoTemplate.find(
+                ExpenseRepositoryCustomImpl.createdBetween(budgetId, createdFrom, createdTo).cursorBatchSize(batchSize),
+                Expense.class);
+    }
+
+    /**
+     * Reactive repositories have no {@link Slice} return type, so the page is read with one
+     * extra document to find out whether a next page exists, the same way the blocking query does.
+     */
+    @Override
+    public Mono<Slice<Expense>> findSliceByBudgetId(String budgetId, Pageable pageable) {
+        return reactiveMongoTemplate.find(ExpenseRepositoryCustomImpl.sliceOf(budgetId, pageable), Expense.class)
+                .collectList()
+                .map(expenses -> {
+                    boolean hasNext = expenses.size() > pageable.getPageSize();
+                    List<Expense> content = hasNext ? expenses.subList(0, pageable.getPageSize()) : expenses;
+                    return new SliceImpl<>(content, pageable, hasNext);
+                });
+    }
+
+    @Override
+    public Flux<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, ExpenseCursor after, int limit) {
+        return RawDocuments.find(reactiveMongoTemplate, ExpenseRepositoryCustomImpl.pageAfter(budgetId, after, limit), Expense.class);
+    }
+
+    @Override
+    public Mono<Slice<RawBsonDocument>> findRawSliceByBudgetId(String budgetId, Pageable pageable) {
+        return RawDocuments.find(reactiveMongoTemplate, ExpenseRepositoryCustomImpl.sliceOf(budgetId, pageable), Expense.class)
+                .collectList()
+                .map(expenses -> RawDocuments.toSlice(expenses, pageable));
+    }
+
+    @Override
+    public Mono<Long> deleteBatchByBudgetId(String budgetId, int limit) {
+        return reactiveMongoTemplate.find(ExpenseRepositoryCustomImpl.batchOfBudget(budgetId, limit), Expense.class)
+                .map(Expense::getId)
+                .collectList()
+                .flatMap(ids -> ids.isEmpty()
+                        ? Mono.just(0L)
+                        : reactiveMongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Expense.class)
+                        .map(DeleteResult::getDeletedCount));
+    }
+}
@@ -0,0 +1,282 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AllArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseConflictException;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseCreationException;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetTotalsRepository;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Non-blocking counterpart of {@link ExpenseService}, used when the application runs with the
+ * {@code reactive} profile.
+ */
+@AllArgsConstructor
+@Service
+@ConditionalOnWebApplication(type = REACTIVE)
+@EnableConfigurationProperties(ExpenseExportProperties.class)
+public class ReactiveExpenseService {
+
+    private final ReactiveExpenseRepository expenseRepository;
+    private final ReactiveBudgetRepository budgetRepository;
+    private final ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private final ExpenseMapper expenseMapper;
+    private final ObjectMapper objectMapper;
+    private final ExpenseExportProperties exportProperties;
+    private final ReactiveExpenseMonthlyRollupRepository rollupRepository;
+
+    public Mono<OASExpense> findExpense(String expenseId, String budgetId) {
+        return findByIdAndBudgetIdOrThrow(expenseId, budgetId)
+                .map(expenseMapper::toOASExpense);
+    }
+
+    private Mono<Expense> findByIdAndBudgetIdOrThrow(String expenseId, String budgetId) {
+        return budgetExistsOrThrow(budgetId, "Failed to find expense. Budget not found.")
+                .then(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
+                .switchIfEmpty(Mono.error(() -> new ExpenseNotFoundException(
+                        "Expense with id: " + expenseId + " not found in budget with id: " + budgetId + ".")));
+    }
+
+    /**
+     * Counterpart of {@link ExpenseService#findListETag(String, String, String)}.
+     *
+     * @return weak ETag of the expense listings of the budget, empty when no change was recorded yet
+     */
+    public Mono<String> findListETag(String budgetId, String cursor, String includeTotals) {
+        return Mono.fromRunnable(() -> ExpenseService.validListingOrThrow(cursor, includeTotals))
+                .then(budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found."))
+                .then(Mono.defer(() -> budgetTotalsRepository.findChangeVersion(budgetId)))
+                .mapNotNull(BudgetTotals::weakETag);
+    }
+
+    public Mono<OASExpensePage> findAllExpensesByBudgetId(String budgetId, Pageable pageable, String includeTotals) {
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ExpenseRepository.PAGE_ORDER);
+        Mono<OASExpensePage> expensePage;
+        switch (includeTotals) {
+            case "true":
+                expensePage = Mono.zip(
+                                expenseRepository.findAllByBudgetId(budgetId, orderedPageable).collectList(),
+                                expenseRepository.countByBudgetId(budgetId))
+                        .map(pageAndTotal -> expenseMapper.toOASExpensePage(
+                                new PageImpl<>(pageAndTotal.getT1(), orderedPageable, pageAndTotal.getT2()),
+                                pageAndTotal.getT2()));
+                break;
+            case "estimated":
+                expensePage = Mono.zip(
+                                expenseRepository.findSliceByBudgetId(budgetId, orderedPageable),
+                                budgetTotalsRepository.countExpenses(budgetId)
+                                        .switchIfEmpty(Mono.defer(() -> expenseRepository.countByBudgetId(budgetId))))
+                        .map(sliceAndTotal -> expenseMapper.toOASExpensePage(sliceAndTotal.getT1(), sliceAndTotal.getT2()));
+                break;
+            case "false":
+                expensePage = expenseRepository.findSliceByBudgetId(budgetId, orderedPageable)
+                        .map(slice -> expenseMapper.toOASExpensePage(slice, null));
+                break;
+            default:
+                return Mono.error(new BadRequestException("Invalid argument includeTotals=" + includeTotals + ", it should be \"true\", \"false\" or \"estimated\""));
+        }
+        return budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.")
+                .then(expensePage);
+    }
+
+    public Mono<OASExpensePage> findAllExpensesByBudgetId(String budgetId, String cursor, int limit) {
+        return budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.")
+                .then(Mono.fromCallable(() -> ExpenseCursor.decode(cursor)))
+                .flatMap(after -> expenseRepository.findAllByBudgetIdAfter(budgetId, after, limit + 1).collectList())
+                .map(expenses -> {
+                    boolean hasNext = expenses.size() > limit;
+                    List<Expense> pageContent = hasNext ? expenses.subList(0, limit) : expenses;
+                    return expenseMapper.toOASExpensePage(pageContent, limit, hasNext);
+                });
+    }
+
+    /**
+     * Counterpart of {@link ExpenseService#findRawExpensePage(String, Pageable, String)}.
+     */
+    public Mono<OASExpensePage> findRawExpensePage(String budgetId, Pageable pageable, String includeTotals) {
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ExpenseRepository.PAGE_ORDER);
+        Mono<OASExpensePage> expensePage;
+        switch (includeTotals) {
+            case "true":
+                expensePage = Mono.zip(
+                                expenseRepository.findRawSliceByBudgetId(budgetId, orderedPageable),
+                                expenseRepository.countByBudgetId(budgetId))
+                        .map(sliceAndTotal -> expenseMapper.toRawExpensePage(sliceAndTotal.getT1(), sliceAndTotal.getT2()));
+                break;
+            case "estimated":
+                expensePage = Mono.zip(
+                                expenseRepository.findRawSliceByBudgetId(budgetId, orderedPageable),
+                                budgetTotalsRepository.countExpenses(budgetId)
+                                        .switchIfEmpty(Mono.defer(() -> expenseRepository.countByBudgetId(budgetId))))
+                        .map(sliceAndTotal -> expenseMapper.toRawExpensePage(sliceAndTotal.getT1(), sliceAndTotal.getT2()));
+                break;
+            case "false":
+                expensePage = expenseRepository.findRawSliceByBudgetId(budgetId, orderedPageable)
+                        .map(slice -> expenseMapper.toRawExpensePage(slice, null));
+                break;
+            default:
+                return Mono.error(new BadRequestException("Invalid argument includeTotals=" + includeTotals + ", it should be \"true\", \"false\" or \"estimated\""));
+        }
+        return budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.")
+                .then(expensePage);
+    }
+
+    /**
+     * Counterpart of {@link ExpenseService#findRawExpensePage(String, String, int)}.
+     */
+    public Mono<OASExpensePage> findRawExpensePage(String budgetId, String cursor, int limit) {
+        return budgetExistsOrThrow(budgetId, "Failed to list expenses. Budget not found.")
+                .then(Mono.fromCallable(() -> ExpenseCursor.decode(cursor)))
+                .flatMap(after -> expenseRepository.findRawByBudgetIdAfter(budgetId, after, limit + 1).collectList())
+                .map(expenses -> {
+                    boolean hasNext = expenses.size() > limit;
+                    List<RawBsonDocument> pageContent = hasNext ? expenses.subList(0, limit) : expenses;
+                    return expenseMapper.toRawExpensePage(pageContent, limit, hasNext);
+                });
+    }
+
+    public Mono<OASExpenseTotals> findExpenseTotals(String budgetId) {
+        return budgetExistsOrThrow(budgetId, "Failed to find expense totals. Budget not found.")
+                .then(budgetTotalsRepository.findExpenseTotals(budgetId))
+                .map(expenseMapper::toOASExpenseTotals);
+    }
+
+    public Mono<OASExpenseAggregation> aggregateExpenses(String budgetId, String groupBy, Instant createdFrom, Instant createdTo) {
+        return Mono.fromRunnable(() -> {
+                    ExpenseService.checkGroupBy(groupBy);
+                    ExpenseService.checkCreatedRange(createdFrom, createdTo);
+                })
+                .then(Mono.defer(() -> budgetExistsOrThrow(budgetId, "Failed to aggregate expenses. Budget not found.")))
+                .thenMany(Flux.defer(() -> expenseRepository.aggregateByBudgetId(budgetId, groupBy, createdFrom, createdTo)))
+                .collectList()
+                .map(aggregates -> expenseMapper.toOASExpenseAggregation(aggregates, groupBy));
+    }
+
+    /**
+     * Validates the request and returns the export emitted line by line, starting with the format header.
+     * Demand from the response is propagated to the cursor, so a slow client pauses the query instead of
+     * buffering it.
+     */
+    public Mono<Flux<String>> exportExpenses(String budgetId, Instant createdFrom, Instant createdTo, ExpenseExportFormat format) {
+        ObjectWriter jsonWriter = objectMapper.writer();
+        Flux<String> lines = Flux.concat(
+                Mono.just(format.header()).filter(header -> !header.isEmpty()),
+                expenseRepository.findAllByBudgetIdCreatedBetween(budgetId, createdFrom, createdTo, exportProperties.getCursorBatchSize())
+                        .map(expenseMapper::toOASExpense)
+                        .<String>handle((expense, sink) -> {
+                            try {
+                                sink.next(format.line(expense, jsonWriter));
+                            } catch (JsonProcessingException e) {
+                                sink.error(e);
+                            }
+                        }));
+        return Mono.fromRunnable(() -> ExpenseService.checkCreatedRange(createdFrom, createdTo))
+                .then(Mono.defer(() -> budgetExistsOrThrow(budgetId, "Failed to export expenses. Budget not found.")))
+                .thenReturn(lines);
+    }
+
+    public Mono<Void> removeExpenseFromBudgetOrThrow(String expenseId, String budgetId) {
+        return budgetExistsOrThrow(budgetId, "Failed to delete expense. Budget not found.")
+                .then(expenseRepository.removeByIdAndBudgetId(expenseId, budgetId))
+                .switchIfEmpty(Mono.error(() -> new ExpenseNotFoundException("Expense with id: " + expenseId + " not found in budget with id: " + budgetId + ".")))
+                .flatMap(removed -> budgetTotalsRepository.incrementExpenses(budgetId, -1, -ExpenseService.amountOf(removed), null)
+                        .then(removed.getCreated() == null
+                                ? Mono.<Void>empty()
+                                : budgetTotalsRepository.retractLastExpenseCreated(budgetId, removed.getCreated()))
+                        .then(rollupRepository.subtract(budgetId, removed)));
+    }
+
+    public Mono<OASCreatedExpense> saveExpense(OASExpenseCreation expenseCreation, String budgetIdFromPath) {
+        checkArgument(expenseCreation != null, "expense to save should not be null");
+        checkIfBudgetIdFromPathAndBodyAreConsistent(expenseCreation, budgetIdFromPath);
+        Expense expense = expenseMapper.toExpense(expenseCreation);
+        expense.setId(UUID.randomUUID().toString());
+        expense.setCreated(Instant.now());
+        return budgetExistsOrThrow(budgetIdFromPath, "Failed to create expense. Budget not found.")
+                .then(expenseRepository.save(expense))
+                .flatMap(savedExpense -> budgetTotalsRepository.incrementExpenses(budgetIdFromPath, 1, ExpenseService.amountOf(expense), expense.getCreated())
+                        .then(rollupRepository.add(budgetIdFromPath, expense))
+                        .thenReturn(savedExpense))
+                .map(expenseMapper::toOASCreatedExpense);
+    }
+
+    public Mono<OASExpense> updateExpense(String expenseId, String budgetId, OASExpenseModification expenseModification) {
+        budgetIdInBodyAndPathAreConsistentOrThrow(budgetId, expenseModification);
+        expenseIdInBodyAndPathAreConsistentOrThrow(expenseId, expenseModification);
+
+        Expense changes = expenseMapper.toExpense(expenseModification);
+        return budgetExistsOrThrow(budgetId, "Failed to update expense. Budget not found.")
+                .then(expenseRepository.setFields(changes))
+                .switchIfEmpty(Mono.defer(() -> changes.getVersion() == null
+                        ? Mono.<Expense>error(new ExpenseNotFoundException("Expense with id: " + expenseId + " not found in budget with id: " + budgetId + "."))
+                        : findByIdAndBudgetIdOrThrow(expenseId, budgetId).flatMap(current -> Mono.<Expense>error(conflict(current)))))
+                .flatMap(before -> {
+                    Expense result = ExpenseService.afterUpdate(before, changes);
+                    double amountDelta = ExpenseService.amountOf(result) - ExpenseService.amountOf(before);
+                    if (amountDelta == 0 && Objects.equals(before.getCreated(), result.getCreated())) {
+                        return budgetTotalsRepository.incrementChangeVersion(budgetId).thenReturn(result);
+                    }
+                    return budgetTotalsRepository.incrementExpenses(budgetId, 0, amountDelta, result.getCreated())
+                            .then(ExpenseService.movedBack(before, result)
+                                    ? budgetTotalsRepository.retractLastExpenseCreated(budgetId, before.getCreated())
+                                    : Mono.<Void>empty())
+                            .then(rollupRepository.replace(budgetId, before, result))
+                            .thenReturn(result);
+                })
+                .map(expenseMapper::toOASExpense);
+    }
+
+    private ExpenseConflictException conflict(Expense latest) {
+        return new ExpenseConflictException("Expense with id: " + latest.getId() + " in budget with id: " + latest.getBudgetId()
+                + " has a newer version.", expenseMapper.toOASExpense(latest));
+    }
+
+    private Mono<Void> budgetExistsOrThrow(String budgetId, String msg) {
+        return budgetRepository.existsById(budgetId)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new BudgetNotFoundException(msg)))
+                .then();
+    }
+
+    private void checkIfBudgetIdFromPathAndBodyAreConsistent(OASExpenseCreation expenseCreation, String budgetIdFromPath) {
+        if (!expenseCreation.getBudgetId().equals(budgetIdFromPath)) {
+            throw new ExpenseCreationException("Budget id in body and path don't match.");
+        }
+    }
+
+    private void budgetIdInBodyAndPathAreConsistentOrThrow(String originId, OASExpenseModification expenseModification) {
+        if (!expenseModification.getBudgetId().equals(originId)) {
+            throw new BadRequestException("Budget id in body and path don't match.");
+        }
+    }
+
+    private void expenseIdInBodyAndPathAreConsistentOrThrow(String expenseIdFromPath, OASExpenseModification expenseModification) {
+        if (!expenseIdFromPath.equals(expenseModification.getId())) {
+            throw new BadRequestException("Expense id in body and path don't match.");
+        }
+    }
+}
@@ -7,7 +7,7 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
@@ -17,15 +17,15 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class Jar {
 
     @Id
-    @Indexed(unique = true)
     private String id;
-    @Indexed(unique = true)
     private String budgetId;
     private String jarName;
     private Double currentAmount;
     private Double capacity;
     @Setter(AccessLevel.NONE)
     private String status;
+    @Version
+    private Long version;
 
     public Jar() {
         setCapacity(0.0);
@@ -59,6 +59,14 @@ public class Jar {
         return this;
     }
 
+    /**
+     * Takes the status as stored instead of deriving it, for {@link JarConverters}.
+     */
+    Jar restoreStatus(String storedStatus) {
+        this.status = storedStatus;
+        return this;
+    }
+
     private Jar setStatus() {
         if (currentAmount == null || capacity == null || capacity <= 0.0 || currentAmount == 0.0) {
             this.status = JarStatus.NOT_STARTED.getStatus();
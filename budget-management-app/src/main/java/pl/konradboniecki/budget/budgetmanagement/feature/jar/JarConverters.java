@@ -0,0 +1,72 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Maps {@link Jar} to and from its stored document without the reflective
+ * {@code MappingMongoConverter}, selected with {@code budget.mongo.mapping=hand-written}. Reads and
+ * writes the document the reflective mapping does; the stored status is kept as read, not
+ * recomputed, and fields missing from a projection keep the defaults of {@link Jar#Jar()}.
+ */
+public final class JarConverters {
+
+    public static final Converter<Document, Jar> READING = new Reading();
+    public static final Converter<Jar, Document> WRITING = new Writing();
+
+    private JarConverters() {
+    }
+
+    @ReadingConverter
+    private static class Reading implements Converter<Document, Jar> {
+
+        @Override
+        public Jar convert(Document source) {
+            Jar jar = new Jar()
+                    .setId(source.get("_id", String.class))
+                    .setBudgetId(source.getString("budgetId"))
+                    .setJarName(source.getString("jarName"));
+            if (source.containsKey("currentAmount")) {
+                jar.setCurrentAmount(toDouble(source.get("currentAmount")));
+            }
+            if (source.containsKey("capacity")) {
+                jar.setCapacity(toDouble(source.get("capacity")));
+            }
+            if (source.containsKey("status")) {
+                jar.restoreStatus(source.getString("status"));
+            }
+            Object version = source.get("version");
+            return jar.setVersion(version == null ? null : ((Number) version).longValue());
+        }
+
+        private static Double toDouble(Object value) {
+            return value == null ? null : ((Number) value).doubleValue();
+        }
+    }
+
+    @WritingConverter
+    private static class Writing implements Converter<Jar, Document> {
+
+        @Override
+        public Document convert(Jar source) {
+            Document document = new Document();
+            putIfNotNull(document, "_id", source.getId());
+            putIfNotNull(document, "budgetId", source.getBudgetId());
+            putIfNotNull(document, "jarName", source.getJarName());
+            putIfNotNull(document, "currentAmount", source.getCurrentAmount());
+            putIfNotNull(document, "capacity", source.getCapacity());
+            putIfNotNull(document, "status", source.getStatus());
+            putIfNotNull(document, "version", source.getVersion());
+            document.put("_class", Jar.class.getName());
+            return document;
+        }
+
+        private static void putIfNotNull(Document document, String key, Object value) {
+            if (value != null) {
+                document.put(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.bson.BsonDocument;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Value
+public class JarCursor {
+
+    String id;
+
+    static JarCursor of(@NonNull Jar jar) {
+        return new JarCursor(jar.getId());
+    }
+
+    static JarCursor of(@NonNull BsonDocument jar) {
+        return new JarCursor(jar.getString("_id").getValue());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static JarCursor decode(String cursor) {
+        try {
+            String id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (id.isEmpty()) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            return new JarCursor(id);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package pl.konradboniecki.budget.budgetmanagement.feature.jar;
 
 import lombok.NonNull;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import pl.konradboniecki.budget.openapi.dto.model.OASCreatedJar;
-import pl.konradboniecki.budget.openapi.dto.model.OASJar;
-import pl.konradboniecki.budget.openapi.dto.model.OASJarCreation;
-import pl.konradboniecki.budget.openapi.dto.model.OASJarModification;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class JarMapper {
@@ -24,7 +27,8 @@ public class JarMapper {
                 .setBudgetId(jarModification.getBudgetId())
                 .setJarName(jarModification.getJarName())
                 .setCurrentAmount(jarModification.getCurrentAmount())
-                .setCapacity(jarModification.getCapacity());
+                .setCapacity(jarModification.getCapacity())
+                .setVersion(jarModification.getVersion());
     }
 
     public OASJar toOASJar(@NonNull Jar jar) {
@@ -34,7 +38,8 @@ public class JarMapper {
                 .jarName(jar.getJarName())
                 .capacity(jar.getCapacity())
                 .currentAmount(jar.getCurrentAmount())
-                .status(jar.getStatus());
+                .status(jar.getStatus())
+                .version(jar.getVersion());
     }
 
     public OASJarCreation toOASJarCreation(@NonNull Jar jar) {
@@ -52,7 +57,8 @@ public class JarMapper {
                 .jarName(jar.getJarName())
                 .currentAmount(jar.getCurrentAmount())
                 .capacity(jar.getCapacity())
-                .status(jar.getStatus());
+                .status(jar.getStatus())
+                .version(jar.getVersion());
     }
 
     public OASJarModification toOASJarModification(@NonNull Jar jar) {
@@ -62,6 +68,84 @@ public class JarMapper {
                 .jarName(jar.getJarName())
                 .capacity(jar.getCapacity())
                 .currentAmount(jar.getCurrentAmount())
-                .status(jar.getStatus());
+                .status(jar.getStatus())
+                .version(jar.getVersion());
+    }
+
+    public OASJarPage toOASJarPage(@NonNull Slice<Jar> jarSlice, Long totalElements) {
+        String nextCursor = nextCursor(jarSlice.getContent(), jarSlice.hasNext());
+        return new OASJarPage()
+                .items(toOASJarList(jarSlice.getContent()))
+                .meta(paginationMetadata(jarSlice, nextCursor, totalElements));
+    }
+
+    public OASJarPage toOASJarPage(@NonNull List<Jar> pageContent, int pageSize, boolean hasNext) {
+        return new OASJarPage()
+                .items(toOASJarList(pageContent))
+                .meta(paginationMetadata(pageContent.size(), pageSize, nextCursor(pageContent, hasNext)));
+    }
+
+    /**
+     * Counterpart of {@link #toOASJarPage(Slice, Long)} for jars read as stored documents.
+     */
+    public OASJarPage toRawJarPage(@NonNull Slice<RawBsonDocument> jarSlice, Long totalElements) {
+        String nextCursor = rawNextCursor(jarSlice.getContent(), jarSlice.hasNext());
+        return new RawJarPage(jarSlice.getContent(), paginationMetadata(jarSlice, nextCursor, totalElements), this);
+    }
+
+    /**
+     * Counterpart of {@link #toOASJarPage(List, int, boolean)} for jars read as stored documents.
+     */
+    public OASJarPage toRawJarPage(@NonNull List<RawBsonDocument> pageContent, int pageSize, boolean hasNext) {
+        String nextCursor = rawNextCursor(pageContent, hasNext);
+        return new RawJarPage(pageContent, paginationMetadata(pageContent.size(), pageSize, nextCursor), this);
+    }
+
+    public OASJarStatusCounts toOASJarStatusCounts(@NonNull Map<String, Long> countsByStoredStatus) {
+        return new OASJarStatusCounts()
+                .notStarted(countsByStoredStatus.getOrDefault(JarStatus.NOT_STARTED.getStatus(), 0L))
+                .inProgress(countsByStoredStatus.getOrDefault(JarStatus.IN_PROGRESS.getStatus(), 0L))
+                .completed(countsByStoredStatus.getOrDefault(JarStatus.COMPLETED.getStatus(), 0L));
+    }
+
+    private List<OASJar> toOASJarList(List<Jar> jars) {
+        return jars.stream()
+                .map(this::toOASJar)
+                .collect(Collectors.toList());
+    }
+
+    private String nextCursor(List<Jar> pageContent, boolean hasNext) {
+        if (!hasNext || pageContent.isEmpty()) {
+            return null;
+        }
+        return JarCursor.of(pageContent.get(pageContent.size() - 1)).encode();
+    }
+
+    private String rawNextCursor(List<RawBsonDocument> pageContent, boolean hasNext) {
+        if (!hasNext || pageContent.isEmpty()) {
+            return null;
+        }
+        return JarCursor.of(pageContent.get(pageContent.size() - 1)).encode();
+    }
+
+    private static OASPaginationMetadata paginationMetadata(Slice<?> slice, String nextCursor, Long totalElements) {
+        OASPaginationMetadata paginationMetadata = new OASPaginationMetadata()
+                .elements(slice.getNumberOfElements())
+                .pageSize(slice.getSize())
+                .page(slice.getNumber())
+                .nextCursor(nextCursor);
+        if (totalElements != null) {
+            paginationMetadata
+                    .totalPages((int) ((totalElements + slice.getSize() - 1) / slice.getSize()))
+                    .totalElements(totalElements.intValue());
+        }
+        return paginationMetadata;
+    }
+
+    private static OASPaginationMetadata paginationMetadata(int elements, int pageSize, String nextCursor) {
+        return new OASPaginationMetadata()
+                .elements(elements)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor);
     }
 }
@@ -2,17 +2,31 @@ package pl.konradboniecki.budget.budgetmanagement.feature.jar;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface JarRepository extends MongoRepository<Jar, String> {
+public interface JarRepository extends MongoRepository<Jar, String>, JarRepositoryCustom {
+
+    Sort PAGE_ORDER = Sort.by(Sort.Direction.ASC, "id");
 
     Optional<Jar> findByIdAndBudgetId(String jarId, String budgetId);
 
     Page<Jar> findAllByBudgetId(String budgetId, Pageable pageable);
 
+    Slice<Jar> findSliceByBudgetId(String budgetId, Pageable pageable);
+
+    Page<Jar> findAllByBudgetIdAndStatus(String budgetId, String status, Pageable pageable);
+
+    Slice<Jar> findSliceByBudgetIdAndStatus(String budgetId, String status, Pageable pageable);
+
+    long countByBudgetId(String budgetId);
+
+    long countByBudgetIdAndStatus(String budgetId, String status);
+
     Long deleteJarByIdAndBudgetId(String id, String budgetId);
 }
@@ -0,0 +1,65 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface JarRepositoryCustom {
+
+    /**
+     * @param status stored status to filter by, all jars when {@code null}
+     */
+    List<Jar> findAllByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit);
+
+    /**
+     * First {@code limit} jars of the budget, aborted by the server once it runs longer than {@code maxTime}.
+     */
+    List<Jar> findFirstPage(String budgetId, int limit, Duration maxTime);
+
+    /**
+     * {@link #findAllByBudgetIdAfter} returning the documents as stored.
+     */
+    List<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit);
+
+    /**
+     * {@link JarRepository#findSliceByBudgetIdAndStatus} returning the documents as stored.
+     *
+     * @param status stored status to filter by, all jars when {@code null}
+     */
+    Slice<RawBsonDocument> findRawSliceByBudgetId(String budgetId, String status, Pageable pageable);
+
+    /**
+     * Number of jars of the budget per stored status, statuses without jars are absent.
+     */
+    Map<String, Long> countByStatus(String budgetId);
+
+    /**
+     * Sets the fields {@code changes} carries on the jar matched by id and budget id, and by
+     * version when {@code changes} has one, recomputing the status in the same update. Fields
+     * the modification does not carry are left as stored, so concurrent modifications of other
+     * fields are kept.
+     *
+     * @return the jar after the update, empty when no jar matched
+     */
+    Optional<Jar> setFields(Jar changes);
+
+    /**
+     * Adds {@code delta} to the current amount and recomputes the status from the new amount in
+     * the same update. A negative delta only applies when the jar holds at least that much.
+     *
+     * @return the jar after the change, empty when it is missing or holds too little
+     */
+    Optional<Jar> addToCurrentAmount(String id, String budgetId, double delta);
+
+    /**
+     * Deletes up to {@code limit} jars of the budget, one bounded batch of a budget deletion.
+     *
+     * @return number of deleted jars, 0 once the budget has none left
+     */
+    long deleteBatchByBudgetId(String budgetId, int limit);
+}
@@ -0,0 +1,202 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawDocuments;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+
+@AllArgsConstructor
+class JarRepositoryCustomImpl implements JarRepositoryCustom {
+
+    /**
+     * Bumps the version so that modifications pinned to the previous one are rejected, jars
+     * stored before versioning have none and get 1. Set through a {@link SetOperation}, so that
+     * MongoTemplate sees the version as modified and does not append its own increment.
+     */
+    private static final AggregationExpression NEXT_VERSION = context ->
+            new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Jar> findAllByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit) {
+        return mongoTemplate.find(pageAfter(budgetId, status, after, limit), Jar.class);
+    }
+
+    @Override
+    public List<Jar> findFirstPage(String budgetId, int limit, Duration maxTime) {
+        return mongoTemplate.find(pageAfter(budgetId, null, null, limit).maxTime(maxTime), Jar.class);
+    }
+
+    @Override
+    public List<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit) {
+        return RawDocuments.find(mongoTemplate, pageAfter(budgetId, status, after, limit), Jar.class);
+    }
+
+    @Override
+    public Slice<RawBsonDocument> findRawSliceByBudgetId(String budgetId, String status, Pageable pageable) {
+        return RawDocuments.toSlice(RawDocuments.find(mongoTemplate, sliceOf(budgetId, status, pageable), Jar.class), pageable);
+    }
+
+    /**
+     * Page of the budget's jars with one extra document, to find out whether a next page exists.
+     */
+    static Query sliceOf(String budgetId, String status, Pageable pageable) {
+        Query query = Query.query(Criteria.where("budgetId").is(budgetId));
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        return query.with(pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1);
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(String budgetId) {
+        return toStatusCounts(mongoTemplate.aggregate(statusCounts(budgetId), Jar.class, Document.class).getMappedResults());
+    }
+
+    @Override
+    public Optional<Jar> setFields(Jar changes) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(fieldsUpdateTarget(changes), fieldsUpdate(changes),
+                FindAndModifyOptions.options().returnNew(true), Jar.class));
+    }
+
+    @Override
+    public Optional<Jar> addToCurrentAmount(String id, String budgetId, double delta) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(amountChangeTarget(id, budgetId, delta), amountChange(delta),
+                FindAndModifyOptions.options().returnNew(true), Jar.class));
+    }
+
+    static Query amountChangeTarget(String id, String budgetId, double delta) {
+        Criteria criteria = Criteria.where("id").is(id).and("budgetId").is(budgetId);
+        if (delta < 0) {
+            criteria = criteria.and("currentAmount").gte(-delta);
+        }
+        return new Query(criteria);
+    }
+
+    /**
+     * $inc cannot be combined with a status computed from the incremented value, so the update is
+     * a pipeline: the first stage adds {@code delta}, the second derives the status from the new
+     * amount.
+     */
+    static AggregationUpdate amountChange(double delta) {
+        Document amount = new Document("$add", List.of(new Document("$ifNull", List.of("$currentAmount", 0.0)), delta));
+        return withStatus(new Document("currentAmount", amount));
+    }
+
+    static Query fieldsUpdateTarget(Jar changes) {
+        Criteria criteria = Criteria.where("id").is(changes.getId()).and("budgetId").is(changes.getBudgetId());
+        if (changes.getVersion() != null) {
+            criteria = criteria.and("version").is(changes.getVersion());
+        }
+        return new Query(criteria);
+    }
+
+    /**
+     * Sets only the fields the modification carries, picked the way {@link Jar#mergeWith(Jar)}
+     * picks them. Values are wrapped in $literal, a name starting with $ would otherwise be read
+     * as a field path.
+     */
+    static AggregationUpdate fieldsUpdate(Jar changes) {
+        Document fields = new Document();
+        if (changes.getCapacity() != null) {
+            fields.append("capacity", new Document("$literal", changes.getCapacity()));
+        }
+        if (changes.getCurrentAmount() != null) {
+            fields.append("currentAmount", new Document("$literal", changes.getCurrentAmount()));
+        }
+        if (!StringUtils.isEmpty(changes.getJarName())) {
+            fields.append("jarName", new Document("$literal", changes.getJarName()));
+        }
+        return withStatus(fields);
+    }
+
+    /**
+     * Pipeline update: the first stage sets {@code fields}, the second derives the status from
+     * the resulting amounts following the rules of {@link Jar#setCurrentAmount(Double)}, the last
+     * bumps the version. A missing amount or capacity counts as 0, so a jar without one is not
+     * started, as in {@code Jar.setStatus}.
+     */
+    private static AggregationUpdate withStatus(Document fields) {
+        Document currentAmount = new Document("$ifNull", List.of("$currentAmount", 0.0));
+        Document notStarted = new Document("$or", List.of(
+                new Document("$lte", List.of(new Document("$ifNull", List.of("$capacity", 0.0)), 0.0)),
+                new Document("$eq", List.of(currentAmount, 0.0))));
+        Document status = new Document("$switch", new Document("branches", List.of(
+                new Document("case", notStarted).append("then", JarStatus.NOT_STARTED.getStatus()),
+                new Document("case", new Document("$lt", List.of(currentAmount, "$capacity"))).append("then", JarStatus.IN_PROGRESS.getStatus())))
+                .append("default", JarStatus.COMPLETED.getStatus()));
+        return AggregationUpdate.from(List.<AggregationOperation>of(
+                        context -> new Document("$set", fields),
+                        context -> new Document("$set", new Document("status", status))))
+                .set(SetOperation.set("version").toValue(NEXT_VERSION));
+    }
+
+    static Query pageAfter(String budgetId, String status, JarCursor after, int limit) {
+        Criteria criteria = Criteria.where("budgetId").is(budgetId);
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (after != null) {
+            criteria = criteria.and("id").gt(after.getId());
+        }
+        return new Query(criteria)
+                .with(JarRepository.PAGE_ORDER)
+                .limit(limit);
+    }
+
+    static Aggregation statusCounts(String budgetId) {
+        return Aggregation.newAggregation(
+                match(Criteria.where("budgetId").is(budgetId)),
+                group("status").count().as("count"));
+    }
+
+    static Map<String, Long> toStatusCounts(List<Document> groups) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Document group : groups) {
+            counts.put(group.getString("_id"), ((Number) group.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public long deleteBatchByBudgetId(String budgetId, int limit) {
+        List<String> ids = mongoTemplate.find(batchOfBudget(budgetId, limit), Jar.class).stream()
+                .map(Jar::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0L;
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Jar.class).getDeletedCount();
+    }
+
+    static Query batchOfBudget(String budgetId, int limit) {
+        Query query = Query.query(Criteria.where("budgetId").is(budgetId)).limit(limit);
+        query.fields().include("id");
+        return query;
+    }
+}
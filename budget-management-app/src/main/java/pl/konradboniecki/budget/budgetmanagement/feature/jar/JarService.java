@@ -1,29 +1,39 @@
 package pl.konradboniecki.budget.budgetmanagement.feature.jar;
 
 import lombok.AllArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarConflictException;
 import pl.konradboniecki.budget.budgetmanagement.exception.JarCreationException;
 import pl.konradboniecki.budget.budgetmanagement.exception.JarNotFoundException;
-import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetExistenceCache;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.openapi.dto.model.*;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 @AllArgsConstructor
 @Service
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "imperative", matchIfMissing = true)
 public class JarService {
 
     private final JarRepository jarRepository;
-    private final BudgetRepository budgetRepository;
+    private final BudgetExistenceCache budgetExistenceCache;
+    private final BudgetTotalsRepository budgetTotalsRepository;
     private final JarMapper jarMapper;
 
     public OASJar findJar(String id, String budgetId) {
@@ -46,16 +56,59 @@ public class JarService {
         budgetExistsOrThrow(budgetIdFromPath, "Failed to create jar. Budget not found.");
         jarToSave.setId(UUID.randomUUID().toString());
         Jar savedJar = jarRepository.save(jarToSave);
+        budgetTotalsRepository.incrementJars(budgetIdFromPath, 1);
         return jarMapper.toOASCreatedJar(savedJar);
     }
 
     public OASJar updateJar(String jarId, String budgetId, OASJarModification jarModification) {
         checkArgument(jarId.equals(jarModification.getId()));
         checkArgument(budgetId.equals(jarModification.getBudgetId()));
-        Jar newJar = jarMapper.toJar(jarModification);
-        Jar origin = findByIdAndBudgetIdOrThrow(jarId, budgetId);
-        Jar result = jarRepository.save(origin.mergeWith(newJar));
-        return jarMapper.toOASJar(result);
+        Jar changes = jarMapper.toJar(jarModification);
+        Optional<Jar> updated = jarRepository.setFields(changes);
+        if (updated.isPresent()) {
+            budgetTotalsRepository.incrementChangeVersion(budgetId);
+            return jarMapper.toOASJar(updated.get());
+        }
+        if (changes.getVersion() == null) {
+            throw new JarNotFoundException(String.format("Jar with id: %s not found in budget with id: %s", jarId, budgetId));
+        }
+        throw conflict(findByIdAndBudgetIdOrThrow(jarId, budgetId));
+    }
+
+    private JarConflictException conflict(Jar latest) {
+        return new JarConflictException(String.format("Jar with id: %s in budget with id: %s has a newer version.",
+                latest.getId(), latest.getBudgetId()), jarMapper.toOASJar(latest));
+    }
+
+    public OASJar depositToJar(String jarId, String budgetId, OASJarAmount jarAmount) {
+        double amount = positiveAmountOrThrow(jarAmount);
+        Jar jar = jarRepository.addToCurrentAmount(jarId, budgetId, amount)
+                .orElseThrow(() -> new JarNotFoundException(String.format("Jar with id: %s not found in budget with id: %s", jarId, budgetId)));
+        budgetTotalsRepository.incrementChangeVersion(budgetId);
+        return jarMapper.toOASJar(jar);
+    }
+
+    public OASJar withdrawFromJar(String jarId, String budgetId, OASJarAmount jarAmount) {
+        double amount = positiveAmountOrThrow(jarAmount);
+        Optional<Jar> jar = jarRepository.addToCurrentAmount(jarId, budgetId, -amount);
+        if (jar.isPresent()) {
+            budgetTotalsRepository.incrementChangeVersion(budgetId);
+            return jarMapper.toOASJar(jar.get());
+        }
+        throw insufficientAmount(findByIdAndBudgetIdOrThrow(jarId, budgetId), amount);
+    }
+
+    static double positiveAmountOrThrow(OASJarAmount jarAmount) {
+        Double amount = jarAmount.getAmount();
+        if (amount == null || !Double.isFinite(amount) || amount <= 0) {
+            throw new BadRequestException("Invalid argument amount=" + amount + ", it should be a number greater than 0");
+        }
+        return amount;
+    }
+
+    private JarConflictException insufficientAmount(Jar current, double amount) {
+        return new JarConflictException(String.format("Jar with id: %s in budget with id: %s holds less than %s.",
+                current.getId(), current.getBudgetId(), amount), jarMapper.toOASJar(current));
     }
 
     public void removeJarFromBudgetOrThrow(String jarId, String budgetId) {
@@ -64,6 +117,7 @@ public class JarService {
         if (deleted == 0) {
             throw new JarNotFoundException(String.format("Jar with id: %s not found in budget with id: %s", jarId, budgetId));
         }
+        budgetTotalsRepository.incrementJars(budgetId, -deleted);
     }
 
     public void deleteJarByIdOrThrow(String id) {
@@ -74,26 +128,168 @@ public class JarService {
         }
     }
 
+    /**
+     * Weak ETag of the jar listings of the budget, a single read by id that leaves the jars
+     * untouched. The listing parameters are checked first, so that an invalid request is never
+     * answered with 304. Jars of a missing budget are listed as an empty page, which gets no ETag.
+     *
+     * @return {@code null} when no change of the budget was recorded yet or the budget is missing
+     */
+    public String findListETag(String budgetId, String cursor, String includeTotals, String status) {
+        validListingOrThrow(cursor, includeTotals, status);
+        return budgetExistenceCache.exists(budgetId)
+                ? BudgetTotals.weakETag(budgetTotalsRepository.findChangeVersion(budgetId))
+                : null;
+    }
+
+    /**
+     * Rejects the listing parameters the listings would reject, without querying anything.
+     */
+    static void validListingOrThrow(String cursor, String includeTotals, String status) {
+        toStoredStatus(status);
+        if (cursor != null) {
+            JarCursor.decode(cursor);
+        } else if (!"true".equals(includeTotals) && !"false".equals(includeTotals) && !"estimated".equals(includeTotals)) {
+            throw invalidIncludeTotals(includeTotals);
+        }
+    }
+
     public OASJarPage findAllJarsByBudgetId(String budgetId, Pageable pageable) {
-        Page<Jar> jarPage = jarRepository.findAllByBudgetId(budgetId, pageable);
-        List<OASJar> items = jarPage.get()
-                .map(jarMapper::toOASJar)
-                .collect(Collectors.toList());
+        return findAllJarsByBudgetId(budgetId, pageable, "true");
+    }
+
+    public OASJarPage findAllJarsByBudgetId(String budgetId, Pageable pageable, String includeTotals) {
+        return findAllJarsByBudgetId(budgetId, pageable, includeTotals, null);
+    }
 
-        OASPaginationMetadata paginationMetadata = new OASPaginationMetadata()
-                .elements(jarPage.getNumberOfElements())
-                .pageSize(pageable.getPageSize())
-                .page(pageable.getPageNumber())
-                .totalPages(jarPage.getTotalPages())
-                .totalElements((int) jarPage.getTotalElements());
+    public OASJarPage findAllJarsByBudgetId(String budgetId, Pageable pageable, String includeTotals, String status) {
+        String storedStatus = toStoredStatus(status);
+        if (storedStatus != null) {
+            return findAllJarsByBudgetIdAndStatus(budgetId, pageable, includeTotals, storedStatus);
+        }
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), JarRepository.PAGE_ORDER);
+        switch (includeTotals) {
+            case "true":
+                Page<Jar> jarPage = jarRepository.findAllByBudgetId(budgetId, orderedPageable);
+                return jarMapper.toOASJarPage(jarPage, jarPage.getTotalElements());
+            case "estimated":
+                Slice<Jar> estimatedSlice = jarRepository.findSliceByBudgetId(budgetId, orderedPageable);
+                return jarMapper.toOASJarPage(estimatedSlice, estimatedJarCount(budgetId));
+            case "false":
+                return jarMapper.toOASJarPage(jarRepository.findSliceByBudgetId(budgetId, orderedPageable), null);
+            default:
+                throw invalidIncludeTotals(includeTotals);
+        }
+    }
+
+    /**
+     * There are no per-status counters, so "estimated" totals come from the status counts aggregation,
+     * which reads the {@code (budgetId, status)} index only.
+     */
+    private OASJarPage findAllJarsByBudgetIdAndStatus(String budgetId, Pageable pageable, String includeTotals, String storedStatus) {
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), JarRepository.PAGE_ORDER);
+        switch (includeTotals) {
+            case "true":
+                Page<Jar> jarPage = jarRepository.findAllByBudgetIdAndStatus(budgetId, storedStatus, orderedPageable);
+                return jarMapper.toOASJarPage(jarPage, jarPage.getTotalElements());
+            case "estimated":
+                Slice<Jar> estimatedSlice = jarRepository.findSliceByBudgetIdAndStatus(budgetId, storedStatus, orderedPageable);
+                return jarMapper.toOASJarPage(estimatedSlice, jarRepository.countByStatus(budgetId).getOrDefault(storedStatus, 0L));
+            case "false":
+                return jarMapper.toOASJarPage(jarRepository.findSliceByBudgetIdAndStatus(budgetId, storedStatus, orderedPageable), null);
+            default:
+                throw invalidIncludeTotals(includeTotals);
+        }
+    }
+
+    public OASJarPage findAllJarsByBudgetId(String budgetId, String cursor, int limit) {
+        return findAllJarsByBudgetId(budgetId, cursor, limit, null);
+    }
+
+    public OASJarPage findAllJarsByBudgetId(String budgetId, String cursor, int limit, String status) {
+        String storedStatus = toStoredStatus(status);
+        JarCursor after = JarCursor.decode(cursor);
+        List<Jar> jars = jarRepository.findAllByBudgetIdAfter(budgetId, storedStatus, after, limit + 1);
+        boolean hasNext = jars.size() > limit;
+        List<Jar> pageContent = hasNext ? jars.subList(0, limit) : jars;
+        return jarMapper.toOASJarPage(pageContent, limit, hasNext);
+    }
+
+    /**
+     * Same page as {@link #findAllJarsByBudgetId(String, Pageable, String, String)}, with the jars
+     * passed through as stored instead of mapped one by one.
+     */
+    public OASJarPage findRawJarPage(String budgetId, Pageable pageable, String includeTotals, String status) {
+        String storedStatus = toStoredStatus(status);
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), JarRepository.PAGE_ORDER);
+        Slice<RawBsonDocument> jarSlice;
+        switch (includeTotals) {
+            case "true":
+                jarSlice = jarRepository.findRawSliceByBudgetId(budgetId, storedStatus, orderedPageable);
+                long totalElements = PageableExecutionUtils.getPage(jarSlice.getContent(), orderedPageable,
+                        () -> storedStatus == null
+                                ? jarRepository.countByBudgetId(budgetId)
+                                : jarRepository.countByBudgetIdAndStatus(budgetId, storedStatus)).getTotalElements();
+                return jarMapper.toRawJarPage(jarSlice, totalElements);
+            case "estimated":
+                jarSlice = jarRepository.findRawSliceByBudgetId(budgetId, storedStatus, orderedPageable);
+                long estimatedTotal = storedStatus == null
+                        ? estimatedJarCount(budgetId)
+                        : jarRepository.countByStatus(budgetId).getOrDefault(storedStatus, 0L);
+                return jarMapper.toRawJarPage(jarSlice, estimatedTotal);
+            case "false":
+                return jarMapper.toRawJarPage(jarRepository.findRawSliceByBudgetId(budgetId, storedStatus, orderedPageable), null);
+            default:
+                throw invalidIncludeTotals(includeTotals);
+        }
+    }
+
+    /**
+     * Same page as {@link #findAllJarsByBudgetId(String, String, int, String)}, with the jars
+     * passed through as stored instead of mapped one by one.
+     */
+    public OASJarPage findRawJarPage(String budgetId, String cursor, int limit, String status) {
+        String storedStatus = toStoredStatus(status);
+        JarCursor after = JarCursor.decode(cursor);
+        List<RawBsonDocument> jars = jarRepository.findRawByBudgetIdAfter(budgetId, storedStatus, after, limit + 1);
+        boolean hasNext = jars.size() > limit;
+        List<RawBsonDocument> pageContent = hasNext ? jars.subList(0, limit) : jars;
+        return jarMapper.toRawJarPage(pageContent, limit, hasNext);
+    }
+
+    public OASJarStatusCounts findJarStatusCounts(String budgetId) {
+        budgetExistsOrThrow(budgetId, "Failed to count jars. Budget not found.");
+        return jarMapper.toOASJarStatusCounts(jarRepository.countByStatus(budgetId));
+    }
+
+    /**
+     * Maps the status accepted by the API, e.g. {@code IN_PROGRESS}, to the one stored with jars.
+     */
+    static String toStoredStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return JarStatus.valueOf(status).getStatus();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid argument status=" + status + ", it should be \"NOT_STARTED\", \"IN_PROGRESS\" or \"COMPLETED\"");
+        }
+    }
+
+    static BadRequestException invalidIncludeTotals(String includeTotals) {
+        return new BadRequestException("Invalid argument includeTotals=" + includeTotals + ", it should be \"true\", \"false\" or \"estimated\"");
+    }
 
-        return new OASJarPage()
-                .items(items)
-                .meta(paginationMetadata);
+    /**
+     * Counted exactly until the counters of the budget are seeded.
+     */
+    private long estimatedJarCount(String budgetId) {
+        return budgetTotalsRepository.countJars(budgetId)
+                .orElseGet(() -> jarRepository.countByBudgetId(budgetId));
     }
 
     private void budgetExistsOrThrow(String budgetId, String msg) {
-        if (budgetRepository.findById(budgetId).isEmpty()) {
+        if (!budgetExistenceCache.exists(budgetId)) {
             throw new BudgetNotFoundException(msg);
         }
     }
@@ -0,0 +1,72 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawJsonFields;
+import pl.konradboniecki.budget.openapi.dto.model.OASJar;
+import pl.konradboniecki.budget.openapi.dto.model.OASJarPage;
+import pl.konradboniecki.budget.openapi.dto.model.OASPaginationMetadata;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Jar page serialized from the stored documents, without a {@link Jar} or {@link OASJar} per row.
+ * Writes the JSON {@link JarMapper#toOASJarPage} output is serialized to, properties in the order
+ * of {@link OASJar}. A jar stored without amounts or status gets them from the {@link Jar}
+ * defaults, so such a document is read and mapped the regular way.
+ */
+class RawJarPage extends OASJarPage implements JsonSerializable {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private final List<RawBsonDocument> jars;
+    private final JarMapper jarMapper;
+
+    RawJarPage(List<RawBsonDocument> jars, OASPaginationMetadata meta, JarMapper jarMapper) {
+        this.jars = jars;
+        this.jarMapper = jarMapper;
+        meta(meta);
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        RawJsonFields fields = new RawJsonFields(generator, provider, OASJar.class);
+        for (RawBsonDocument jar : jars) {
+            if (!jar.containsKey("currentAmount") || !jar.containsKey("capacity") || !jar.containsKey("status")) {
+                provider.defaultSerializeValue(jarMapper.toOASJar(decode(jar)), generator);
+                continue;
+            }
+            generator.writeStartObject();
+            fields.string("id", jar.get("_id"));
+            fields.string("budgetId", jar.get("budgetId"));
+            fields.string("jarName", jar.get("jarName"));
+            fields.decimal("currentAmount", jar.get("currentAmount"));
+            fields.decimal("capacity", jar.get("capacity"));
+            fields.int64("version", jar.get("version"));
+            fields.string("status", jar.get("status"));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        provider.defaultSerializeField("_meta", getMeta(), generator);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, provider);
+    }
+
+    private static Jar decode(RawBsonDocument jar) {
+        Document document = DOCUMENT_CODEC.decode(jar.asBsonReader(), DecoderContext.builder().build());
+        return JarConverters.READING.convert(document);
+    }
+}
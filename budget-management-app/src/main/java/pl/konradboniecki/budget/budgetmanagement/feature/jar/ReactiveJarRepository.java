@@ -0,0 +1,23 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveJarRepository extends ReactiveMongoRepository<Jar, String>, ReactiveJarRepositoryCustom {
+
+    Mono<Jar> findByIdAndBudgetId(String jarId, String budgetId);
+
+    Flux<Jar> findAllByBudgetId(String budgetId, Pageable pageable);
+
+    Mono<Long> countByBudgetId(String budgetId);
+
+    Flux<Jar> findAllByBudgetIdAndStatus(String budgetId, String status, Pageable pageable);
+
+    Mono<Long> countByBudgetIdAndStatus(String budgetId, String status);
+
+    Mono<Long> deleteJarByIdAndBudgetId(String id, String budgetId);
+}
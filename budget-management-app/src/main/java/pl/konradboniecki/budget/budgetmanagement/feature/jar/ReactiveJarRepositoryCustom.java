@@ -0,0 +1,41 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveJarRepositoryCustom {
+
+    Flux<Jar> findAllByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit);
+
+    /**
+     * @param status stored status to filter by, all jars when {@code null}
+     */
+    Mono<Slice<Jar>> findSliceByBudgetId(String budgetId, String status, Pageable pageable);
+
+    Flux<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit);
+
+    Mono<Slice<RawBsonDocument>> findRawSliceByBudgetId(String budgetId, String status, Pageable pageable);
+
+    Mono<Map<String, Long>> countByStatus(String budgetId);
+
+    /**
+     * Empty when no jar matched, see {@link JarRepositoryCustom#setFields(Jar)}.
+     */
+    Mono<Jar> setFields(Jar changes);
+
+    /**
+     * Empty when the jar is missing or holds too little, see
+     * {@link JarRepositoryCustom#addToCurrentAmount(String, String, double)}.
+     */
+    Mono<Jar> addToCurrentAmount(String id, String budgetId, double delta);
+
+    /**
+     * See {@link JarRepositoryCustom#deleteBatchByBudgetId(String, int)}.
+     */
+    Mono<Long> deleteBatchByBudgetId(String budgetId, int limit);
+}
@@ -0,0 +1,83 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import com.mongodb.client.result.DeleteResult;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.konradboniecki.budget.budgetmanagement.feature.rawjson.RawDocuments;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+class ReactiveJarRepositoryCustomImpl implements ReactiveJarRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Jar> findAllByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit) {
+        return reactiveMongoTemplate.find(JarRepositoryCustomImpl.pageAfter(budgetId, status, after, limit), Jar.class);
+    }
+
+    @Override
+    public Mono<Map<String, Long>> countByStatus(String budgetId) {
+        return reactiveMongoTemplate.aggregate(JarRepositoryCustomImpl.statusCounts(budgetId), Jar.class, Document.class)
+                .collectList()
+                .map(JarRepositoryCustomImpl::toStatusCounts);
+    }
+
+    @Override
+    public Mono<Jar> setFields(Jar changes) {
+        return reactiveMongoTemplate.findAndModify(JarRepositoryCustomImpl.fieldsUpdateTarget(changes),
+                JarRepositoryCustomImpl.fieldsUpdate(changes), FindAndModifyOptions.options().returnNew(true), Jar.class);
+    }
+
+    @Override
+    public Mono<Jar> addToCurrentAmount(String id, String budgetId, double delta) {
+        return reactiveMongoTemplate.findAndModify(JarRepositoryCustomImpl.amountChangeTarget(id, budgetId, delta),
+                JarRepositoryCustomImpl.amountChange(delta), FindAndModifyOptions.options().returnNew(true), Jar.class);
+    }
+
+    @Override
+    public Mono<Slice<Jar>> findSliceByBudgetId(String budgetId, String status, Pageable pageable) {
+        return reactiveMongoTemplate.find(JarRepositoryCustomImpl.sliceOf(budgetId, status, pageable), Jar.class)
+                .collectList()
+                .map(jars -> {
+                    boolean hasNext = jars.size() > pageable.getPageSize();
+                    List<Jar> content = hasNext ? jars.subList(0, pageable.getPageSize()) : jars;
+                    return new SliceImpl<>(content, pageable, hasNext);
+                });
+    }
+
+    @Override
+    public Flux<RawBsonDocument> findRawByBudgetIdAfter(String budgetId, String status, JarCursor after, int limit) {
+        return RawDocuments.find(reactiveMongoTemplate, JarRepositoryCustomImpl.pageAfter(budgetId, status, after, limit), Jar.class);
+    }
+
+    @Override
+    public Mono<Slice<RawBsonDocument>> findRawSliceByBudgetId(String budgetId, String status, Pageable pageable) {
+        return RawDocuments.find(reactiveMongoTemplate, JarRepositoryCustomImpl.sliceOf(budgetId, status, pageable), Jar.class)
+                .collectList()
+                .map(jars -> RawDocuments.toSlice(jars, pageable));
+    }
+
+    @Override
+    public Mono<Long> deleteBatchByBudgetId(String budgetId, int limit) {
+        return reactiveMongoTemplate.find(JarRepositoryCustomImpl.batchOfBudget(budgetId, limit), Jar.class)
+                .map(Jar::getId)
+                .collectList()
+                .flatMap(ids -> ids.isEmpty()
+                        ? Mono.just(0L)
+                        : reactiveMongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Jar.class)
+                        .map(DeleteResult::getDeletedCount));
+    }
+}
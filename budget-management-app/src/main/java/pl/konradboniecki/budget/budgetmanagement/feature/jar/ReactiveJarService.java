@@ -0,0 +1,233 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import lombok.AllArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarConflictException;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarCreationException;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetTotalsRepository;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Non-blocking counterpart of {@link JarService}, used when the application runs with the
+ * {@code reactive} profile.
+ */
+@AllArgsConstructor
+@Service
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveJarService {
+
+    private final ReactiveJarRepository jarRepository;
+    private final ReactiveBudgetRepository budgetRepository;
+    private final ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private final JarMapper jarMapper;
+
+    public Mono<OASJar> findJar(String id, String budgetId) {
+        return findByIdAndBudgetIdOrThrow(id, budgetId)
+                .map(jarMapper::toOASJar);
+    }
+
+    private Mono<Jar> findByIdAndBudgetIdOrThrow(String id, String budgetId) {
+        return jarRepository.findByIdAndBudgetId(id, budgetId)
+                .switchIfEmpty(Mono.error(() -> new JarNotFoundException(
+                        String.format("Jar with id: %s not found in budget with id: %s", id, budgetId))));
+    }
+
+    public Mono<OASCreatedJar> saveJar(OASJarCreation jarCreation, String budgetIdFromPath) {
+        Jar jarToSave = jarMapper.toJar(jarCreation);
+        checkIfBudgetIdFromPathAndBodyAreConsistent(jarToSave, budgetIdFromPath);
+        jarToSave.setId(UUID.randomUUID().toString());
+        return budgetExistsOrThrow(budgetIdFromPath, "Failed to create jar. Budget not found.")
+                .then(jarRepository.save(jarToSave))
+                .flatMap(savedJar -> budgetTotalsRepository.incrementJars(budgetIdFromPath, 1)
+                        .thenReturn(savedJar))
+                .map(jarMapper::toOASCreatedJar);
+    }
+
+    public Mono<OASJar> updateJar(String jarId, String budgetId, OASJarModification jarModification) {
+        checkArgument(jarId.equals(jarModification.getId()));
+        checkArgument(budgetId.equals(jarModification.getBudgetId()));
+        Jar changes = jarMapper.toJar(jarModification);
+        return jarRepository.setFields(changes)
+                .switchIfEmpty(Mono.defer(() -> changes.getVersion() == null
+                        ? Mono.<Jar>error(new JarNotFoundException(String.format("Jar with id: %s not found in budget with id: %s", jarId, budgetId)))
+                        : findByIdAndBudgetIdOrThrow(jarId, budgetId).flatMap(current -> Mono.<Jar>error(conflict(current)))))
+                .flatMap(updated -> budgetTotalsRepository.incrementChangeVersion(budgetId).thenReturn(updated))
+                .map(jarMapper::toOASJar);
+    }
+
+    private JarConflictException conflict(Jar latest) {
+        return new JarConflictException(String.format("Jar with id: %s in budget with id: %s has a newer version.",
+                latest.getId(), latest.getBudgetId()), jarMapper.toOASJar(latest));
+    }
+
+    public Mono<OASJar> depositToJar(String jarId, String budgetId, OASJarAmount jarAmount) {
+        return Mono.fromCallable(() -> JarService.positiveAmountOrThrow(jarAmount))
+                .flatMap(amount -> jarRepository.addToCurrentAmount(jarId, budgetId, amount))
+                .switchIfEmpty(Mono.error(() -> new JarNotFoundException(
+                        String.format("Jar with id: %s not found in budget with id: %s", jarId, budgetId))))
+                .flatMap(jar -> budgetTotalsRepository.incrementChangeVersion(budgetId).thenReturn(jar))
+                .map(jarMapper::toOASJar);
+    }
+
+    public Mono<OASJar> withdrawFromJar(String jarId, String budgetId, OASJarAmount jarAmount) {
+        return Mono.fromCallable(() -> JarService.positiveAmountOrThrow(jarAmount))
+                .flatMap(amount -> jarRepository.addToCurrentAmount(jarId, budgetId, -amount)
+                        .switchIfEmpty(Mono.defer(() -> findByIdAndBudgetIdOrThrow(jarId, budgetId)
+                                .flatMap(current -> Mono.<Jar>error(new JarConflictException(
+                                        String.format("Jar with id: %s in budget with id: %s holds less than %s.", jarId, budgetId, amount),
+                                        jarMapper.toOASJar(current)))))))
+                .flatMap(jar -> budgetTotalsRepository.incrementChangeVersion(budgetId).thenReturn(jar))
+                .map(jarMapper::toOASJar);
+    }
+
+    public Mono<Void> removeJarFromBudgetOrThrow(String jarId, String budgetId) {
+        return budgetExistsOrThrow(budgetId, "Failed to delete jar. Budget not found.")
+                .then(jarRepository.deleteJarByIdAndBudgetId(jarId, budgetId))
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new JarNotFoundException(String.format("Jar with id: %s not found in budget with id: %s", jarId, budgetId)))
+                        : budgetTotalsRepository.incrementJars(budgetId, -deleted));
+    }
+
+    /**
+     * Counterpart of {@link JarService#findListETag(String, String, String, String)}.
+     *
+     * @return weak ETag of the jar listings of the budget, empty when no change was recorded yet
+     * or the budget is missing
+     */
+    public Mono<String> findListETag(String budgetId, String cursor, String includeTotals, String status) {
+        return Mono.fromRunnable(() -> JarService.validListingOrThrow(cursor, includeTotals, status))
+                .then(Mono.defer(() -> budgetRepository.existsById(budgetId)))
+                .filter(Boolean::booleanValue)
+                .flatMap(exists -> budgetTotalsRepository.findChangeVersion(budgetId))
+                .mapNotNull(BudgetTotals::weakETag);
+    }
+
+    public Mono<OASJarPage> findAllJarsByBudgetId(String budgetId, Pageable pageable, String includeTotals, String status) {
+        return Mono.fromCallable(() -> Optional.ofNullable(JarService.toStoredStatus(status)))
+                .flatMap(storedStatus -> findAllJarsByBudgetId(budgetId, pageable, includeTotals, storedStatus));
+    }
+
+    private Mono<OASJarPage> findAllJarsByBudgetId(String budgetId, Pageable pageable, String includeTotals, Optional<String> storedStatus) {
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), JarRepository.PAGE_ORDER);
+        switch (includeTotals) {
+            case "true":
+                Flux<Jar> jars = storedStatus
+                        .map(filter -> jarRepository.findAllByBudgetIdAndStatus(budgetId, filter, orderedPageable))
+                        .orElseGet(() -> jarRepository.findAllByBudgetId(budgetId, orderedPageable));
+                Mono<Long> total = storedStatus
+                        .map(filter -> jarRepository.countByBudgetIdAndStatus(budgetId, filter))
+                        .orElseGet(() -> jarRepository.countByBudgetId(budgetId));
+                return Mono.zip(jars.collectList(), total)
+                        .map(pageAndTotal -> jarMapper.toOASJarPage(
+                                new PageImpl<>(pageAndTotal.getT1(), orderedPageable, pageAndTotal.getT2()),
+                                pageAndTotal.getT2()));
+            case "estimated":
+                Mono<Long> estimatedTotal = storedStatus
+                        .map(filter -> jarRepository.countByStatus(budgetId).map(counts -> counts.getOrDefault(filter, 0L)))
+                        .orElseGet(() -> budgetTotalsRepository.countJars(budgetId)
+                                .switchIfEmpty(Mono.defer(() -> jarRepository.countByBudgetId(budgetId))));
+                return Mono.zip(
+                                jarRepository.findSliceByBudgetId(budgetId, storedStatus.orElse(null), orderedPageable),
+                                estimatedTotal)
+                        .map(sliceAndTotal -> jarMapper.toOASJarPage(sliceAndTotal.getT1(), sliceAndTotal.getT2()));
+            case "false":
+                return jarRepository.findSliceByBudgetId(budgetId, storedStatus.orElse(null), orderedPageable)
+                        .map(slice -> jarMapper.toOASJarPage(slice, null));
+            default:
+                return Mono.error(JarService.invalidIncludeTotals(includeTotals));
+        }
+    }
+
+    public Mono<OASJarPage> findAllJarsByBudgetId(String budgetId, String cursor, int limit, String status) {
+        return Mono.fromCallable(() -> JarCursor.decode(cursor))
+                .flatMap(after -> jarRepository.findAllByBudgetIdAfter(budgetId, JarService.toStoredStatus(status), after, limit + 1).collectList())
+                .map(jars -> {
+                    boolean hasNext = jars.size() > limit;
+                    List<Jar> pageContent = hasNext ? jars.subList(0, limit) : jars;
+                    return jarMapper.toOASJarPage(pageContent, limit, hasNext);
+                });
+    }
+
+    /**
+     * Counterpart of {@link JarService#findRawJarPage(String, Pageable, String, String)}.
+     */
+    public Mono<OASJarPage> findRawJarPage(String budgetId, Pageable pageable, String includeTotals, String status) {
+        return Mono.fromCallable(() -> Optional.ofNullable(JarService.toStoredStatus(status)))
+                .flatMap(storedStatus -> findRawJarPage(budgetId, pageable, includeTotals, storedStatus));
+    }
+
+    private Mono<OASJarPage> findRawJarPage(String budgetId, Pageable pageable, String includeTotals, Optional<String> storedStatus) {
+        Pageable orderedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), JarRepository.PAGE_ORDER);
+        Mono<Slice<RawBsonDocument>> jarSlice = jarRepository.findRawSliceByBudgetId(budgetId, storedStatus.orElse(null), orderedPageable);
+        switch (includeTotals) {
+            case "true":
+                Mono<Long> total = storedStatus
+                        .map(filter -> jarRepository.countByBudgetIdAndStatus(budgetId, filter))
+                        .orElseGet(() -> jarRepository.countByBudgetId(budgetId));
+                return Mono.zip(jarSlice, total)
+                        .map(sliceAndTotal -> jarMapper.toRawJarPage(sliceAndTotal.getT1(), sliceAndTotal.getT2()));
+            case "estimated":
+                Mono<Long> estimatedTotal = storedStatus
+                        .map(filter -> jarRepository.countByStatus(budgetId).map(counts -> counts.getOrDefault(filter, 0L)))
+                        .orElseGet(() -> budgetTotalsRepository.countJars(budgetId)
+                                .switchIfEmpty(Mono.defer(() -> jarRepository.countByBudgetId(budgetId))));
+                return Mono.zip(jarSlice, estimatedTotal)
+                        .map(sliceAndTotal -> jarMapper.toRawJarPage(sliceAndTotal.getT1(), sliceAndTotal.getT2()));
+            case "false":
+                return jarSlice.map(slice -> jarMapper.toRawJarPage(slice, null));
+            default:
+                return Mono.error(JarService.invalidIncludeTotals(includeTotals));
+        }
+    }
+
+    /**
+     * Counterpart of {@link JarService#findRawJarPage(String, String, int, String)}.
+     */
+    public Mono<OASJarPage> findRawJarPage(String budgetId, String cursor, int limit, String status) {
+        return Mono.fromCallable(() -> JarCursor.decode(cursor))
+                .flatMap(after -> jarRepository.findRawByBudgetIdAfter(budgetId, JarService.toStoredStatus(status), after, limit + 1).collectList())
+                .map(jars -> {
+                    boolean hasNext = jars.size() > limit;
+                    List<RawBsonDocument> pageContent = hasNext ? jars.subList(0, limit) : jars;
+                    return jarMapper.toRawJarPage(pageContent, limit, hasNext);
+                });
+    }
+
+    public Mono<OASJarStatusCounts> findJarStatusCounts(String budgetId) {
+        return budgetExistsOrThrow(budgetId, "Failed to count jars. Budget not found.")
+                .then(Mono.defer(() -> jarRepository.countByStatus(budgetId)))
+                .map(jarMapper::toOASJarStatusCounts);
+    }
+
+    private Mono<Void> budgetExistsOrThrow(String budgetId, String msg) {
+        return budgetRepository.existsById(budgetId)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new BudgetNotFoundException(msg)))
+                .then();
+    }
+
+    private void checkIfBudgetIdFromPathAndBodyAreConsistent(Jar jarFromBody, String budgetIdFromPath) {
+        if (!jarFromBody.getBudgetId().equals(budgetIdFromPath)) {
+            throw new JarCreationException("Budget id in body and path don't match.");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.overview;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "budget.overview")
+public class BudgetOverviewProperties {
+
+    /**
+     * Threads running overview queries. Every overview takes four of them for the duration of its
+     * slowest query.
+     */
+    private int threads = 16;
+    /**
+     * Queries waiting for a thread before new overviews are rejected with 503.
+     */
+    private int queueCapacity = 64;
+    /**
+     * Deadline of a whole overview. Queries still queued when it passes are cancelled, the listings
+     * run with it as their {@code maxTime} and are aborted by the server.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+    private int jarLimit = 20;
+    private int expenseLimit = 10;
+}
@@ -0,0 +1,155 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.overview;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the home screen of a budget from four independent queries run concurrently on a
+ * bounded pool: the budget, the first jar page, the most recent expenses and the running expense
+ * totals. The listings read the repositories directly, the budget lookup stands in for the
+ * existence check each of them would otherwise make. The first failure, e.g. a missing budget,
+ * fails the overview without waiting for the other queries.
+ * <p>
+ * Cancelling an abandoned query only keeps it from starting, a running one cannot be interrupted.
+ * The listings therefore run with the overview timeout as their {@code maxTime}, the other two are
+ * lookups by id.
+ */
+@Service
+@EnableConfigurationProperties(BudgetOverviewProperties.class)
+@ConditionalOnProperty(value = "spring.data.mongodb.repositories.type", havingValue = "imperative", matchIfMissing = true)
+public class BudgetOverviewService implements DisposableBean {
+
+    private final BudgetRepository budgetRepository;
+    private final JarRepository jarRepository;
+    private final ExpenseRepository expenseRepository;
+    private final BudgetTotalsRepository budgetTotalsRepository;
+    private final BudgetMapper budgetMapper;
+    private final JarMapper jarMapper;
+    private final ExpenseMapper expenseMapper;
+    private final BudgetOverviewProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    public BudgetOverviewService(BudgetRepository budgetRepository, JarRepository jarRepository, ExpenseRepository expenseRepository,
+                                 BudgetTotalsRepository budgetTotalsRepository, BudgetMapper budgetMapper, JarMapper jarMapper,
+                                 ExpenseMapper expenseMapper, BudgetOverviewProperties properties) {
+        this.budgetRepository = budgetRepository;
+        this.jarRepository = jarRepository;
+        this.expenseRepository = expenseRepository;
+        this.budgetTotalsRepository = budgetTotalsRepository;
+        this.budgetMapper = budgetMapper;
+        this.jarMapper = jarMapper;
+        this.expenseMapper = expenseMapper;
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("budget-overview-"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public OASBudgetOverview findOverview(String budgetId) {
+        List<CompletableFuture<?>> queries = new ArrayList<>(4);
+        CompletableFuture<OASBudget> budget = submit(queries, () -> budgetRepository.findById(budgetId)
+                .map(budgetMapper::toOASBudget)
+                .orElseThrow(() -> new BudgetNotFoundException("Budget with id: " + budgetId + " not found.")));
+        int jarLimit = properties.getJarLimit();
+        CompletableFuture<OASJarPage> jars = submit(queries, () -> {
+            List<Jar> found = jarRepository.findFirstPage(budgetId, jarLimit + 1, properties.getTimeout());
+            return jarMapper.toOASJarPage(firstItems(found, jarLimit), jarLimit, found.size() > jarLimit);
+        });
+        int expenseLimit = properties.getExpenseLimit();
+        CompletableFuture<OASExpensePage> recentExpenses = submit(queries, () -> {
+            List<Expense> found = expenseRepository.findFirstPage(budgetId, expenseLimit + 1, properties.getTimeout());
+            return expenseMapper.toOASExpensePage(firstItems(found, expenseLimit), expenseLimit, found.size() > expenseLimit);
+        });
+        CompletableFuture<OASExpenseTotals> expenseTotals = submit(queries, () ->
+                expenseMapper.toOASExpenseTotals(budgetTotalsRepository.findExpenseTotals(budgetId)));
+
+        awaitAll(queries);
+        return new OASBudgetOverview()
+                .budget(budget.join())
+                .jars(jars.join())
+                .recentExpenses(recentExpenses.join())
+                .expenseTotals(expenseTotals.join());
+    }
+
+    static <T> List<T> firstItems(List<T> found, int limit) {
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    /**
+     * Adds the submitted query to {@code queries}. When the pool rejects it, the queries submitted
+     * before are cancelled, so a rejected overview leaves none of its queries behind in the queue.
+     */
+    private <T> CompletableFuture<T> submit(List<CompletableFuture<?>> queries, Supplier<T> query) {
+        try {
+            CompletableFuture<T> submitted = CompletableFuture.supplyAsync(query, executor);
+            queries.add(submitted);
+            return submitted;
+        } catch (RejectedExecutionException e) {
+            queries.forEach(submitted -> submitted.cancel(false));
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many budget overviews in progress.", e);
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<?>> queries) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(queries.toArray(CompletableFuture[]::new));
+        queries.forEach(query -> query.whenComplete((result, failure) -> {
+            if (failure != null) {
+                all.completeExceptionally(failure);
+            }
+        }));
+        try {
+            all.get(properties.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            queries.forEach(query -> query.cancel(false));
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Budget overview did not complete within " + properties.getTimeout() + ".");
+        } catch (InterruptedException e) {
+            queries.forEach(query -> query.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Budget overview was interrupted.");
+        } catch (ExecutionException e) {
+            queries.forEach(query -> query.cancel(false));
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Budget overview failed.", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
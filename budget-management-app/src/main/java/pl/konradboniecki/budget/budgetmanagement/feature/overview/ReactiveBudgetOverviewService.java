@@ -0,0 +1,64 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.overview;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetTotalsRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ReactiveExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.ReactiveJarRepository;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Non-blocking counterpart of {@link BudgetOverviewService}. The four queries are subscribed to
+ * at once by {@link Mono#zip}, which also cancels the rest when one of them fails.
+ */
+@AllArgsConstructor
+@Service
+@ConditionalOnWebApplication(type = REACTIVE)
+@EnableConfigurationProperties(BudgetOverviewProperties.class)
+public class ReactiveBudgetOverviewService {
+
+    private final ReactiveBudgetRepository budgetRepository;
+    private final ReactiveJarRepository jarRepository;
+    private final ReactiveExpenseRepository expenseRepository;
+    private final ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private final BudgetMapper budgetMapper;
+    private final JarMapper jarMapper;
+    private final ExpenseMapper expenseMapper;
+    private final BudgetOverviewProperties properties;
+
+    public Mono<OASBudgetOverview> findOverview(String budgetId) {
+        int jarLimit = properties.getJarLimit();
+        int expenseLimit = properties.getExpenseLimit();
+        Mono<OASBudget> budget = budgetRepository.findById(budgetId)
+                .switchIfEmpty(Mono.error(() -> new BudgetNotFoundException("Budget with id: " + budgetId + " not found.")))
+                .map(budgetMapper::toOASBudget);
+        Mono<OASJarPage> jars = jarRepository.findAllByBudgetIdAfter(budgetId, null, null, jarLimit + 1)
+                .collectList()
+                .map(found -> jarMapper.toOASJarPage(BudgetOverviewService.firstItems(found, jarLimit), jarLimit, found.size() > jarLimit));
+        Mono<OASExpensePage> recentExpenses = expenseRepository.findAllByBudgetIdAfter(budgetId, null, expenseLimit + 1)
+                .collectList()
+                .map(found -> expenseMapper.toOASExpensePage(BudgetOverviewService.firstItems(found, expenseLimit), expenseLimit, found.size() > expenseLimit));
+        Mono<OASExpenseTotals> expenseTotals = budgetTotalsRepository.findExpenseTotals(budgetId)
+                .map(expenseMapper::toOASExpenseTotals);
+        return Mono.zip(budget, jars, recentExpenses, expenseTotals)
+                .map(overview -> new OASBudgetOverview()
+                        .budget(overview.getT1())
+                        .jars(overview.getT2())
+                        .recentExpenses(overview.getT3())
+                        .expenseTotals(overview.getT4()))
+                .timeout(properties.getTimeout(), Mono.error(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Budget overview did not complete within " + properties.getTimeout() + ".")));
+    }
+}
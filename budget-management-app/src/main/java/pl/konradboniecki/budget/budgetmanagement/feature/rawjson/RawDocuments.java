@@ -0,0 +1,71 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.rawjson;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a query against the collection of an entity and returns the matched documents as the
+ * driver read them. The filter and sort are mapped the way the templates map them, so
+ * {@code id} becomes {@code _id} and an {@link java.time.Instant} a date; projections are not
+ * supported.
+ */
+public final class RawDocuments {
+
+    private RawDocuments() {
+    }
+
+    public static List<RawBsonDocument> find(MongoTemplate mongoTemplate, Query query, Class<?> entityClass) {
+        Document filter = mappedFilter(mongoTemplate.getConverter(), query, entityClass);
+        Document sort = mappedSort(mongoTemplate.getConverter(), query, entityClass);
+        return mongoTemplate.execute(entityClass, collection -> collection.withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .sort(sort)
+                .skip((int) query.getSkip())
+                .limit(query.getLimit())
+                .into(new ArrayList<>()));
+    }
+
+    public static Flux<RawBsonDocument> find(ReactiveMongoTemplate reactiveMongoTemplate, Query query, Class<?> entityClass) {
+        Document filter = mappedFilter(reactiveMongoTemplate.getConverter(), query, entityClass);
+        Document sort = mappedSort(reactiveMongoTemplate.getConverter(), query, entityClass);
+        return reactiveMongoTemplate.execute(entityClass, collection -> collection.withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .sort(sort)
+                .skip((int) query.getSkip())
+                .limit(query.getLimit()));
+    }
+
+    /**
+     * Cuts the look-ahead document off a page read with {@code pageSize + 1} as limit.
+     */
+    public static Slice<RawBsonDocument> toSlice(List<RawBsonDocument> documents, Pageable pageable) {
+        boolean hasNext = documents.size() > pageable.getPageSize();
+        List<RawBsonDocument> content = hasNext ? documents.subList(0, pageable.getPageSize()) : documents;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private static Document mappedFilter(MongoConverter converter, Query query, Class<?> entityClass) {
+        return new QueryMapper(converter).getMappedObject(query.getQueryObject(), persistentEntity(converter, entityClass));
+    }
+
+    private static Document mappedSort(MongoConverter converter, Query query, Class<?> entityClass) {
+        return new QueryMapper(converter).getMappedSort(query.getSortObject(), persistentEntity(converter, entityClass));
+    }
+
+    private static MongoPersistentEntity<?> persistentEntity(MongoConverter converter, Class<?> entityClass) {
+        return converter.getMappingContext().getRequiredPersistentEntity(entityClass);
+    }
+}
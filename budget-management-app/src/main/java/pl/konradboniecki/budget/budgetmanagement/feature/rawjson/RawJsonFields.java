@@ -0,0 +1,76 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.rawjson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.bson.BsonValue;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Writes fields of a stored document as JSON fields of an API model, producing what Jackson
+ * writes for the model's property types: strings, doubles, longs and {@link Instant}s, the
+ * latter through the configured serializer. Missing and null values are written as null only
+ * when the mapper includes nulls for the model.
+ */
+public final class RawJsonFields {
+
+    private final JsonGenerator generator;
+    private final SerializerProvider provider;
+    private final boolean writeNulls;
+
+    public RawJsonFields(JsonGenerator generator, SerializerProvider provider, Class<?> modelType) {
+        this.generator = generator;
+        this.provider = provider;
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(modelType).getValueInclusion();
+        this.writeNulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+    }
+
+    /**
+     * Object ids are written as their hex string, the way they are mapped to {@code String} ids.
+     */
+    public void string(String name, BsonValue value) throws IOException {
+        if (isNull(value)) {
+            writeNull(name);
+        } else if (value.isObjectId()) {
+            generator.writeStringField(name, value.asObjectId().getValue().toHexString());
+        } else {
+            generator.writeStringField(name, value.asString().getValue());
+        }
+    }
+
+    public void decimal(String name, BsonValue value) throws IOException {
+        if (isNull(value)) {
+            writeNull(name);
+        } else {
+            generator.writeNumberField(name, value.asNumber().doubleValue());
+        }
+    }
+
+    public void int64(String name, BsonValue value) throws IOException {
+        if (isNull(value)) {
+            writeNull(name);
+        } else {
+            generator.writeNumberField(name, value.asNumber().longValue());
+        }
+    }
+
+    public void instant(String name, BsonValue value) throws IOException {
+        if (isNull(value)) {
+            writeNull(name);
+        } else {
+            provider.defaultSerializeField(name, Instant.ofEpochMilli(value.asDateTime().getValue()), generator);
+        }
+    }
+
+    private void writeNull(String name) throws IOException {
+        if (writeNulls) {
+            generator.writeNullField(name);
+        }
+    }
+
+    private static boolean isNull(BsonValue value) {
+        return value == null || value.isNull();
+    }
+}
@@ -0,0 +1,15 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.rawjson;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "budget.raw-pages")
+public class RawPagesProperties {
+
+    /**
+     * Serve expense and jar list pages by writing the stored documents straight to the response,
+     * instead of mapping them to entities and API models first.
+     */
+    private boolean enabled = false;
+}
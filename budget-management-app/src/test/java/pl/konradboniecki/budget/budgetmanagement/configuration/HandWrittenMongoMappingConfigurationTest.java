@@ -0,0 +1,136 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandWrittenMongoMappingConfigurationTest {
+
+    private final MappingMongoConverter reflective = converter(List.of());
+    private final MappingMongoConverter handWritten =
+            converter(HandWrittenMongoMappingConfiguration.handWrittenConverters());
+
+    static MappingMongoConverter converter(List<Object> converters) {
+        MongoCustomConversions conversions = new MongoCustomConversions(converters);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    @Test
+    void given_budget_then_both_mappings_write_and_read_the_same_document() {
+        // Given:
+        Budget budget = new Budget()
+                .setId(UUID.randomUUID().toString())
+                .setFamilyId(UUID.randomUUID().toString())
+                .setMaxJars(4L);
+        // When:
+        Document reflectiveDocument = write(reflective, budget);
+        Document handWrittenDocument = write(handWritten, budget);
+        // Then:
+        assertThat(handWrittenDocument).isEqualTo(reflectiveDocument);
+        assertThat(List.copyOf(handWrittenDocument.keySet())).isEqualTo(List.copyOf(reflectiveDocument.keySet()));
+        assertThat(handWritten.read(Budget.class, reflectiveDocument)).isEqualTo(budget);
+    }
+
+    @Test
+    void given_budget_document_without_max_jars_then_default_is_kept() {
+        // Given:
+        Document document = new Document("_id", UUID.randomUUID().toString());
+        // When:
+        Budget reflectiveBudget = reflective.read(Budget.class, document);
+        Budget handWrittenBudget = handWritten.read(Budget.class, document);
+        // Then:
+        assertThat(handWrittenBudget).isEqualTo(reflectiveBudget);
+        assertThat(handWrittenBudget.getMaxJars()).isEqualTo(6L);
+    }
+
+    @Test
+    void given_jar_then_both_mappings_write_and_read_the_same_document() {
+        // Given:
+        Jar jar = new Jar()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(UUID.randomUUID().toString())
+                .setJarName("holidays")
+                .setCapacity(300.0)
+                .setCurrentAmount(120.0)
+                .setVersion(3L);
+        // When:
+        Document reflectiveDocument = write(reflective, jar);
+        Document handWrittenDocument = write(handWritten, jar);
+        // Then:
+        assertThat(handWrittenDocument).isEqualTo(reflectiveDocument);
+        assertThat(List.copyOf(handWrittenDocument.keySet())).isEqualTo(List.copyOf(reflectiveDocument.keySet()));
+        assertThat(handWritten.read(Jar.class, reflectiveDocument)).isEqualTo(jar);
+    }
+
+    @Test
+    void given_jar_document_with_stored_status_then_status_is_not_recomputed() {
+        // Given:
+        Document document = new Document("_id", UUID.randomUUID().toString())
+                .append("currentAmount", 10)
+                .append("capacity", 100.0)
+                .append("status", "COMPLETED")
+                .append("version", 1);
+        // When:
+        Jar reflectiveJar = reflective.read(Jar.class, document);
+        Jar handWrittenJar = handWritten.read(Jar.class, document);
+        // Then:
+        assertThat(handWrittenJar).isEqualTo(reflectiveJar);
+        assertThat(handWrittenJar.getStatus()).isEqualTo("COMPLETED");
+        assertThat(handWrittenJar.getCurrentAmount()).isEqualTo(10.0);
+    }
+
+    @Test
+    void given_expense_then_both_mappings_write_and_read_the_same_document() {
+        // Given:
+        Expense expense = new Expense()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(UUID.randomUUID().toString())
+                .setAmount(12.5)
+                .setComment("groceries")
+                .setCreated(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                .setVersion(0L);
+        // When:
+        Document reflectiveDocument = write(reflective, expense);
+        Document handWrittenDocument = write(handWritten, expense);
+        // Then:
+        assertThat(handWrittenDocument).isEqualTo(reflectiveDocument);
+        assertThat(List.copyOf(handWrittenDocument.keySet())).isEqualTo(List.copyOf(reflectiveDocument.keySet()));
+        assertThat(handWritten.read(Expense.class, reflectiveDocument)).isEqualTo(expense);
+    }
+
+    @Test
+    void given_expense_without_optional_fields_then_nulls_are_not_written() {
+        // Given:
+        Expense expense = new Expense().setBudgetId(UUID.randomUUID().toString()).setAmount(1.0);
+        // When:
+        Document handWrittenDocument = write(handWritten, expense);
+        // Then:
+        assertThat(handWrittenDocument).isEqualTo(write(reflective, expense));
+        assertThat(handWrittenDocument).doesNotContainKeys("_id", "comment", "created", "version");
+    }
+
+    private static Document write(MappingMongoConverter converter, Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+}
@@ -0,0 +1,76 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MongoConcurrencyLimiterTest {
+
+    @Test
+    void given_free_permit_when_invoked_then_call_proceeds_and_permit_is_released() throws Throwable {
+        // Given:
+        MongoConcurrencyLimiter limiter = new MongoConcurrencyLimiter(1, Duration.ofMillis(10));
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenReturn("result");
+        // When:
+        Object first = limiter.invoke(invocation);
+        Object second = limiter.invoke(invocation);
+        // Then:
+        assertThat(first).isEqualTo("result");
+        assertThat(second).isEqualTo("result");
+    }
+
+    @Test
+    void given_all_permits_taken_when_invoked_then_service_unavailable() throws Throwable {
+        // Given:
+        MongoConcurrencyLimiter limiter = new MongoConcurrencyLimiter(1, Duration.ofMillis(10));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MethodInvocation blocking = mock(MethodInvocation.class);
+        when(blocking.proceed()).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return null;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> holder = executor.submit(() -> {
+                try {
+                    return limiter.invoke(blocking);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            entered.await();
+            // When:
+            Throwable throwable = catchThrowable(() -> limiter.invoke(mock(MethodInvocation.class)));
+            // Then:
+            assertThat(throwable).isInstanceOf(ResponseStatusException.class);
+            assertThat(((ResponseStatusException) throwable).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            release.countDown();
+            holder.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void given_repository_methods_then_only_non_streaming_ones_are_limited() throws NoSuchMethodException {
+        // Then:
+        assertThat(MongoConcurrencyLimiter.limits(BudgetRepository.class.getMethod("streamAllBudgetIds"))).isFalse();
+        assertThat(MongoConcurrencyLimiter.limits(BudgetRepository.class.getMethod("existsById", Object.class))).isTrue();
+    }
+}
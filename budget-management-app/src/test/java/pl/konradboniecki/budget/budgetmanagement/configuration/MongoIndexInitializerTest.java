@@ -0,0 +1,98 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+class MongoIndexInitializerTest {
+
+    private static final IndexInfo ID_INDEX = new IndexInfo(
+            List.of(IndexField.create("_id", ASC)), "_id_", false, false, "");
+
+    @Test
+    void given_live_indexes_matching_declared_set_then_no_drift() {
+        // Given:
+        List<Index> declared = List.of(new Index().on("budgetId", ASC).on("created", DESC));
+        List<IndexInfo> live = List.of(ID_INDEX, new IndexInfo(
+                List.of(IndexField.create("budgetId", ASC), IndexField.create("created", DESC)),
+                "budgetId_created", false, false, ""));
+        // When:
+        List<String> drift = MongoIndexInitializer.findDrift("expense", live, declared);
+        // Then:
+        assertThat(drift).isEmpty();
+    }
+
+    @Test
+    void given_missing_and_undeclared_indexes_then_both_are_reported() {
+        // Given:
+        List<Index> declared = List.of(new Index().on("budgetId", ASC).on("created", DESC));
+        List<IndexInfo> live = List.of(ID_INDEX, new IndexInfo(
+                List.of(IndexField.create("budgetId", ASC)), "budgetId", true, false, ""));
+        // When:
+        List<String> drift = MongoIndexInitializer.findDrift("expense", live, declared);
+        // Then:
+        assertThat(drift).containsExactly(
+                "expense is missing index {budgetId:1, created:-1}",
+                "expense has undeclared index budgetId {budgetId:1} unique");
+    }
+
+    @Test
+    void given_index_with_different_uniqueness_then_drift_is_reported() {
+        // Given:
+        List<Index> declared = List.of(new Index().on("familyId", ASC).unique());
+        List<IndexInfo> live = List.of(ID_INDEX, new IndexInfo(
+                List.of(IndexField.create("familyId", ASC)), "familyId", false, false, ""));
+        // When:
+        List<String> drift = MongoIndexInitializer.findDrift("budget", live, declared);
+        // Then:
+        assertThat(drift).hasSize(2);
+    }
+
+    @Test
+    void given_unique_index_missing_or_built_without_uniqueness_then_it_is_reported_as_missing() {
+        // Given:
+        List<Index> declared = List.of(
+                new Index().on("familyId", ASC).unique(),
+                new Index().on("status", ASC));
+        List<IndexInfo> live = List.of(ID_INDEX, new IndexInfo(
+                List.of(IndexField.create("familyId", ASC)), "familyId", false, false, ""));
+        // When:
+        List<String> missing = MongoIndexInitializer.findMissingUnique("budget", live, declared);
+        // Then:
+        assertThat(missing).containsExactly("budget {familyId:1} unique");
+    }
+
+    @Test
+    void given_unique_index_present_then_nothing_is_missing() {
+        // Given:
+        List<Index> declared = List.of(new Index().on("familyId", ASC).unique());
+        List<IndexInfo> live = List.of(ID_INDEX, new IndexInfo(
+                List.of(IndexField.create("familyId", ASC)), "familyId", true, false, ""));
+        // When:
+        List<String> missing = MongoIndexInitializer.findMissingUnique("budget", live, declared);
+        // Then:
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    void given_legacy_unique_budgetId_index_then_it_is_retired_but_compound_one_is_kept() {
+        // Given:
+        IndexInfo legacy = new IndexInfo(
+                List.of(IndexField.create("budgetId", ASC)), "budgetId", true, false, "");
+        IndexInfo compound = new IndexInfo(
+                List.of(IndexField.create("budgetId", ASC), IndexField.create("_id", ASC)), "budgetId_id", false, false, "");
+        // When:
+        List<IndexInfo> retired = MongoIndexInitializer.findRetired(List.of(ID_INDEX, legacy, compound),
+                MongoIndexes.RETIRED.get(Jar.class));
+        // Then:
+        assertThat(retired).containsExactly(legacy);
+    }
+}
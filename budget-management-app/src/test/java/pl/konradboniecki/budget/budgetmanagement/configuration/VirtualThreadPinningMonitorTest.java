@@ -0,0 +1,32 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    @Test
+    void given_pinned_events_when_report_then_sites_are_aggregated_by_count() {
+        // Given:
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20));
+        monitor.record("com.mongodb.internal.connection.Pool.get:10", Duration.ofMillis(30), "");
+        monitor.record("com.mongodb.internal.connection.Pool.get:10", Duration.ofMillis(50), "");
+        monitor.record("pl.konradboniecki.Example.run:5", Duration.ofMillis(25), "");
+        // When:
+        Map<String, Object> report = monitor.report();
+        // Then:
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> sites = (List<Map<String, Object>>) report.get("sites");
+        assertThat(report).containsEntry("thresholdMillis", 20L);
+        assertThat(sites).hasSize(2);
+        assertThat(sites.get(0))
+                .containsEntry("site", "com.mongodb.internal.connection.Pool.get:10")
+                .containsEntry("count", 2L)
+                .containsEntry("maxMillis", 50L);
+    }
+}
@@ -15,7 +15,9 @@ import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
 import pl.konradboniecki.budget.budgetmanagement.exception.FamilyConflictException;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMonthlyRollupRepository;
 import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
 import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
 import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
@@ -45,6 +47,10 @@ public abstract class MvcClientBase {
     @MockBean
     private BudgetRepository budgetRepository;
     @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
+    @MockBean
+    private ExpenseMonthlyRollupRepository expenseMonthlyRollupRepository;
+    @MockBean
     private ExpenseRepository expenseRepository;
 
     @BeforeEach
@@ -70,8 +76,8 @@ public abstract class MvcClientBase {
         String budgetIdWithoutJars = "38410e86-5782-4390-b026-184558177c5f";
         String deletedJarId = "666b975b-da45-4552-975b-26c559eb6b28";
         String absentJarId = "70fc6180-201e-4c7a-918e-095f8e9bfada";
-        when(budgetRepository.findById(budgetIdWithJar))
-                .thenReturn(Optional.of(new Budget().setId(budgetIdWithJar)));
+        when(budgetRepository.existsById(budgetIdWithJar))
+                .thenReturn(true);
 
         when(jarRepository.deleteJarByIdAndBudgetId(deletedJarId, budgetIdWithJar))
                 .thenReturn(1L);
@@ -91,8 +97,8 @@ public abstract class MvcClientBase {
                 .setCapacity(5.0)
                 .setCurrentAmount(0.0)
                 .setId(UUID.randomUUID().toString());
-        when(budgetRepository.findById(budgetId))
-                .thenReturn(Optional.of(new Budget().setId(budgetId)));
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(true);
         when(jarRepository.save(refEq(jarToSave, "id"))).thenReturn(savedJar);
     }
     private void mock_jar_update() {
@@ -116,7 +122,7 @@ public abstract class MvcClientBase {
                 .thenReturn(Optional.of(jarBeforeModification));
         when(jarRepository.findByIdAndBudgetId(missingJarId, budgetIdWithoutJars))
                 .thenReturn(Optional.empty());
-        when(jarRepository.save(jarAfterModification)).thenReturn(jarAfterModification);
+        when(jarRepository.setFields(argThat(jar -> updatedJarId.equals(jar.getId())))).thenReturn(Optional.of(jarAfterModification));
     }
     private void mock_jar_find() {
         String budgetId = "97f459b6-db3a-426a-9b3f-c40d589bc3a2";
@@ -152,7 +158,7 @@ public abstract class MvcClientBase {
         list.add(firstJar);
         list.add(secondJar);
 
-        Pageable pageable = PageRequest.of(0, 100);
+        Pageable pageable = PageRequest.of(0, 100, JarRepository.PAGE_ORDER);
 
         Page<Jar> pageWithoutJars = new PageImpl<>(Collections.emptyList(), pageable, 0);
         Page<Jar> pageWithJars = new PageImpl<>(list, pageable, 2);
@@ -173,13 +179,15 @@ public abstract class MvcClientBase {
                 .thenReturn(Optional.of(foundBudget));
         when(budgetRepository.findByFamilyId(missingFamilyId))
                 .thenReturn(Optional.empty());
+        when(budgetRepository.existsByFamilyId(familyId))
+                .thenReturn(true);
     }
     private void mock_budget_save() {
         Budget failureCase = new Budget()
                 .setFamilyId("c2d8fd47-75ce-4797-9512-55d73dbeb015")
                 .setMaxJars(8L);
         doThrow(FamilyConflictException.class).when(budgetRepository)
-                .save(refEq(failureCase, "id"));
+                .insert(refEq(failureCase, "id"));
 
         String familyId = "6537138e-1056-45be-bf24-efadbedb428b";
         Budget budgetToSave = new Budget()
@@ -189,21 +197,19 @@ public abstract class MvcClientBase {
                 .setId(UUID.randomUUID().toString())
                 .setFamilyId(familyId)
                 .setMaxJars(6L);
-        when(budgetRepository.save(refEq(budgetToSave, "id"))).thenReturn(savedBudget);
+        when(budgetRepository.insert(refEq(budgetToSave, "id"))).thenReturn(savedBudget);
     }
     private void mock_expense_delete() {
         String budgetId = "19e8147b-f6cb-46fa-b1d4-a0cb1ead4a08";
         String deletedExpenseId = "445598c4-480a-452e-9493-8bc7ba709858";
         String missingExpenseId = "570df03f-a98e-4752-bdab-3f7fa67e7945";
-        when(budgetRepository.findById(budgetId))
-                .thenReturn(Optional.of(new Budget().setId(budgetId)));
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(true);
 
-        doNothing().when(expenseRepository)
-                .deleteByIdAndBudgetId(deletedExpenseId, budgetId);
-        when(expenseRepository.findByIdAndBudgetId(deletedExpenseId, budgetId))
-                .thenReturn(Optional.of(new Expense()));
+        when(expenseRepository.removeByIdAndBudgetId(deletedExpenseId, budgetId))
+                .thenReturn(Optional.of(new Expense().setAmount(1.0)));
 
-        when(expenseRepository.findByIdAndBudgetId(missingExpenseId, budgetId))
+        when(expenseRepository.removeByIdAndBudgetId(missingExpenseId, budgetId))
                 .thenReturn(Optional.empty());
     }
     private void mock_expense_save() {
@@ -220,7 +226,7 @@ public abstract class MvcClientBase {
                 .setCreated(Instant.now());
         when(expenseRepository.save(refEq(expenseToSave, "id", "created")))
                 .thenReturn(savedExpense);
-        when(budgetRepository.findById(budgetId)).thenReturn(Optional.of(new Budget()));
+        when(budgetRepository.existsById(budgetId)).thenReturn(true);
     }
     private void mock_expense_find_all() {
         String budgetId = "613c436d-ca18-4f31-9088-90efb19efd54";
@@ -240,14 +246,14 @@ public abstract class MvcClientBase {
         ArrayList<Expense> expenseList = new ArrayList<>(2);
         expenseList.add(firstExpense);
         expenseList.add(secondExpense);
-        Pageable pageable = PageRequest.of(0, 100);
+        Pageable pageable = PageRequest.of(0, 100, ExpenseRepository.PAGE_ORDER);
         Page<Expense> page = new PageImpl<>(expenseList, pageable, 2);
         Page<Expense> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-        when(budgetRepository.findById(budgetId))
-                .thenReturn(Optional.of(new Budget().setId(budgetId)));
-        when(budgetRepository.findById(budgetIdWithoutExpenses))
-                .thenReturn(Optional.of(new Budget().setId(budgetIdWithoutExpenses)));
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(true);
+        when(budgetRepository.existsById(budgetIdWithoutExpenses))
+                .thenReturn(true);
 
         when(expenseRepository.findAllByBudgetId(budgetId, pageable))
                 .thenReturn(page);
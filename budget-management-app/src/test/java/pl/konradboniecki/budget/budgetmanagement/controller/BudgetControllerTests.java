@@ -10,15 +10,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
-import pl.konradboniecki.budget.budgetmanagement.exception.FamilyConflictException;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetDeletion;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetDeletionRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetDeletionWorker;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -46,6 +51,12 @@ class BudgetControllerTests {
     private MockMvc mockMvc;
     @MockBean
     private BudgetRepository budgetRepository;
+    @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
+    @MockBean
+    private BudgetDeletionRepository budgetDeletionRepository;
+    @MockBean
+    private BudgetDeletionWorker budgetDeletionWorker;
     @Autowired
     private ChassisSecurityBasicAuthHelper chassisSecurityBasicAuthHelper;
 
@@ -156,7 +167,7 @@ class BudgetControllerTests {
             // Given:
             Budget budgetFromBody = new Budget().setFamilyId(UUID.randomUUID().toString());
             // When:
-            when(budgetRepository.save(any(Budget.class)))
+            when(budgetRepository.insert(any(Budget.class)))
                     .thenReturn(budgetFromBody.setId(UUID.randomUUID().toString()));
             // Then:
             mockMvc.perform(post("/api/budget-mgt/v1/budgets")
@@ -174,7 +185,7 @@ class BudgetControllerTests {
             // Given:
             Budget budgetFromBody = new Budget().setFamilyId(UUID.randomUUID().toString());
             // When:
-            doThrow(FamilyConflictException.class).when(budgetRepository).save(any(Budget.class));
+            doThrow(new DuplicateKeyException("E11000 duplicate key error, index: familyId")).when(budgetRepository).insert(any(Budget.class));
             // Then:
             mockMvc.perform(post("/api/budget-mgt/v1/budgets")
                             .accept(MediaType.APPLICATION_JSON)
@@ -182,9 +193,9 @@ class BudgetControllerTests {
                             .header("Authorization", basicAuthHeaderValue)
                             .content(new ObjectMapper().writeValueAsString(budgetFromBody)))
                     .andDo(print())
-                    .andExpect(status().isInternalServerError())
+                    .andExpect(status().isConflict())
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                    .andExpect(content().string(containsString("Unexpected error occurred.")));
+                    .andExpect(content().string(containsString("Conflict during budget creation")));
         }
 
         @Test
@@ -198,20 +209,25 @@ class BudgetControllerTests {
 
     @Nested
     class DELETE_Api_Budgets_Id {
-        // POST /api/budget-mgt/v1/budgets/{{budgetId}}
+        // DELETE /api/budget-mgt/v1/budgets/{{budgetId}}
         @Test
-        void when_budget_is_deleted_then_response_status_and_headers_are_correct() throws Exception {
+        void when_budget_is_deleted_then_deletion_is_accepted() throws Exception {
             // Given:
             String uuid = UUID.randomUUID().toString();
-            Budget bgt = new Budget().setId(uuid);
             // When:
-            when(budgetRepository.findById(any(String.class))).thenReturn(Optional.of(bgt));
-            doNothing().when(budgetRepository).deleteById(any(String.class));
+            when(budgetRepository.existsById(uuid)).thenReturn(true);
+            when(budgetDeletionRepository.start(uuid)).thenReturn(new BudgetDeletion()
+                    .setId(uuid)
+                    .setStatus(BudgetDeletion.IN_PROGRESS)
+                    .setRequestedAt(Instant.now()));
             // Then:
             mockMvc.perform(delete("/api/budget-mgt/v1/budgets/" + uuid)
                             .accept(MediaType.APPLICATION_JSON)
                             .header("Authorization", basicAuthHeaderValue))
-                    .andExpect(status().isNoContent());
+                    .andExpect(status().isAccepted())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("IN_PROGRESS")));
+            verify(budgetDeletionWorker).submit(uuid);
         }
 
         @Test
@@ -219,13 +235,39 @@ class BudgetControllerTests {
             // Given:
             String uuid = UUID.randomUUID().toString();
             // When:
-            when(budgetRepository.findById(uuid)).thenReturn(Optional.empty());
+            when(budgetRepository.existsById(uuid)).thenReturn(false);
             // Then:
             mockMvc.perform(delete("/api/budget-mgt/v1/budgets/" + uuid)
                             .accept(MediaType.APPLICATION_JSON)
                             .header("Authorization", basicAuthHeaderValue))
                     .andExpect(status().isNotFound())
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+            verify(budgetDeletionRepository, never()).start(uuid);
+        }
+    }
+
+    @Nested
+    class GET_Api_Budgets_Id_Deletion {
+        // GET /api/budget-mgt/v1/budgets/{{budgetId}}/deletion
+        @Test
+        void when_deletion_is_completed_then_response_contains_progress() throws Exception {
+            // Given:
+            String uuid = UUID.randomUUID().toString();
+            // When:
+            when(budgetDeletionRepository.findById(uuid)).thenReturn(Optional.of(new BudgetDeletion()
+                    .setId(uuid)
+                    .setStatus(BudgetDeletion.COMPLETED)
+                    .setRequestedAt(Instant.now())
+                    .setFinishedAt(Instant.now())
+                    .setJarsDeleted(3)
+                    .setExpensesDeleted(1200)));
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/deletion", uuid)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"expensesDeleted\":1200")));
         }
     }
 }
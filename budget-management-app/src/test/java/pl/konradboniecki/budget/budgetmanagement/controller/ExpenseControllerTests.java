@@ -16,6 +16,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,29 +24,40 @@ import org.springframework.test.web.servlet.MvcResult;
 import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseAggregate;
 import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMonthlyRollupRepository;
 import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseBatchCreation;
 import pl.konradboniecki.budget.openapi.dto.model.OASExpenseCreation;
 import pl.konradboniecki.chassis.exceptions.ErrorDescription;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.TestInstance.Lifecycle;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @TestInstance(Lifecycle.PER_CLASS)
@@ -66,6 +78,10 @@ class ExpenseControllerTests {
     private ExpenseRepository expenseRepository;
     @MockBean
     private BudgetRepository budgetRepository;
+    @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
+    @MockBean
+    private ExpenseMonthlyRollupRepository expenseMonthlyRollupRepository;
     @Autowired
     private ChassisSecurityBasicAuthHelper chassisSecurityBasicAuthHelper;
 
@@ -86,8 +102,8 @@ class ExpenseControllerTests {
             String expenseId = UUID.randomUUID().toString();
             when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
                     .thenReturn(Optional.empty());
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // Then:
             mockMvc.perform(
                             get("/api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
@@ -111,8 +127,8 @@ class ExpenseControllerTests {
                     .setComment("testComment");
             when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
                     .thenReturn(Optional.of(mockedExpense));
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // Then:
             mockMvc.perform(
                             get("/api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
@@ -158,8 +174,8 @@ class ExpenseControllerTests {
             Pageable pageable = PageRequest.of(0, 100);
             Page<Expense> page = new PageImpl<>(expenseList, pageable, 2);
 
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             when(expenseRepository.findAllByBudgetId(eq(budgetId), any(Pageable.class)))
                     .thenReturn(page);
             // Then:
@@ -174,6 +190,57 @@ class ExpenseControllerTests {
             assertThat(responseBodyIsCorrect).isTrue();
         }
 
+        @Test
+        void when_etag_matches_if_none_match_then_not_modified_without_querying_expenses() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(12L);
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses", budgetId)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .header(HttpHeaders.IF_NONE_MATCH, "W/\"12\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "W/\"12\""));
+            verifyNoInteractions(expenseRepository);
+            verify(budgetTotalsRepository, never()).countExpenses(budgetId);
+        }
+
+        @Test
+        void when_etag_matches_if_none_match_but_budget_is_missing_then_not_found() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(12L);
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses", budgetId)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .header(HttpHeaders.IF_NONE_MATCH, "W/\"12\""))
+                    .andExpect(status().isNotFound());
+            verifyNoInteractions(expenseRepository);
+        }
+
+        @Test
+        void when_etag_matches_if_none_match_but_include_totals_is_invalid_then_bad_request() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(12L);
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses", budgetId)
+                            .param("includeTotals", "sometimes")
+                            .header("Authorization", basicAuthHeaderValue)
+                            .header(HttpHeaders.IF_NONE_MATCH, "W/\"12\""))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(expenseRepository);
+        }
+
         @Test
         void when_expenses_found_with_limit_1_then_1_expense_is_visible() throws Exception {
             // Given:
@@ -189,8 +256,8 @@ class ExpenseControllerTests {
             Pageable pageable = PageRequest.of(0, 1);
             Page<Expense> page = new PageImpl<>(expenseList, pageable, 2);
 
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             when(expenseRepository.findAllByBudgetId(eq(budgetId), any(Pageable.class)))
                     .thenReturn(page);
             // Then:
@@ -223,8 +290,8 @@ class ExpenseControllerTests {
             expenseList.add(firstExpense);
             Pageable pageable = PageRequest.of(1, 100);
             Page<Expense> page = new PageImpl<>(expenseList, pageable, 101);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             when(expenseRepository.findAllByBudgetId(eq(budgetId), any(Pageable.class)))
                     .thenReturn(page);
             // Then:
@@ -268,8 +335,8 @@ class ExpenseControllerTests {
                     .setId(UUID.randomUUID().toString());
             when(expenseRepository.save(any(Expense.class)))
                     .thenReturn(savedExpense);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget()));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // Then:
             mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/expenses", budgetId)
                             .accept(MediaType.APPLICATION_JSON)
@@ -311,6 +378,173 @@ class ExpenseControllerTests {
         }
     }
 
+    @Nested
+    class POST_Api_Budgets_Id_Expenses_Batch {
+        // POST /api/budget-mgt/v1/budgets/{budgetId}/expenses:batch
+        @Test
+        void when_batch_is_processed_then_every_item_has_a_result() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            OASExpenseBatchCreation batchCreation = new OASExpenseBatchCreation()
+                    .addItemsItem(new OASExpenseCreation().budgetId(budgetId).amount(1.0))
+                    .addItemsItem(new OASExpenseCreation().budgetId(UUID.randomUUID().toString()).amount(2.0));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.insertAllUnordered(anyList()))
+                    .thenReturn(Map.of());
+            // Then:
+            mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/expenses:batch", budgetId)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .content(new ObjectMapper().writeValueAsString(batchCreation)))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"created\":1")))
+                    .andExpect(content().string(containsString("\"failed\":1")));
+        }
+
+        @Test
+        void when_budget_not_found_then_nothing_is_inserted() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            OASExpenseBatchCreation batchCreation = new OASExpenseBatchCreation()
+                    .addItemsItem(new OASExpenseCreation().budgetId(budgetId).amount(1.0));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            // Then:
+            mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/expenses:batch", budgetId)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .content(new ObjectMapper().writeValueAsString(batchCreation)))
+                    .andExpect(status().isNotFound());
+            verify(expenseRepository, never()).insertAllUnordered(anyList());
+        }
+    }
+
+    @Nested
+    class POST_Api_Budgets_Id_Expenses_Batch_Ndjson {
+        // POST /api/budget-mgt/v1/budgets/{budgetId}/expenses:batch (application/x-ndjson)
+        @Test
+        void when_ndjson_is_imported_then_counts_are_returned() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String ndjson = "{\"budgetId\":\"" + budgetId + "\",\"amount\":1.0}\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\":2.0}\n";
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.insertAllUnordered(anyList()))
+                    .thenReturn(Map.of());
+            // Then:
+            mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/expenses:batch", budgetId)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType("application/x-ndjson")
+                            .header("Authorization", basicAuthHeaderValue)
+                            .content(ndjson))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"created\":2")))
+                    .andExpect(content().string(containsString("\"failed\":0")));
+        }
+    }
+
+    @Nested
+    class GET_Api_Budgets_Id_Expenses_Aggregate {
+        // GET /api/budget-mgt/v1/budgets/{budgetId}/expenses:aggregate
+        @Test
+        void when_aggregated_by_week_then_range_is_passed_to_repository() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Instant createdFrom = Instant.parse("2021-01-04T00:00:00Z");
+            Instant createdTo = Instant.parse("2021-02-01T00:00:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.aggregateByBudgetId(budgetId, "week", createdFrom, createdTo))
+                    .thenReturn(List.of(new ExpenseAggregate().setStart(createdFrom).setCount(3).setTotal(6.0)
+                            .setMin(1.0).setMax(3.0).setAverage(2.0)));
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses:aggregate", budgetId)
+                            .param("groupBy", "week")
+                            .param("createdFrom", createdFrom.toString())
+                            .param("createdTo", createdTo.toString())
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"groupBy\":\"week\"")))
+                    .andExpect(content().string(containsString("\"count\":3")));
+        }
+    }
+
+    @Nested
+    class GET_Api_Budgets_Id_Expenses_Totals {
+        // GET /api/budget-mgt/v1/budgets/{budgetId}/expenses:totals
+        @Test
+        void when_totals_are_read_then_running_counters_are_returned() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findExpenseTotals(budgetId))
+                    .thenReturn(new BudgetTotals().setId(budgetId).setExpenses(4).setExpenseAmount(42.5)
+                            .setLastExpenseCreated(Instant.parse("2021-01-30T08:30:00Z")));
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses:totals", budgetId)
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"count\":4")))
+                    .andExpect(content().string(containsString("\"total\":42.5")));
+        }
+    }
+
+    @Nested
+    class GET_Api_Budgets_Id_Expenses_Export {
+        // GET /api/budget-mgt/v1/budgets/{budgetId}/expenses:export
+        @Test
+        void when_export_as_ndjson_then_every_expense_is_streamed_on_its_own_line() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Instant createdFrom = Instant.parse("2021-01-01T00:00:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.streamAllByBudgetId(eq(budgetId), eq(createdFrom), isNull(), anyInt()))
+                    .thenReturn(Stream.of(
+                            new Expense().setId("1").setBudgetId(budgetId).setAmount(1.0),
+                            new Expense().setId("2").setBudgetId(budgetId).setAmount(2.0)));
+            // When:
+            MvcResult mvcResult = mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses:export", budgetId)
+                            .param("createdFrom", createdFrom.toString())
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // Then:
+            String body = mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(body.split("\n"))
+                    .hasSize(2)
+                    .allSatisfy(line -> assertThat(line).contains("\"budgetId\":\"" + budgetId + "\""));
+        }
+
+        @Test
+        void when_budget_not_found_then_export_is_not_started() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/expenses:export", budgetId)
+                            .param("format", "csv")
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(status().isNotFound());
+            verify(expenseRepository, never()).streamAllByBudgetId(any(), any(), any(), anyInt());
+        }
+    }
+
     @Nested
     class PUT_Api_Budgets_Id_Expenses_Id {
         // PUT /api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}
@@ -330,13 +564,14 @@ class ExpenseControllerTests {
                     .setComment("edited_comment")
                     .setAmount(1.0);
 
-            Expense mergedExpense = originExpense.mergeWith(expenseInRequestBody);
+            Expense mergedExpense = new Expense()
+                    .mergeWith(originExpense)
+                    .mergeWith(expenseInRequestBody)
+                    .setVersion(1L);
             // When:
-            when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
-                    .thenReturn(Optional.of(originExpense));
-            when(expenseRepository.save(any(Expense.class))).thenReturn(mergedExpense);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(expenseRepository.setFields(any(Expense.class))).thenReturn(Optional.of(originExpense));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
 
             // Then:
             MvcResult mvcResult = mockMvc.perform(put("/api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
@@ -368,8 +603,8 @@ class ExpenseControllerTests {
                     .setAmount(1.0);
             // When:
             when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId)).thenReturn(Optional.empty());
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // Then:
             MvcResult mvcResult = mockMvc.perform(put("/api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
                             .accept(MediaType.APPLICATION_JSON)
@@ -409,10 +644,9 @@ class ExpenseControllerTests {
             // Given:
             String budgetId = UUID.randomUUID().toString();
             String expenseId = UUID.randomUUID().toString();
-            doNothing().when(expenseRepository).deleteByIdAndBudgetId(expenseId, budgetId);
-            when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId)).thenReturn(Optional.of(new Expense()));
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(expenseRepository.removeByIdAndBudgetId(expenseId, budgetId)).thenReturn(Optional.of(new Expense().setAmount(1.0)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
 
             // Then:
             mockMvc.perform(delete("/api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
@@ -425,10 +659,10 @@ class ExpenseControllerTests {
             // Given:
             String budgetId = UUID.randomUUID().toString();
             String expenseId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
-            doThrow(EmptyResultDataAccessException.class)
-                    .when(expenseRepository).deleteByIdAndBudgetId(expenseId, budgetId);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.removeByIdAndBudgetId(expenseId, budgetId))
+                    .thenReturn(Optional.empty());
 
             // Then:
             mockMvc.perform(delete("/api/budget-mgt/v1/budgets/{budgetId}/expenses/{expenseId}", budgetId, expenseId)
@@ -14,12 +14,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
 import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarMapper;
 import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
@@ -28,17 +30,20 @@ import pl.konradboniecki.budget.openapi.dto.model.OASJarModification;
 import pl.konradboniecki.chassis.tools.ChassisSecurityBasicAuthHelper;
 
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.TestInstance.Lifecycle;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @TestInstance(Lifecycle.PER_CLASS)
@@ -59,6 +64,8 @@ class JarControllerTests {
     private JarRepository jarRepository;
     @MockBean
     private BudgetRepository budgetRepository;
+    @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
     @Autowired
     private ChassisSecurityBasicAuthHelper chassisSecurityBasicAuthHelper;
 
@@ -91,7 +98,7 @@ class JarControllerTests {
             ArrayList<Jar> jarList = new ArrayList<>();
             jarList.add(firstJar);
             jarList.add(secondJar);
-            Pageable pageable = PageRequest.of(0, 100);
+            Pageable pageable = PageRequest.of(0, 100, JarRepository.PAGE_ORDER);
             Page<Jar> page = new PageImpl<>(jarList, pageable, 0);
             when(jarRepository.findAllByBudgetId(budgetId, pageable))
                     .thenReturn(page);
@@ -103,6 +110,42 @@ class JarControllerTests {
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON));
         }
 
+        @Test
+        void when_budget_changed_then_page_carries_etag_of_change_version() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(4L);
+            Pageable pageable = PageRequest.of(0, 100, JarRepository.PAGE_ORDER);
+            when(jarRepository.findAllByBudgetId(budgetId, pageable))
+                    .thenReturn(new PageImpl<>(new ArrayList<>(), pageable, 0));
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/jars", budgetId)
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""));
+        }
+
+        @Test
+        void when_etag_matches_if_none_match_then_not_modified_without_querying_jars() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(4L);
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/jars", budgetId)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .header(HttpHeaders.IF_NONE_MATCH, "W/\"4\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""))
+                    .andExpect(content().string(""));
+            verifyNoInteractions(jarRepository);
+        }
+
         @Test
         void whenBAHeaderIsMissingThenUnauthorized() throws Exception {
             String randomBudgetId = UUID.randomUUID().toString();
@@ -111,6 +154,39 @@ class JarControllerTests {
         }
     }
 
+    @Nested
+    class GET_Api_Budgets_Id_Jars_StatusCounts {
+        // GET /api/budget-mgt/v1/budgets/{budgetId}/jars:statusCounts
+        @Test
+        void when_budget_is_found_then_counts_per_status_are_returned() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(jarRepository.countByStatus(budgetId))
+                    .thenReturn(Map.of("NOT STARTED", 2L, "IN PROGRESS", 1L));
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/jars:statusCounts", budgetId)
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().json("{\"notStarted\":2,\"inProgress\":1,\"completed\":0}"));
+        }
+
+        @Test
+        void when_budget_is_not_found_then_response_is_not_found() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            // Then:
+            mockMvc.perform(get("/api/budget-mgt/v1/budgets/{budgetId}/jars:statusCounts", budgetId)
+                            .header("Authorization", basicAuthHeaderValue))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     class GET_Api_Budgets_Id_Jars_Id {
         // GET /api/budget-mgt/v1/budgets/{budgetId}/jars/{id}
@@ -177,8 +253,8 @@ class JarControllerTests {
                     .setId(UUID.randomUUID().toString());
             when(jarRepository.save(any(Jar.class)))
                     .thenReturn(jar);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // Then:
             mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/jars", budgetId)
                             .accept(MediaType.APPLICATION_JSON)
@@ -245,8 +321,7 @@ class JarControllerTests {
 
             // When:
             Jar mergedJar = originJar.mergeWith(jarInRequestBody);
-            when(jarRepository.findByIdAndBudgetId(jarId, budgetId)).thenReturn(Optional.of(originJar));
-            when(jarRepository.save(any(Jar.class))).thenReturn(mergedJar);
+            when(jarRepository.setFields(any(Jar.class))).thenReturn(Optional.of(mergedJar));
 
             // Then:
             mockMvc.perform(
@@ -260,6 +335,37 @@ class JarControllerTests {
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON));
         }
 
+        @Test
+        void when_jar_version_is_stale_then_response_is_conflict_with_current_jar() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            Jar storedJar = new Jar()
+                    .setId(jarId)
+                    .setJarName("renamedMeanwhile")
+                    .setBudgetId(budgetId)
+                    .setCapacity(4.0)
+                    .setVersion(2L);
+            OASJarModification jarModification = new OASJarModification()
+                    .id(jarId)
+                    .jarName("modifiedName")
+                    .budgetId(budgetId)
+                    .version(1L);
+            // When:
+            when(jarRepository.findByIdAndBudgetId(jarId, budgetId)).thenReturn(Optional.of(storedJar));
+            // Then:
+            mockMvc.perform(put("/api/budget-mgt/v1/budgets/{budgetId}/jars/{jarId}", budgetId, jarId)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .content(new ObjectMapper().writeValueAsString(jarModification)))
+                    .andDo(print())
+                    .andExpect(status().isConflict())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"jarName\":\"renamedMeanwhile\"")))
+                    .andExpect(content().string(containsString("\"version\":2")));
+        }
+
         @Test
         void when_jar_is_not_found_during_update_then_response_is_ok() throws Exception {
             // Given:
@@ -292,6 +398,45 @@ class JarControllerTests {
         }
     }
 
+    @Nested
+    class POST_Api_Budgets_Id_Jars_Id_Deposit {
+        // POST /api/budget-mgt/v1/budgets/{budgetId}/jars/{jarId}:deposit
+        @Test
+        void when_amount_is_deposited_then_response_is_ok_with_new_jar_state() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            when(jarRepository.addToCurrentAmount(jarId, budgetId, 2.5))
+                    .thenReturn(Optional.of(new Jar().setId(jarId).setBudgetId(budgetId).setCapacity(5.0).setCurrentAmount(2.5)));
+            // Then:
+            mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/jars/{jarId}:deposit", budgetId, jarId)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .content("{\"amount\":2.5}"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(containsString("\"status\":\"IN PROGRESS\"")));
+        }
+
+        @Test
+        void when_jar_is_missing_then_response_is_not_found() throws Exception {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            when(jarRepository.addToCurrentAmount(jarId, budgetId, 2.5))
+                    .thenReturn(Optional.empty());
+            // Then:
+            mockMvc.perform(post("/api/budget-mgt/v1/budgets/{budgetId}/jars/{jarId}:deposit", budgetId, jarId)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuthHeaderValue)
+                            .content("{\"amount\":2.5}"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     class DELETE_Api_Budgets_Id_Jars_Id {
         // DELETE /api/budget-mgt/v1/budgets/{budgetId}/jars/{id}
@@ -302,8 +447,8 @@ class JarControllerTests {
             String jarId = UUID.randomUUID().toString();
             when(jarRepository.deleteJarByIdAndBudgetId(jarId, budgetId))
                     .thenReturn(1L);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
 
             // Then:
             mockMvc.perform(
@@ -317,8 +462,8 @@ class JarControllerTests {
             // Given:
             String budgetId = UUID.randomUUID().toString();
             String jarId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             when(jarRepository.deleteJarByIdAndBudgetId(jarId, budgetId))
                     .thenReturn(0L);
 
@@ -36,6 +36,8 @@ public class SpringIntegrationTestConfiguration {
         }
         mongoDBContainer.start();
         registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        // the unique familyId index turns concurrent budget creations for one family into a conflict
+        registry.add("budget.mongo.indexes.enabled", () -> "true");
     }
 
 }
@@ -15,10 +15,21 @@ import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetMapper;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
 import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASJar;
+import pl.konradboniecki.budget.openapi.dto.model.OASJarCreation;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -30,6 +41,8 @@ public class BudgetSteps {
     private final TestRestTemplate testRestTemplate;
     private final SharedData sharedData;
     private final BudgetMapper budgetMapper;
+    private final List<ResponseEntity<OASBudget>> concurrentResponses = new ArrayList<>();
+    private String deletedBudgetId;
 
     @After
     public void scenarioCleanup() {
@@ -75,7 +88,7 @@ public class BudgetSteps {
         ResponseEntity<Void> responseEntity = testRestTemplate.exchange("/api/budget-mgt/v1/budgets/{budgetId}", HttpMethod.DELETE, entity, Void.class, budgetId);
         log.info("SCENARIO CLEANUP: result {}", responseEntity.getStatusCodeValue());
         assertThat(responseEntity.getStatusCode())
-                .isIn(HttpStatus.NO_CONTENT, HttpStatus.NOT_FOUND);
+                .isIn(HttpStatus.ACCEPTED, HttpStatus.NOT_FOUND);
     }
 
     private void cleanJar(String budgetId, String jarId) {
@@ -106,6 +119,45 @@ public class BudgetSteps {
         }
     }
 
+    @When("I create {int} budgets for family {word} concurrently")
+    public void iCreateBudgetsForFamilyConcurrently(int creations, String familyName) throws Exception {
+        OASBudgetCreation budgetToSave = new OASBudgetCreation()
+                .familyId(sharedData.getFamilyIdForName(familyName))
+                .maxJars(6L);
+        HttpEntity<?> entity = new HttpEntity<>(budgetToSave, security.getSecurityHeaders());
+        ExecutorService executor = Executors.newFixedThreadPool(creations);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity<OASBudget>>> futures = new ArrayList<>();
+            for (int i = 0; i < creations; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return testRestTemplate.exchange("/api/budget-mgt/v1/budgets", HttpMethod.POST, entity, OASBudget.class);
+                }));
+            }
+            start.countDown();
+            concurrentResponses.clear();
+            for (Future<ResponseEntity<OASBudget>> future : futures) {
+                ResponseEntity<OASBudget> responseEntity = future.get(30, TimeUnit.SECONDS);
+                concurrentResponses.add(responseEntity);
+                if (HttpStatus.CREATED.equals(responseEntity.getStatusCode()) && responseEntity.getBody() != null) {
+                    sharedData.addBudgetIdToDelete(responseEntity.getBody().getId());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Then("exactly {int} budget is created and the other creations conflict")
+    public void exactlyBudgetIsCreatedAndTheOtherCreationsConflict(int created) {
+        assertThat(concurrentResponses)
+                .extracting(ResponseEntity::getStatusCode)
+                .containsOnly(HttpStatus.CREATED, HttpStatus.CONFLICT)
+                .filteredOn(HttpStatus.CREATED::equals)
+                .hasSize(created);
+    }
+
     @Then("budget is created")
     public void theBudgetIsCreated() {
         responseStatusCodeEquals(HttpStatus.CREATED);
@@ -142,14 +194,56 @@ public class BudgetSteps {
         if (bgt != null && bgt.getId() != null) {
             HttpEntity<?> entity = new HttpEntity<>(null, security.getSecurityHeaders());
             ResponseEntity<?> responseEntity = testRestTemplate
-                    .exchange("/api/budget-mgt/v1/budgets/{budgetId}", HttpMethod.DELETE, entity, OASBudget.class, bgt.getId());
+                    .exchange("/api/budget-mgt/v1/budgets/{budgetId}", HttpMethod.DELETE, entity, OASBudgetDeletion.class, bgt.getId());
             sharedData.setLastResponseEntity(responseEntity);
+            deletedBudgetId = bgt.getId();
         }
     }
 
     @Then("budget is deleted")
     public void budgetIsDeleted() {
-        responseStatusCodeEquals(HttpStatus.NO_CONTENT);
+        responseStatusCodeEquals(HttpStatus.ACCEPTED);
+    }
+
+    @And("budget of family {word} has {int} jars and {int} expenses")
+    public void budgetOfFamilyHasJarsAndExpenses(String familyName, int jars, int expenses) {
+        String budgetId = findBudgetByFamilyId(sharedData.getFamilyIdForName(familyName)).getId();
+        for (int i = 0; i < jars; i++) {
+            OASJarCreation jarCreation = new OASJarCreation()
+                    .budgetId(budgetId)
+                    .jarName("jar" + i)
+                    .capacity(10.0);
+            HttpEntity<?> entity = new HttpEntity<>(jarCreation, security.getSecurityHeaders());
+            assertThat(testRestTemplate.exchange("/api/budget-mgt/v1/budgets/{budgetId}/jars", HttpMethod.POST, entity, OASJar.class, budgetId)
+                    .getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+        for (int i = 0; i < expenses; i++) {
+            OASExpenseCreation expenseCreation = new OASExpenseCreation()
+                    .budgetId(budgetId)
+                    .amount(1.0)
+                    .comment("expense" + i);
+            HttpEntity<?> entity = new HttpEntity<>(expenseCreation, security.getSecurityHeaders());
+            assertThat(testRestTemplate.exchange("/api/budget-mgt/v1/budgets/{budgetId}/expenses", HttpMethod.POST, entity, OASExpense.class, budgetId)
+                    .getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+    }
+
+    @And("deletion of the budget completes with {int} jars and {int} expenses deleted")
+    public void deletionOfTheBudgetCompletes(int jars, int expenses) throws InterruptedException {
+        HttpEntity<?> entity = new HttpEntity<>(null, security.getSecurityHeaders());
+        OASBudgetDeletion deletion = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            deletion = testRestTemplate.exchange("/api/budget-mgt/v1/budgets/{budgetId}/deletion",
+                    HttpMethod.GET, entity, OASBudgetDeletion.class, deletedBudgetId).getBody();
+            if (deletion != null && deletion.getStatus() == OASBudgetDeletion.StatusEnum.COMPLETED) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(deletion).isNotNull();
+        assertThat(deletion.getStatus()).isEqualTo(OASBudgetDeletion.StatusEnum.COMPLETED);
+        assertThat(deletion.getJarsDeleted()).isEqualTo(jars);
+        assertThat(deletion.getExpensesDeleted()).isEqualTo(expenses);
     }
 
     @And("family (.+) doesn't have a budget$")
@@ -0,0 +1,129 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMonthlyRollupRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BudgetDeletionWorkerTest {
+
+    private BudgetDeletionRepository budgetDeletionRepository;
+    private BudgetRepository budgetRepository;
+    private JarRepository jarRepository;
+    private ExpenseRepository expenseRepository;
+    private ExpenseMonthlyRollupRepository rollupRepository;
+    private BudgetDeletionProperties properties;
+    private BudgetDeletionWorker worker;
+
+    @BeforeEach
+    void setup() {
+        budgetDeletionRepository = mock(BudgetDeletionRepository.class);
+        budgetRepository = mock(BudgetRepository.class);
+        jarRepository = mock(JarRepository.class);
+        expenseRepository = mock(ExpenseRepository.class);
+        rollupRepository = mock(ExpenseMonthlyRollupRepository.class);
+        properties = new BudgetDeletionProperties();
+        properties.setBatchSize(2);
+        properties.setPause(Duration.ZERO);
+        BudgetExistenceCacheProperties cacheProperties = new BudgetExistenceCacheProperties();
+        cacheProperties.setTtl(Duration.ofMillis(200));
+        worker = new BudgetDeletionWorker(new RepositoryBudgetDeletionStore(budgetDeletionRepository, budgetRepository,
+                mock(BudgetTotalsRepository.class), jarRepository, expenseRepository, rollupRepository), properties,
+                cacheProperties);
+    }
+
+    @AfterEach
+    void teardown() {
+        worker.destroy();
+    }
+
+    @Test
+    void given_budget_with_jars_and_expenses_when_submit_then_remove_them_in_batches_and_complete() {
+        // Given:
+        when(jarRepository.deleteBatchByBudgetId("budgetId", 2))
+                .thenReturn(2L, 1L, 0L);
+        when(expenseRepository.deleteBatchByBudgetId("budgetId", 2))
+                .thenReturn(2L, 2L, 0L);
+        // When:
+        worker.submit("budgetId");
+        // Then:
+        verify(budgetDeletionRepository, timeout(1_000)).complete("budgetId");
+        InOrder inOrder = inOrder(budgetDeletionRepository, rollupRepository, budgetRepository);
+        inOrder.verify(budgetDeletionRepository).addProgress("budgetId", 2L, 2L);
+        inOrder.verify(budgetDeletionRepository).addProgress("budgetId", 1L, 2L);
+        inOrder.verify(rollupRepository).deleteByBudgetId("budgetId");
+        inOrder.verify(budgetRepository).deleteById("budgetId");
+        inOrder.verify(budgetDeletionRepository).complete("budgetId");
+        verify(budgetDeletionRepository, times(2)).addProgress(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void given_expense_written_after_first_pass_when_submit_then_final_pass_removes_it_before_completing() {
+        // Given:
+        when(jarRepository.deleteBatchByBudgetId("budgetId", 2))
+                .thenReturn(1L, 0L);
+        when(expenseRepository.deleteBatchByBudgetId("budgetId", 2))
+                .thenReturn(0L, 0L, 1L, 0L);
+        // When:
+        worker.submit("budgetId");
+        // Then:
+        verify(budgetDeletionRepository, after(100).never()).complete("budgetId");
+        verify(budgetDeletionRepository, timeout(1_000)).complete("budgetId");
+        InOrder inOrder = inOrder(budgetDeletionRepository, budgetRepository);
+        inOrder.verify(budgetDeletionRepository).addProgress("budgetId", 1L, 0L);
+        inOrder.verify(budgetDeletionRepository).addProgress("budgetId", 0L, 1L);
+        inOrder.verify(budgetRepository).deleteById("budgetId");
+        inOrder.verify(budgetDeletionRepository).complete("budgetId");
+    }
+
+    @Test
+    void given_failing_batch_when_delete_then_deletion_stays_in_progress() {
+        // Given:
+        when(jarRepository.deleteBatchByBudgetId("budgetId", 2))
+                .thenThrow(new IllegalStateException("connection reset"));
+        // When:
+        worker.submit("budgetId");
+        // Then:
+        verify(jarRepository, timeout(1_000)).deleteBatchByBudgetId("budgetId", 2);
+        verify(budgetDeletionRepository, after(100).never()).complete(anyString());
+    }
+
+    @Test
+    void given_deletion_failed_once_when_sweep_runs_then_it_is_resubmitted() {
+        // Given:
+        when(jarRepository.deleteBatchByBudgetId("budgetId", 2))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(0L);
+        when(budgetDeletionRepository.findAllByStatus(BudgetDeletion.IN_PROGRESS))
+                .thenReturn(List.of(new BudgetDeletion().setId("budgetId")));
+        worker.submit("budgetId");
+        verify(budgetDeletionRepository, after(100).never()).complete(anyString());
+        // When:
+        worker.resubmitUnfinished();
+        // Then:
+        verify(budgetDeletionRepository, timeout(1_000)).complete("budgetId");
+    }
+
+    @Test
+    void given_unfinished_deletions_when_application_is_ready_then_resume_them() {
+        // Given:
+        properties.setResumeOnStartup(true);
+        when(budgetDeletionRepository.findAllByStatus(BudgetDeletion.IN_PROGRESS))
+                .thenReturn(List.of(new BudgetDeletion().setId("first"), new BudgetDeletion().setId("second")));
+        // When:
+        worker.resumeUnfinished();
+        // Then:
+        verify(budgetDeletionRepository, timeout(1_000)).complete("first");
+        verify(budgetDeletionRepository, timeout(1_000)).complete("second");
+    }
+}
@@ -0,0 +1,67 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BudgetExistenceCacheTest {
+
+    private BudgetRepository budgetRepository;
+    private BudgetExistenceCache budgetExistenceCache;
+
+    @BeforeEach
+    void setup() {
+        budgetRepository = mock(BudgetRepository.class);
+        budgetExistenceCache = new BudgetExistenceCache(budgetRepository, new BudgetExistenceCacheProperties());
+    }
+
+    @Test
+    void given_existing_budget_when_checked_twice_then_repository_is_queried_once() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(true);
+        // When:
+        boolean first = budgetExistenceCache.exists(budgetId);
+        boolean second = budgetExistenceCache.exists(budgetId);
+        // Then:
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(budgetRepository, times(1)).existsById(budgetId);
+    }
+
+    @Test
+    void given_missing_budget_when_checked_twice_then_negative_result_is_cached() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(false);
+        // When:
+        boolean first = budgetExistenceCache.exists(budgetId);
+        boolean second = budgetExistenceCache.exists(budgetId);
+        // Then:
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        verify(budgetRepository, times(1)).existsById(budgetId);
+    }
+
+    @Test
+    void given_cached_budget_when_invalidated_then_repository_is_queried_again() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(true)
+                .thenReturn(false);
+        budgetExistenceCache.exists(budgetId);
+        // When:
+        budgetExistenceCache.invalidate(budgetId);
+        boolean exists = budgetExistenceCache.exists(budgetId);
+        // Then:
+        assertThat(exists).isFalse();
+        verify(budgetRepository, times(2)).existsById(budgetId);
+    }
+}
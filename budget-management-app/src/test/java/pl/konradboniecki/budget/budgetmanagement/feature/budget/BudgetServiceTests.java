@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
 import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
@@ -20,7 +21,7 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 
 @ExtendWith(SpringExtension.class)
@@ -33,6 +34,8 @@ class BudgetServiceTests {
 
     @MockBean
     private BudgetRepository budgetRepository;
+    @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
     @Autowired
     private BudgetService budgetService;
 
@@ -110,35 +113,31 @@ class BudgetServiceTests {
         OASBudgetCreation budgetCreation = new OASBudgetCreation()
                 .familyId(familyIdWithoutConflict)
                 .maxJars(6L);
-        when(budgetRepository.save(any(Budget.class)))
+        when(budgetRepository.insert(any(Budget.class)))
                 .thenReturn(budgetWithoutConflict);
-        when(budgetRepository.findByFamilyId(familyIdWithoutConflict))
-                .thenReturn(Optional.empty());
 
         // When:
         OASCreatedBudget retrievedBudget = budgetService.saveBudget(budgetCreation);
         // Then:
         assertThat(retrievedBudget).usingRecursiveComparison()
                 .isEqualTo(budgetWithoutConflict);
+        verify(budgetTotalsRepository).initialize(any());
     }
 
     @Test
     void given_save_budget_when_conflict_then_throw() {
         // Given:
         String familyIdWithConflict = UUID.randomUUID().toString();
-        Budget budgetWithoutConflict = new Budget()
-                .setId(UUID.randomUUID().toString())
-                .setFamilyId(familyIdWithConflict)
-                .setMaxJars(6L);
         OASBudgetCreation budgetCreation = new OASBudgetCreation()
                 .familyId(familyIdWithConflict)
                 .maxJars(6L);
-        when(budgetRepository.findByFamilyId(familyIdWithConflict))
-                .thenReturn(Optional.of(budgetWithoutConflict));
+        when(budgetRepository.insert(any(Budget.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error, index: familyId"));
         // When:
         Throwable throwable = catchThrowable(() -> budgetService.saveBudget(budgetCreation));
         // Then:
         assertThat(throwable).isNotNull()
                 .isInstanceOf(FamilyConflictException.class);
+        verify(budgetRepository, never()).existsByFamilyId(familyIdWithConflict);
     }
 }
@@ -0,0 +1,126 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BudgetTotalsReconciliationTest {
+
+    private BudgetRepository budgetRepository;
+    private BudgetTotalsRepository budgetTotalsRepository;
+    private BudgetTotalsReconciliation reconciliation;
+
+    @BeforeEach
+    void setup() {
+        budgetRepository = mock(BudgetRepository.class);
+        budgetTotalsRepository = mock(BudgetTotalsRepository.class);
+        reconciliation = new BudgetTotalsReconciliation(
+                budgetRepository, budgetTotalsRepository, new BudgetTotalsReconciliationProperties());
+    }
+
+    @Test
+    void given_drifted_budget_when_reconcile_without_fix_then_drift_is_only_reported() {
+        // Given:
+        Instant lastCreated = Instant.parse("2021-01-30T08:30:00Z");
+        when(budgetRepository.streamAllBudgetIds())
+                .thenReturn(Stream.of(new Budget().setId("drifted"), new Budget().setId("consistent")));
+        when(budgetTotalsRepository.findCounters("drifted"))
+                .thenReturn(new BudgetTotals().setId("drifted").setExpenses(3).setExpenseAmount(30.0).setLastExpenseCreated(lastCreated)
+                        .setJars(1).setSeeded(true));
+        when(budgetTotalsRepository.recomputeTotals("drifted"))
+                .thenReturn(new BudgetTotals().setId("drifted").setExpenses(2).setExpenseAmount(20.0).setLastExpenseCreated(lastCreated)
+                        .setJars(2));
+        when(budgetTotalsRepository.findCounters("consistent"))
+                .thenReturn(new BudgetTotals().setId("consistent").setExpenses(1).setExpenseAmount(0.1 + 0.2).setSeeded(true));
+        when(budgetTotalsRepository.recomputeTotals("consistent"))
+                .thenReturn(new BudgetTotals().setId("consistent").setExpenses(1).setExpenseAmount(0.3));
+        // When:
+        Map<String, Object> report = reconciliation.reconcile(null);
+        // Then:
+        assertThat(report)
+                .containsEntry("checked", 2L)
+                .containsEntry("drifted", 1L)
+                .containsEntry("fixed", 0L)
+                .containsEntry("seeded", 0L)
+                .containsEntry("drifts", List.of("drifted: count 3 instead of 2, amount 30.0 instead of 20.0, jars 1 instead of 2"));
+        verify(budgetTotalsRepository, never()).replaceCounters(any());
+    }
+
+    @Test
+    void given_drifted_budget_when_reconcile_with_fix_then_recomputed_totals_are_stored() {
+        // Given:
+        BudgetTotals recomputed = new BudgetTotals().setId("drifted").setExpenses(2).setExpenseAmount(20.0);
+        when(budgetRepository.streamAllBudgetIds())
+                .thenReturn(Stream.of(new Budget().setId("drifted")));
+        when(budgetTotalsRepository.findCounters("drifted"))
+                .thenReturn(new BudgetTotals().setId("drifted").setSeeded(true));
+        when(budgetTotalsRepository.recomputeTotals("drifted"))
+                .thenReturn(recomputed);
+        // When:
+        Map<String, Object> report = reconciliation.reconcile(true);
+        // Then:
+        assertThat(report).containsEntry("fixed", 1L);
+        verify(budgetTotalsRepository).replaceCounters(recomputed);
+        assertThat(reconciliation.lastReport()).isSameAs(report);
+    }
+
+    @Test
+    void given_unseeded_counters_when_reconcile_without_fix_then_recomputed_totals_are_stored() {
+        // Given:
+        BudgetTotals recomputed = new BudgetTotals().setId("legacy").setExpenses(4).setExpenseAmount(40.0).setJars(2);
+        when(budgetRepository.streamAllBudgetIds())
+                .thenReturn(Stream.of(new Budget().setId("legacy")));
+        when(budgetTotalsRepository.findCounters("legacy"))
+                .thenReturn(new BudgetTotals().setId("legacy").setJars(1));
+        when(budgetTotalsRepository.recomputeTotals("legacy"))
+                .thenReturn(recomputed);
+        // When:
+        Map<String, Object> report = reconciliation.reconcile(false);
+        // Then:
+        assertThat(report)
+                .containsEntry("seeded", 1L)
+                .containsEntry("drifted", 0L);
+        verify(budgetTotalsRepository).replaceCounters(recomputed);
+    }
+
+    @Test
+    void given_seeded_and_unseeded_counters_when_seed_then_only_unseeded_are_recomputed() {
+        // Given:
+        when(budgetRepository.streamAllBudgetIds())
+                .thenReturn(Stream.of(new Budget().setId("seeded"), new Budget().setId("legacy")));
+        when(budgetTotalsRepository.findCounters("seeded"))
+                .thenReturn(new BudgetTotals().setId("seeded").setSeeded(true));
+        when(budgetTotalsRepository.findCounters("legacy"))
+                .thenReturn(new BudgetTotals().setId("legacy"));
+        when(budgetTotalsRepository.recomputeTotals("legacy"))
+                .thenReturn(new BudgetTotals().setId("legacy").setExpenses(1));
+        // When:
+        Map<String, Object> report = reconciliation.seed();
+        // Then:
+        assertThat(report)
+                .containsEntry("checked", 2L)
+                .containsEntry("seeded", 1L);
+        verify(budgetTotalsRepository, never()).recomputeTotals("seeded");
+    }
+
+    @Test
+    void given_stale_last_created_when_describe_drift_then_it_is_reported() {
+        // Given:
+        BudgetTotals running = new BudgetTotals().setExpenses(1).setExpenseAmount(10.0)
+                .setLastExpenseCreated(Instant.parse("2021-01-30T08:30:00Z"));
+        BudgetTotals recomputed = new BudgetTotals().setExpenses(1).setExpenseAmount(10.0)
+                .setLastExpenseCreated(Instant.parse("2021-01-29T08:30:00Z"));
+        // When:
+        String drift = BudgetTotalsReconciliation.describeDrift(running, recomputed, 0.005);
+        // Then:
+        assertThat(drift).isEqualTo("last expense 2021-01-30T08:30:00Z instead of 2021-01-29T08:30:00Z");
+    }
+}
@@ -0,0 +1,93 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DuplicateKeyException;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.FamilyConflictException;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactiveBudgetServiceTest {
+
+    private ReactiveBudgetRepository budgetRepository;
+    private ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private ReactiveBudgetDeletionRepository budgetDeletionRepository;
+    private BudgetDeletionWorker budgetDeletionWorker;
+    private ReactiveBudgetService budgetService;
+
+    @BeforeEach
+    void setup() {
+        budgetRepository = mock(ReactiveBudgetRepository.class);
+        budgetTotalsRepository = mock(ReactiveBudgetTotalsRepository.class);
+        budgetDeletionRepository = mock(ReactiveBudgetDeletionRepository.class);
+        budgetDeletionWorker = mock(BudgetDeletionWorker.class);
+        budgetService = new ReactiveBudgetService(budgetRepository, budgetTotalsRepository,
+                budgetDeletionRepository, budgetDeletionWorker, new BudgetMapper());
+    }
+
+    @Test
+    void given_family_with_budget_when_save_then_conflict_without_family_lookup() {
+        // Given:
+        String familyId = UUID.randomUUID().toString();
+        when(budgetRepository.insert(any(Budget.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error, index: familyId")));
+        // Then:
+        StepVerifier.create(budgetService.saveBudget(new OASBudgetCreation().familyId(familyId).maxJars(6L)))
+                .expectError(FamilyConflictException.class)
+                .verify();
+        verify(budgetRepository, never()).existsByFamilyId(familyId);
+    }
+
+    @Test
+    void given_missing_budget_when_delete_then_not_found_and_nothing_is_recorded() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(false));
+        // Then:
+        StepVerifier.create(budgetService.deleteBudget(budgetId))
+                .expectError(BudgetNotFoundException.class)
+                .verify();
+        verify(budgetDeletionRepository, never()).start(any(String.class));
+        verify(budgetDeletionWorker, never()).submit(any(String.class));
+    }
+
+    @Test
+    void given_existing_budget_when_delete_then_record_deletion_before_removing_budget() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(true));
+        when(budgetDeletionRepository.start(budgetId))
+                .thenReturn(Mono.just(new BudgetDeletion().setId(budgetId).setStatus(BudgetDeletion.IN_PROGRESS)));
+        when(budgetRepository.deleteBudgetById(budgetId))
+                .thenReturn(Mono.just(1L));
+        when(budgetTotalsRepository.deleteById(budgetId))
+                .thenReturn(Mono.empty());
+        // Then:
+        StepVerifier.create(budgetService.deleteBudget(budgetId))
+                .expectNextMatches(deletion -> deletion.getStatus() == OASBudgetDeletion.StatusEnum.IN_PROGRESS)
+                .verifyComplete();
+        InOrder inOrder = inOrder(budgetDeletionRepository, budgetRepository, budgetDeletionWorker);
+        inOrder.verify(budgetDeletionRepository).start(budgetId);
+        inOrder.verify(budgetRepository).deleteBudgetById(budgetId);
+        inOrder.verify(budgetDeletionWorker).submit(budgetId);
+    }
+
+    @Test
+    void given_invalid_id_type_when_find_then_bad_request() {
+        StepVerifier.create(budgetService.findByOrThrow(UUID.randomUUID().toString(), "invalid"))
+                .expectError(BadRequestException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,146 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetExistenceCache;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseBatchResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Proves that an NDJSON import keeps a flat heap: the live set after GC, as reported by JFR, must not
+ * grow with the size of the upload. Tagged {@code heap} and left out of the default build, run with
+ * {@code mvn test -Pbenchmarks -Dtest=ExpenseImportHeapTest}. The large upload defaults to 256 MB, add
+ * {@code -DexpenseImport.largeBytes=2147483648} to check the 2 GB case.
+ */
+@Tag("heap")
+class ExpenseImportHeapTest {
+
+    private static final long SMALL_BYTES = 1L << 20;
+    private static final long LARGE_BYTES = Long.getLong("expenseImport.largeBytes", 256L << 20);
+    private static final long TOLERANCE_BYTES = 16L << 20;
+    private static final int GC_SAMPLES = 16;
+
+    @Test
+    void given_small_and_large_upload_when_import_then_heap_after_gc_stays_flat() throws IOException {
+        // Given:
+        ExpenseService expenseService = expenseService();
+        String budgetId = UUID.randomUUID().toString();
+        // When:
+        long smallPeak = peakHeapAfterGc(expenseService, budgetId, SMALL_BYTES);
+        long largePeak = peakHeapAfterGc(expenseService, budgetId, LARGE_BYTES);
+        // Then:
+        assertThat(largePeak).isLessThanOrEqualTo(smallPeak + TOLERANCE_BYTES);
+    }
+
+    private ExpenseService expenseService() {
+        // stubOnly: a mock that records invocations would keep every chunk reachable
+        ExpenseRepository expenseRepository = mock(ExpenseRepository.class, withSettings().stubOnly());
+        when(expenseRepository.insertAllUnordered(anyList()))
+                .thenReturn(Map.of());
+        BudgetExistenceCache budgetExistenceCache = mock(BudgetExistenceCache.class, withSettings().stubOnly());
+        when(budgetExistenceCache.exists(anyString()))
+                .thenReturn(true);
+        return new ExpenseService(
+                expenseRepository,
+                budgetExistenceCache,
+                mock(BudgetTotalsRepository.class, withSettings().stubOnly()),
+                new ExpenseMapper(),
+                new ExpenseBatchProperties(),
+                new ObjectMapper(),
+                new ExpenseExportProperties(),
+                mock(ExpenseMonthlyRollupRepository.class, withSettings().stubOnly()));
+    }
+
+    private long peakHeapAfterGc(ExpenseService expenseService, String budgetId, long bytes) throws IOException {
+        Path dump = Files.createTempFile("expense-import", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.GCHeapSummary");
+            recording.start();
+            OASExpenseBatchResult result = expenseService.importExpenses(new NdjsonExpenses(budgetId, bytes), budgetId);
+            recording.stop();
+            recording.dump(dump);
+            assertThat(result.getFailed()).isZero();
+            assertThat(result.getCreated()).isPositive();
+            return RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> "After GC".equals(event.getString("when")))
+                    .mapToLong(ExpenseImportHeapTest::heapUsed)
+                    .max()
+                    .orElseThrow();
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static long heapUsed(RecordedEvent event) {
+        return event.getLong("heapUsed");
+    }
+
+    /**
+     * Generates NDJSON on the fly so the test itself does not hold the upload in memory. A full GC is
+     * requested at evenly spaced offsets to sample the live set while the import is running.
+     */
+    private static class NdjsonExpenses extends InputStream {
+
+        private final String budgetId;
+        private final long totalBytes;
+        private final long gcInterval;
+        private long position;
+        private long nextGcAt;
+        private long lineNumber;
+        private byte[] line = new byte[0];
+        private int lineOffset;
+
+        NdjsonExpenses(String budgetId, long totalBytes) {
+            this.budgetId = budgetId;
+            this.totalBytes = totalBytes;
+            this.gcInterval = totalBytes / GC_SAMPLES;
+            this.nextGcAt = gcInterval;
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (lineOffset == line.length) {
+                if (position >= totalBytes) {
+                    return -1;
+                }
+                line = ("{\"budgetId\":\"" + budgetId + "\",\"amount\":" + (lineNumber % 1000) + ".5,\"comment\":\"line "
+                        + lineNumber++ + "\"}\n").getBytes(StandardCharsets.UTF_8);
+                lineOffset = 0;
+            }
+            int count = Math.min(length, line.length - lineOffset);
+            System.arraycopy(line, lineOffset, buffer, offset, count);
+            lineOffset += count;
+            position += count;
+            if (position >= nextGcAt) {
+                nextGcAt += gcInterval;
+                System.gc();
+            }
+            return count;
+        }
+    }
+}
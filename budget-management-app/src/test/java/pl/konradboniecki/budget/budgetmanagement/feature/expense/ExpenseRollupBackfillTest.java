@@ -0,0 +1,66 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ExpenseRollupBackfillTest {
+
+    private BudgetRepository budgetRepository;
+    private ExpenseMonthlyRollupRepository rollupRepository;
+    private BudgetTotalsRepository budgetTotalsRepository;
+    private ExpenseRollupBackfill backfill;
+
+    @BeforeEach
+    void setup() {
+        budgetRepository = mock(BudgetRepository.class);
+        rollupRepository = mock(ExpenseMonthlyRollupRepository.class);
+        budgetTotalsRepository = mock(BudgetTotalsRepository.class);
+        ExpenseRollupBackfillProperties properties = new ExpenseRollupBackfillProperties();
+        properties.setChunkSize(3);
+        properties.setParallelism(2);
+        backfill = new ExpenseRollupBackfill(budgetRepository, rollupRepository, budgetTotalsRepository, properties);
+    }
+
+    @Test
+    void given_budgets_over_chunk_size_when_backfill_then_every_budget_is_rebuilt() {
+        // Given:
+        when(budgetRepository.streamAllBudgetIds())
+                .thenReturn(IntStream.range(0, 10).mapToObj(i -> new Budget().setId("budget-" + i)));
+        // When:
+        Map<String, Object> report = backfill.backfill();
+        // Then:
+        assertThat(report)
+                .containsEntry("rebuilt", 10L)
+                .containsEntry("failed", 0L);
+        IntStream.range(0, 10).forEach(i -> verify(rollupRepository).rebuild("budget-" + i));
+        IntStream.range(0, 10).forEach(i -> verify(budgetTotalsRepository).markRollupsComplete("budget-" + i));
+        assertThat(backfill.lastReport()).isSameAs(report);
+    }
+
+    @Test
+    void given_failing_budget_when_backfill_then_it_is_reported_and_the_rest_is_rebuilt() {
+        // Given:
+        when(budgetRepository.streamAllBudgetIds())
+                .thenReturn(IntStream.range(0, 4).mapToObj(i -> new Budget().setId("budget-" + i)));
+        doThrow(new IllegalStateException("timeout"))
+                .when(rollupRepository).rebuild("budget-1");
+        // When:
+        Map<String, Object> report = backfill.backfill();
+        // Then:
+        assertThat(report)
+                .containsEntry("rebuilt", 3L)
+                .containsEntry("failed", 1L)
+                .containsEntry("failures", List.of("budget-1: timeout"));
+        verify(budgetTotalsRepository, never()).markRollupsComplete("budget-1");
+    }
+}
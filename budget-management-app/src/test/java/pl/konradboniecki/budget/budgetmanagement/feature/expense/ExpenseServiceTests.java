@@ -11,17 +11,26 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
 import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseConflictException;
 import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseCreationException;
 import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseNotFoundException;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.openapi.dto.model.*;
 import pl.konradboniecki.chassis.exceptions.BadRequestException;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -34,7 +43,10 @@ import static org.springframework.boot.test.context.SpringBootTest.WebEnvironmen
 @SpringBootTest(
         classes = BudgetManagementApplication.class,
         webEnvironment = WebEnvironment.NONE,
-        properties = "spring.cloud.config.enabled=false"
+        properties = {
+                "spring.cloud.config.enabled=false",
+                "budget.expenses.batch.chunk-size=2"
+        }
 )
 class ExpenseServiceTests {
 
@@ -42,26 +54,48 @@ class ExpenseServiceTests {
     private ExpenseRepository expenseRepository;
     @MockBean
     private BudgetRepository budgetRepository;
+    @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
+    @MockBean
+    private ExpenseMonthlyRollupRepository rollupRepository;
     @Autowired
     private ExpenseService expenseService;
 
     @Nested
     class DeletionTests {
         @Test
-        void given_deleteBy_idAndBudgetId_when_expense_found_then_do_nothing() {
+        void given_deleteBy_idAndBudgetId_when_expense_found_then_subtract_it_from_totals() {
             // Given:
             String randomBudgetId = UUID.randomUUID().toString();
             String expenseId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(randomBudgetId))
-                    .thenReturn(Optional.of(new Budget().setId(randomBudgetId)));
-            doNothing().when(expenseRepository).deleteByIdAndBudgetId(expenseId, randomBudgetId);
-            when(expenseRepository.findByIdAndBudgetId(expenseId, randomBudgetId))
-                    .thenReturn(Optional.of(new Expense()));
+            when(budgetRepository.existsById(randomBudgetId))
+                    .thenReturn(true);
+            Expense removed = new Expense().setAmount(7.5);
+            when(expenseRepository.removeByIdAndBudgetId(expenseId, randomBudgetId))
+                    .thenReturn(Optional.of(removed));
             // When:
             Throwable throwable = catchThrowable(
                     () -> expenseService.removeExpenseFromBudgetOrThrow(expenseId, randomBudgetId));
             // Then:
             assertThat(throwable).isNull();
+            verify(budgetTotalsRepository).incrementExpenses(randomBudgetId, -1, -7.5, null);
+            verify(rollupRepository).subtract(randomBudgetId, removed);
+        }
+
+        @Test
+        void given_dated_expense_when_deleted_then_retract_its_creation_time_from_totals() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            Instant created = Instant.parse("2021-01-30T08:30:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.removeByIdAndBudgetId(expenseId, budgetId))
+                    .thenReturn(Optional.of(new Expense().setAmount(7.5).setCreated(created)));
+            // When:
+            expenseService.removeExpenseFromBudgetOrThrow(expenseId, budgetId);
+            // Then:
+            verify(budgetTotalsRepository).retractLastExpenseCreated(budgetId, created);
         }
 
         @Test
@@ -71,12 +105,28 @@ class ExpenseServiceTests {
             String expenseId = UUID.randomUUID().toString();
             doThrow(EmptyResultDataAccessException.class)
                     .when(expenseRepository)
-                    .deleteByIdAndBudgetId(expenseId, budgetId);
+                    .removeByIdAndBudgetId(expenseId, budgetId);
             // When:
             Throwable throwable = catchThrowable(() -> expenseService.removeExpenseFromBudgetOrThrow(expenseId, budgetId));
             // Then:
             assertThat(throwable).isInstanceOf(BudgetNotFoundException.class);
         }
+
+        @Test
+        void given_deleteBy_idAndBudgetId_when_nothing_deleted_then_throw() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.removeByIdAndBudgetId(expenseId, budgetId))
+                    .thenReturn(Optional.empty());
+            // When:
+            Throwable throwable = catchThrowable(() -> expenseService.removeExpenseFromBudgetOrThrow(expenseId, budgetId));
+            // Then:
+            assertThat(throwable).isInstanceOf(ExpenseNotFoundException.class);
+            verify(expenseRepository, never()).findByIdAndBudgetId(any(), any());
+        }
     }
 
     @Nested
@@ -110,16 +160,137 @@ class ExpenseServiceTests {
             OASExpenseModification expenseModification = new OASExpenseModification()
                     .id(expenseId)
                     .budgetId(budgetId);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
-            when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
-                    .thenReturn(Optional.of(expenseFromBody));
-            when(expenseRepository.save(any(Expense.class))).thenReturn(expenseFromBody);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.setFields(any(Expense.class))).thenReturn(Optional.of(expenseFromBody));
             // When:
             OASExpense updatedExpense = expenseService.updateExpense(expenseFromBody.getId(), budgetId, expenseModification);
             // Then:
             assertThat(updatedExpense).isNotNull();
         }
+
+        @Test
+        void given_missing_budget_when_update_then_throw_without_writing() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            OASExpenseModification expenseModification = new OASExpenseModification()
+                    .id(expenseId)
+                    .budgetId(budgetId)
+                    .amount(12.5);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            // When:
+            Throwable throwable = catchThrowable(() -> expenseService.updateExpense(expenseId, budgetId, expenseModification));
+            // Then:
+            assertThat(throwable).isInstanceOf(BudgetNotFoundException.class);
+            verify(expenseRepository, never()).setFields(any());
+        }
+
+        @Test
+        void given_stale_version_when_update_amount_then_conflict_and_totals_untouched() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            Expense currentExpense = new Expense().setId(expenseId).setBudgetId(budgetId).setAmount(11.0).setVersion(5L);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.setFields(any(Expense.class)))
+                    .thenReturn(Optional.empty());
+            when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
+                    .thenReturn(Optional.of(currentExpense));
+            OASExpenseModification expenseModification = new OASExpenseModification()
+                    .id(expenseId)
+                    .budgetId(budgetId)
+                    .amount(12.5)
+                    .version(4L);
+            // When:
+            Throwable throwable = catchThrowable(() -> expenseService.updateExpense(expenseId, budgetId, expenseModification));
+            // Then:
+            assertThat(throwable).isInstanceOf(ExpenseConflictException.class);
+            assertThat(((ExpenseConflictException) throwable).getCurrentExpense().getAmount()).isEqualTo(11.0);
+            verify(budgetTotalsRepository, never()).incrementExpenses(any(), anyLong(), anyDouble(), any());
+        }
+
+        @Test
+        void given_comment_set_meanwhile_when_update_amount_then_keep_comment_and_bump_version() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            Instant created = Instant.now();
+            Expense previousExpense = new Expense().setId(expenseId).setBudgetId(budgetId).setAmount(10.0).setCreated(created)
+                    .setComment("added meanwhile").setVersion(5L);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.setFields(any(Expense.class)))
+                    .thenReturn(Optional.of(previousExpense));
+            OASExpenseModification expenseModification = new OASExpenseModification()
+                    .id(expenseId)
+                    .budgetId(budgetId)
+                    .amount(12.5);
+            // When:
+            OASExpense updatedExpense = expenseService.updateExpense(expenseId, budgetId, expenseModification);
+            // Then:
+            assertThat(updatedExpense.getComment()).isEqualTo("added meanwhile");
+            assertThat(updatedExpense.getAmount()).isEqualTo(12.5);
+            assertThat(updatedExpense.getVersion()).isEqualTo(6L);
+            verify(expenseRepository).setFields(argThat(expense -> expense.getComment() == null && expense.getVersion() == null));
+            verify(expenseRepository, never()).findByIdAndBudgetId(expenseId, budgetId);
+        }
+
+        @Test
+        void given_changed_amount_when_update_then_totals_get_the_difference() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            Instant created = Instant.now();
+            Expense origin = new Expense()
+                    .setId(expenseId)
+                    .setBudgetId(budgetId)
+                    .setAmount(10.0)
+                    .setCreated(created);
+            OASExpenseModification expenseModification = new OASExpenseModification()
+                    .id(expenseId)
+                    .budgetId(budgetId)
+                    .amount(12.5);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.setFields(any(Expense.class)))
+                    .thenReturn(Optional.of(origin));
+            // When:
+            expenseService.updateExpense(expenseId, budgetId, expenseModification);
+            // Then:
+            verify(budgetTotalsRepository).incrementExpenses(budgetId, 0, 2.5, created);
+            verify(rollupRepository).replace(eq(budgetId),
+                    argThat(before -> before.getAmount() == 10.0 && created.equals(before.getCreated())),
+                    argThat(after -> after.getAmount() == 12.5));
+            verify(budgetTotalsRepository, never()).retractLastExpenseCreated(any(), any());
+        }
+
+        @Test
+        void given_created_moved_back_when_update_then_retract_previous_creation_time_from_totals() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String expenseId = UUID.randomUUID().toString();
+            Instant created = Instant.parse("2021-01-30T08:30:00Z");
+            Instant movedTo = Instant.parse("2021-01-01T08:30:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.setFields(any(Expense.class)))
+                    .thenReturn(Optional.of(new Expense()
+                            .setId(expenseId)
+                            .setBudgetId(budgetId)
+                            .setAmount(10.0)
+                            .setCreated(created)));
+            // When:
+            expenseService.updateExpense(expenseId, budgetId, new OASExpenseModification()
+                    .id(expenseId)
+                    .budgetId(budgetId)
+                    .created(movedTo));
+            // Then:
+            verify(budgetTotalsRepository).incrementExpenses(budgetId, 0, 0.0, movedTo);
+            verify(budgetTotalsRepository).retractLastExpenseCreated(budgetId, created);
+        }
     }
 
     @Nested
@@ -132,7 +303,7 @@ class ExpenseServiceTests {
                     .budgetId(budgetId);
 
             when(expenseRepository.save(any(Expense.class))).thenReturn(new Expense());
-            when(budgetRepository.findById(budgetId)).thenReturn(Optional.of(new Budget()));
+            when(budgetRepository.existsById(budgetId)).thenReturn(true);
             // When:
             OASCreatedExpense createdExpense = expenseService.saveExpense(expenseCreation, budgetId);
             // Then:
@@ -144,7 +315,7 @@ class ExpenseServiceTests {
             // Given:
             String budgetId = UUID.randomUUID().toString();
             when(expenseRepository.save(any(Expense.class))).thenReturn(new Expense());
-            when(budgetRepository.findById(budgetId)).thenReturn(Optional.empty());
+            when(budgetRepository.existsById(budgetId)).thenReturn(false);
             // When:
             Throwable throwable = catchThrowable(() ->
                     expenseService.saveExpense(null, budgetId));
@@ -166,6 +337,199 @@ class ExpenseServiceTests {
         }
     }
 
+    @Nested
+    class BatchCreationTests {
+        @Test
+        void given_items_over_chunk_size_when_save_then_insert_in_chunks_and_report_each_item() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            OASExpenseBatchCreation batchCreation = new OASExpenseBatchCreation()
+                    .addItemsItem(new OASExpenseCreation().budgetId(budgetId).amount(1.0))
+                    .addItemsItem(new OASExpenseCreation().budgetId(UUID.randomUUID().toString()).amount(2.0))
+                    .addItemsItem(new OASExpenseCreation().budgetId(budgetId).amount(3.0))
+                    .addItemsItem(new OASExpenseCreation().budgetId(budgetId).amount(4.0));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.insertAllUnordered(anyList()))
+                    .thenReturn(Map.of(1, "E11000 duplicate key error"))
+                    .thenReturn(Map.of());
+            // When:
+            OASExpenseBatchResult result = expenseService.saveExpenses(batchCreation, budgetId);
+            // Then:
+            assertThat(result.getCreated()).isEqualTo(2);
+            assertThat(result.getFailed()).isEqualTo(2);
+            assertThat(result.getItems()).extracting(OASExpenseBatchItemResult::getIndex)
+                    .containsExactly(0, 1, 2, 3);
+            assertThat(result.getItems().get(0).getId()).isNotNull();
+            assertThat(result.getItems().get(1).getError()).isEqualTo("Budget id in body and path don't match.");
+            assertThat(result.getItems().get(2).getError()).isEqualTo("E11000 duplicate key error");
+            assertThat(result.getItems().get(3).getId()).isNotNull();
+            verify(expenseRepository, times(2)).insertAllUnordered(anyList());
+            verify(budgetTotalsRepository).incrementExpenses(eq(budgetId), eq(1L), eq(1.0), any(Instant.class));
+            verify(budgetTotalsRepository).incrementExpenses(eq(budgetId), eq(1L), eq(4.0), any(Instant.class));
+            verify(rollupRepository).addAll(eq(budgetId), argThat(inserted -> inserted.size() == 1 && inserted.get(0).getAmount() == 1.0));
+            verify(rollupRepository).addAll(eq(budgetId), argThat(inserted -> inserted.size() == 1 && inserted.get(0).getAmount() == 4.0));
+        }
+
+        @Test
+        void given_missing_budget_when_save_then_throw_and_insert_nothing() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            OASExpenseBatchCreation batchCreation = new OASExpenseBatchCreation()
+                    .addItemsItem(new OASExpenseCreation().budgetId(budgetId).amount(1.0));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            // When:
+            Throwable throwable = catchThrowable(() -> expenseService.saveExpenses(batchCreation, budgetId));
+            // Then:
+            assertThat(throwable).isInstanceOf(BudgetNotFoundException.class);
+            verify(expenseRepository, never()).insertAllUnordered(anyList());
+        }
+    }
+
+    @Nested
+    class NdjsonImportTests {
+        @Test
+        void given_invalid_lines_when_import_then_skip_them_and_flush_in_chunks() throws IOException {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String ndjson = "{\"budgetId\":\"" + budgetId + "\",\"amount\":1.0}\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\":\"one\"}\n"
+                    + "{\"budgetId\":\"" + UUID.randomUUID() + "\",\"amount\":2.0}\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\":3.0}\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\":4.0}\n";
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.insertAllUnordered(anyList()))
+                    .thenReturn(Map.of());
+            // When:
+            OASExpenseBatchResult result = expenseService.importExpenses(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), budgetId);
+            // Then:
+            assertThat(result.getCreated()).isEqualTo(3);
+            assertThat(result.getFailed()).isEqualTo(2);
+            assertThat(result.getItems()).extracting(OASExpenseBatchItemResult::getIndex)
+                    .containsExactly(1, 2);
+            assertThat(result.getItems().get(1).getError()).isEqualTo("Budget id in body and path don't match.");
+            verify(expenseRepository, times(2)).insertAllUnordered(anyList());
+            verify(budgetTotalsRepository).incrementExpenses(eq(budgetId), eq(2L), eq(4.0), any(Instant.class));
+            verify(budgetTotalsRepository).incrementExpenses(eq(budgetId), eq(1L), eq(4.0), any(Instant.class));
+        }
+
+        @Test
+        void given_malformed_line_when_import_then_stop_and_keep_stored_chunks() throws IOException {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String ndjson = "{\"budgetId\":\"" + budgetId + "\",\"amount\":1.0}\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\":2.0}\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\n"
+                    + "{\"budgetId\":\"" + budgetId + "\",\"amount\":4.0}\n";
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.insertAllUnordered(anyList()))
+                    .thenReturn(Map.of());
+            // When:
+            OASExpenseBatchResult result = expenseService.importExpenses(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), budgetId);
+            // Then:
+            assertThat(result.getCreated()).isEqualTo(2);
+            assertThat(result.getFailed()).isEqualTo(1);
+            assertThat(result.getItems()).singleElement()
+                    .satisfies(item -> assertThat(item.getError()).startsWith("Malformed NDJSON"));
+        }
+    }
+
+    @Nested
+    class AggregationTests {
+        @Test
+        void given_budget_when_aggregate_then_periods_are_mapped_in_order() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Instant january = Instant.parse("2021-01-01T00:00:00Z");
+            Instant february = Instant.parse("2021-02-01T00:00:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.aggregateByBudgetId(budgetId, "month", january, null))
+                    .thenReturn(List.of(
+                            new ExpenseAggregate().setStart(january).setCount(2).setTotal(3.0).setMin(1.0).setMax(2.0).setAverage(1.5),
+                            new ExpenseAggregate().setStart(february).setCount(1).setTotal(4.0).setMin(4.0).setMax(4.0).setAverage(4.0)));
+            // When:
+            OASExpenseAggregation aggregation = expenseService.aggregateExpenses(budgetId, "month", january, null);
+            // Then:
+            assertThat(aggregation.getGroupBy()).isEqualTo(OASExpenseAggregation.GroupByEnum.MONTH);
+            assertThat(aggregation.getPeriods()).extracting(OASExpensePeriodAggregate::getStart)
+                    .containsExactly(january, february);
+            assertThat(aggregation.getPeriods().get(0).getAverage()).isEqualTo(1.5);
+        }
+
+        @Test
+        void given_whole_months_when_aggregate_by_month_then_read_rollups_instead_of_expenses() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.hasCompleteRollups(budgetId))
+                    .thenReturn(true);
+            when(rollupRepository.findMonthRange(budgetId, "2021-01", "2022-01", ExpenseMonthlyRollupRepository.MONTH_ORDER))
+                    .thenReturn(List.of(
+                            new ExpenseMonthlyRollup().setMonth("2021-01").setCount(4).setSum(10.0).setMin(1.0).setMax(4.0),
+                            new ExpenseMonthlyRollup().setMonth("2021-02").setCount(0).setSum(0.0),
+                            new ExpenseMonthlyRollup().setMonth("2021-03").setCount(1).setSum(5.0).setMin(5.0).setMax(5.0)));
+            // When:
+            OASExpenseAggregation aggregation = expenseService.aggregateExpenses(
+                    budgetId, "month", Instant.parse("2021-01-01T00:00:00Z"), Instant.parse("2022-01-01T00:00:00Z"));
+            // Then:
+            assertThat(aggregation.getPeriods()).extracting(OASExpensePeriodAggregate::getStart)
+                    .containsExactly(Instant.parse("2021-01-01T00:00:00Z"), Instant.parse("2021-03-01T00:00:00Z"));
+            assertThat(aggregation.getPeriods().get(0).getAverage()).isEqualTo(2.5);
+            verify(expenseRepository, never()).aggregateByBudgetId(any(), any(), any(), any());
+        }
+
+        @Test
+        void given_rollups_not_complete_when_aggregate_by_month_then_use_the_pipeline() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Instant from = Instant.parse("2021-01-01T00:00:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.hasCompleteRollups(budgetId))
+                    .thenReturn(false);
+            when(expenseRepository.aggregateByBudgetId(budgetId, "month", from, null))
+                    .thenReturn(List.of());
+            // When:
+            expenseService.aggregateExpenses(budgetId, "month", from, null);
+            // Then:
+            verify(expenseRepository).aggregateByBudgetId(budgetId, "month", from, null);
+            verify(rollupRepository, never()).findMonthRange(any(), any(), any(), any());
+        }
+
+        @Test
+        void given_range_within_a_month_when_aggregate_by_month_then_use_the_pipeline() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Instant from = Instant.parse("2021-01-15T00:00:00Z");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.aggregateByBudgetId(budgetId, "month", from, null))
+                    .thenReturn(List.of());
+            // When:
+            expenseService.aggregateExpenses(budgetId, "month", from, null);
+            // Then:
+            verify(rollupRepository, never()).findMonthRange(any(), any(), any(), any());
+        }
+
+        @Test
+        void given_unknown_groupBy_when_aggregate_then_throw_before_querying() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            // When:
+            Throwable throwable = catchThrowable(() -> expenseService.aggregateExpenses(budgetId, "year", null, null));
+            // Then:
+            assertThat(throwable).isInstanceOf(BadRequestException.class);
+            verify(budgetRepository, never()).existsById(budgetId);
+        }
+    }
+
     @Nested
     class SearchTests {
         @Test
@@ -178,8 +542,8 @@ class ExpenseServiceTests {
                     .setBudgetId(randomUUID)
                     .setId(expenseId)
                     .setComment("testComment");
-            when(budgetRepository.findById(randomUUID))
-                    .thenReturn(Optional.of(new Budget().setId(randomUUID)));
+            when(budgetRepository.existsById(randomUUID))
+                    .thenReturn(true);
             when(expenseRepository.findByIdAndBudgetId(expenseId, randomUUID))
                     .thenReturn(Optional.of(mockedExpense));
             // When:
@@ -193,8 +557,8 @@ class ExpenseServiceTests {
             // Given:
             String budgetId = UUID.randomUUID().toString();
             String expenseId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
                     .thenReturn(Optional.empty());
             // When:
@@ -208,8 +572,8 @@ class ExpenseServiceTests {
         void given_findBy_idAndBudgetId_when_budget_not_found_then_throw() {
             // Given:
             String budgetId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.empty());
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
             // When:
             Throwable throwable = catchThrowable(
                     () -> expenseService.findByIdAndBudgetIdOrThrow(UUID.randomUUID().toString(), budgetId));
@@ -221,11 +585,11 @@ class ExpenseServiceTests {
         void given_findAll_by_budgetId_when_expenses_not_found_then_return_empty_items() {
             // Given:
             ArrayList<Expense> expenseList = new ArrayList<>();
-            Pageable pageable = PageRequest.of(0, 100);
+            Pageable pageable = PageRequest.of(0, 100, ExpenseRepository.PAGE_ORDER);
             Page<Expense> page = new PageImpl<>(expenseList, pageable, 0);
             String randomBudgetId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(randomBudgetId))
-                    .thenReturn(Optional.of(new Budget().setId(randomBudgetId)));
+            when(budgetRepository.existsById(randomBudgetId))
+                    .thenReturn(true);
             when(expenseRepository.findAllByBudgetId(randomBudgetId, pageable))
                     .thenReturn(page);
             // When:
@@ -238,11 +602,11 @@ class ExpenseServiceTests {
         void given_findAll_by_budgetId_when_budget_not_found_then_throw() {
             // Given:
             ArrayList<Expense> expenseList = new ArrayList<>();
-            Pageable pageable = PageRequest.of(0, 100);
+            Pageable pageable = PageRequest.of(0, 100, ExpenseRepository.PAGE_ORDER);
             Page<Expense> page = new PageImpl<>(expenseList, pageable, 0);
             String randomBudgetId = UUID.randomUUID().toString();
-            when(budgetRepository.findById(randomBudgetId))
-                    .thenReturn(Optional.empty());
+            when(budgetRepository.existsById(randomBudgetId))
+                    .thenReturn(false);
             when(expenseRepository.findAllByBudgetId(randomBudgetId, pageable))
                     .thenReturn(page);
             // When:
@@ -258,10 +622,10 @@ class ExpenseServiceTests {
             ArrayList<Expense> expenseList = new ArrayList<>();
             expenseList.add(new Expense().setBudgetId(randomBudgetId));
             expenseList.add(new Expense().setBudgetId(randomBudgetId));
-            Pageable pageable = PageRequest.of(0, 100);
+            Pageable pageable = PageRequest.of(0, 100, ExpenseRepository.PAGE_ORDER);
             Page<Expense> page = new PageImpl<>(expenseList, pageable, 0);
-            when(budgetRepository.findById(randomBudgetId))
-                    .thenReturn(Optional.of(new Budget().setId(randomBudgetId)));
+            when(budgetRepository.existsById(randomBudgetId))
+                    .thenReturn(true);
             when(expenseRepository.findAllByBudgetId(randomBudgetId, pageable))
                     .thenReturn(page);
             // When:
@@ -270,5 +634,136 @@ class ExpenseServiceTests {
             assertThat(pageWithExpenses.getItems()).hasSize(2);
             pageWithExpenses.getItems().forEach((expense) -> assertThat(expense.getBudgetId()).isEqualTo(randomBudgetId));
         }
+
+        @Test
+        void given_findAll_by_budgetId_without_totals_when_more_expenses_left_then_skip_count() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Pageable pageable = PageRequest.of(0, 1, ExpenseRepository.PAGE_ORDER);
+            Expense expense = new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId)
+                    .setCreated(Instant.parse("2021-01-30T08:30:00Z"));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.findSliceByBudgetId(budgetId, pageable))
+                    .thenReturn(new SliceImpl<>(List.of(expense), pageable, true));
+            // When:
+            OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, pageable, "false");
+            // Then:
+            assertThat(expensePage.getItems()).hasSize(1);
+            assertThat(expensePage.getMeta().getTotalElements()).isNull();
+            assertThat(expensePage.getMeta().getTotalPages()).isNull();
+            assertThat(expensePage.getMeta().getNextCursor()).isNotNull();
+            verify(expenseRepository, never()).findAllByBudgetId(any(), any());
+        }
+
+        @Test
+        void given_findAll_by_budgetId_with_estimated_totals_then_read_counter() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Pageable pageable = PageRequest.of(0, 2, ExpenseRepository.PAGE_ORDER);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.findSliceByBudgetId(budgetId, pageable))
+                    .thenReturn(new SliceImpl<>(List.of(new Expense(), new Expense()), pageable, true));
+            when(budgetTotalsRepository.countExpenses(budgetId))
+                    .thenReturn(Optional.of(5L));
+            // When:
+            OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, pageable, "estimated");
+            // Then:
+            assertThat(expensePage.getMeta().getTotalElements()).isEqualTo(5);
+            assertThat(expensePage.getMeta().getTotalPages()).isEqualTo(3);
+            verify(expenseRepository, never()).countByBudgetId(budgetId);
+        }
+
+        @Test
+        void given_unseeded_counters_when_findAll_with_estimated_totals_then_count_exactly() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Pageable pageable = PageRequest.of(0, 2, ExpenseRepository.PAGE_ORDER);
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.findSliceByBudgetId(budgetId, pageable))
+                    .thenReturn(new SliceImpl<>(List.of(new Expense(), new Expense()), pageable, true));
+            when(budgetTotalsRepository.countExpenses(budgetId))
+                    .thenReturn(Optional.empty());
+            when(expenseRepository.countByBudgetId(budgetId))
+                    .thenReturn(7L);
+            // When:
+            OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, pageable, "estimated");
+            // Then:
+            assertThat(expensePage.getMeta().getTotalElements()).isEqualTo(7);
+            assertThat(expensePage.getMeta().getTotalPages()).isEqualTo(4);
+        }
+
+        @Test
+        void given_findAll_by_budgetId_after_cursor_when_more_expenses_left_then_return_next_cursor() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            ExpenseCursor cursor = new ExpenseCursor(Instant.parse("2021-01-30T08:30:00Z"), UUID.randomUUID().toString());
+            Expense first = new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId)
+                    .setCreated(Instant.parse("2021-01-30T08:29:00Z"));
+            Expense second = new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId)
+                    .setCreated(Instant.parse("2021-01-30T08:28:00Z"));
+            Expense third = new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId)
+                    .setCreated(Instant.parse("2021-01-30T08:27:00Z"));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.findAllByBudgetIdAfter(budgetId, cursor, 3))
+                    .thenReturn(List.of(first, second, third));
+            // When:
+            OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, cursor.encode(), 2);
+            // Then:
+            assertThat(expensePage.getItems()).hasSize(2);
+            assertThat(expensePage.getMeta().getTotalElements()).isNull();
+            assertThat(ExpenseCursor.decode(expensePage.getMeta().getNextCursor()))
+                    .isEqualTo(new ExpenseCursor(second.getCreated(), second.getId()));
+        }
+
+        @Test
+        void given_undated_legacy_expense_last_on_page_when_findAll_after_cursor_then_next_cursor_has_no_created() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Expense dated = new Expense().setId("b").setBudgetId(budgetId)
+                    .setCreated(Instant.parse("2021-01-30T08:29:00Z"));
+            Expense undated = new Expense().setId("a").setBudgetId(budgetId);
+            ExpenseCursor cursor = new ExpenseCursor(Instant.parse("2021-01-30T08:30:00Z"), "c");
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.findAllByBudgetIdAfter(budgetId, cursor, 3))
+                    .thenReturn(List.of(dated, undated, new Expense().setId("0").setBudgetId(budgetId)));
+            // When:
+            OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, cursor.encode(), 2);
+            // Then:
+            assertThat(ExpenseCursor.decode(expensePage.getMeta().getNextCursor()))
+                    .isEqualTo(new ExpenseCursor(null, "a"));
+        }
+
+        @Test
+        void given_findAll_by_budgetId_after_cursor_when_last_page_then_no_next_cursor() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            ExpenseCursor cursor = new ExpenseCursor(Instant.parse("2021-01-30T08:30:00Z"), UUID.randomUUID().toString());
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(expenseRepository.findAllByBudgetIdAfter(budgetId, cursor, 3))
+                    .thenReturn(List.of(new Expense().setBudgetId(budgetId)));
+            // When:
+            OASExpensePage expensePage = expenseService.findAllExpensesByBudgetId(budgetId, cursor.encode(), 2);
+            // Then:
+            assertThat(expensePage.getItems()).hasSize(1);
+            assertThat(expensePage.getMeta().getNextCursor()).isNull();
+        }
+
+        @Test
+        void given_findAll_by_budgetId_when_cursor_is_malformed_then_throw() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            // When:
+            Throwable throwable = catchThrowable(() -> expenseService.findAllExpensesByBudgetId(budgetId, "not a cursor", 2));
+            // Then:
+            assertThat(throwable).isInstanceOf(BadRequestException.class);
+        }
     }
 }
@@ -0,0 +1,169 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.exception.ExpenseNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.ReactiveBudgetTotalsRepository;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseCreation;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveExpenseServiceTest {
+
+    private ReactiveExpenseRepository expenseRepository;
+    private ReactiveBudgetRepository budgetRepository;
+    private ReactiveBudgetTotalsRepository budgetTotalsRepository;
+    private ReactiveExpenseMonthlyRollupRepository rollupRepository;
+    private ReactiveExpenseService expenseService;
+
+    @BeforeEach
+    void setup() {
+        expenseRepository = mock(ReactiveExpenseRepository.class);
+        budgetRepository = mock(ReactiveBudgetRepository.class);
+        budgetTotalsRepository = mock(ReactiveBudgetTotalsRepository.class);
+        rollupRepository = mock(ReactiveExpenseMonthlyRollupRepository.class);
+        expenseService = new ReactiveExpenseService(expenseRepository, budgetRepository, budgetTotalsRepository, new ExpenseMapper(),
+                new ObjectMapper(), new ExpenseExportProperties(), rollupRepository);
+    }
+
+    @Test
+    void given_missing_budget_when_find_expense_then_error_and_expense_is_not_queried() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        String expenseId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(false));
+        when(expenseRepository.findByIdAndBudgetId(expenseId, budgetId))
+                .thenReturn(Mono.just(new Expense().setId(expenseId)));
+        // Then:
+        StepVerifier.create(expenseService.findExpense(expenseId, budgetId))
+                .expectError(BudgetNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void given_nothing_deleted_when_remove_expense_then_error_and_totals_untouched() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        String expenseId = UUID.randomUUID().toString();
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(true));
+        when(expenseRepository.removeByIdAndBudgetId(expenseId, budgetId))
+                .thenReturn(Mono.empty());
+        // Then:
+        StepVerifier.create(expenseService.removeExpenseFromBudgetOrThrow(expenseId, budgetId))
+                .expectError(ExpenseNotFoundException.class)
+                .verify();
+        verify(budgetTotalsRepository, never()).incrementExpenses(any(), anyLong(), anyDouble(), any());
+    }
+
+    @Test
+    void given_valid_expense_when_save_then_totals_are_incremented() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        OASExpenseCreation expenseCreation = new OASExpenseCreation()
+                .budgetId(budgetId)
+                .amount(10.0)
+                .comment("testComment");
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(true));
+        when(expenseRepository.save(any(Expense.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(budgetTotalsRepository.incrementExpenses(eq(budgetId), eq(1L), eq(10.0), any(Instant.class)))
+                .thenReturn(Mono.empty());
+        when(rollupRepository.add(eq(budgetId), any(Expense.class)))
+                .thenReturn(Mono.empty());
+        // Then:
+        StepVerifier.create(expenseService.saveExpense(expenseCreation, budgetId))
+                .assertNext(createdExpense -> {
+                    assertThat(createdExpense.getId()).isNotNull();
+                    assertThat(createdExpense.getBudgetId()).isEqualTo(budgetId);
+                })
+                .verifyComplete();
+        verify(budgetTotalsRepository).incrementExpenses(eq(budgetId), eq(1L), eq(10.0), any(Instant.class));
+        verify(rollupRepository).add(eq(budgetId), argThat(expense -> expense.getAmount() == 10.0));
+    }
+
+    @Test
+    void given_more_results_than_limit_when_find_by_cursor_then_return_next_cursor() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        ExpenseCursor after = new ExpenseCursor(Instant.ofEpochMilli(3), "c");
+        List<Expense> expenses = List.of(
+                new Expense().setId("b").setBudgetId(budgetId).setCreated(Instant.ofEpochMilli(2)),
+                new Expense().setId("a").setBudgetId(budgetId).setCreated(Instant.ofEpochMilli(1)));
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(true));
+        when(expenseRepository.findAllByBudgetIdAfter(budgetId, after, 2))
+                .thenReturn(Flux.fromIterable(expenses));
+        // Then:
+        StepVerifier.create(expenseService.findAllExpensesByBudgetId(budgetId, after.encode(), 1))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(1);
+                    assertThat(page.getMeta().getNextCursor()).isEqualTo(ExpenseCursor.of(expenses.get(0)).encode());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void given_no_totals_requested_when_find_page_then_count_is_not_queried() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        PageRequest pageRequest = PageRequest.of(0, 2, ExpenseRepository.PAGE_ORDER);
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(true));
+        when(expenseRepository.findSliceByBudgetId(eq(budgetId), any()))
+                .thenReturn(Mono.just(new SliceImpl<>(List.of(new Expense().setId("a")), pageRequest, false)));
+        // Then:
+        StepVerifier.create(expenseService.findAllExpensesByBudgetId(budgetId, PageRequest.of(0, 2), "false"))
+                .assertNext(page -> assertThat(page.getMeta().getTotalElements()).isNull())
+                .verifyComplete();
+        verify(expenseRepository, never()).countByBudgetId(any());
+    }
+
+    @Test
+    void given_expenses_when_export_as_csv_then_header_and_escaped_lines_are_emitted() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        Instant created = Instant.parse("2021-01-30T08:30:00Z");
+        when(budgetRepository.existsById(budgetId))
+                .thenReturn(Mono.just(true));
+        when(expenseRepository.findAllByBudgetIdCreatedBetween(budgetId, created, null, 1000))
+                .thenReturn(Flux.just(new Expense().setId("1").setBudgetId(budgetId).setAmount(2.5)
+                        .setComment("fish, \"chips\"").setCreated(created)));
+        // Then:
+        StepVerifier.create(expenseService.exportExpenses(budgetId, created, null, ExpenseExportFormat.CSV).flatMapMany(lines -> lines))
+                .expectNext("id,budgetId,amount,comment,created\r\n")
+                .expectNext("1," + budgetId + ",2.5,\"fish, \"\"chips\"\"\",2021-01-30T08:30:00Z\r\n")
+                .verifyComplete();
+    }
+
+    @Test
+    void given_inverted_created_range_when_export_then_error_and_budget_is_not_queried() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        // Then:
+        StepVerifier.create(expenseService.exportExpenses(budgetId, now, now.minusSeconds(1), ExpenseExportFormat.NDJSON))
+                .expectError(BadRequestException.class)
+                .verify();
+        verify(budgetRepository, never()).existsById(budgetId);
+    }
+}
@@ -11,16 +11,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
+import pl.konradboniecki.budget.budgetmanagement.exception.JarConflictException;
 import pl.konradboniecki.budget.budgetmanagement.exception.JarCreationException;
 import pl.konradboniecki.budget.budgetmanagement.exception.JarNotFoundException;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
 import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
 import pl.konradboniecki.budget.openapi.dto.model.*;
+import pl.konradboniecki.chassis.exceptions.BadRequestException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -41,6 +46,8 @@ class JarServiceTests {
     private JarRepository jarRepository;
     @MockBean
     private BudgetRepository budgetRepository;
+    @MockBean
+    private BudgetTotalsRepository budgetTotalsRepository;
     @Autowired
     private JarService jarService;
 
@@ -58,8 +65,8 @@ class JarServiceTests {
                     .jarName("name");
             when(jarRepository.save(any(Jar.class)))
                     .thenReturn(new JarMapper().toJar(jarCreation));
-            when(budgetRepository.findById(consistentBudgetId))
-                    .thenReturn(Optional.of(new Budget().setId(consistentBudgetId)));
+            when(budgetRepository.existsById(consistentBudgetId))
+                    .thenReturn(true);
             // When:
             OASCreatedJar savedJar = jarService.saveJar(jarCreation, consistentBudgetId);
             // Then:
@@ -96,13 +103,11 @@ class JarServiceTests {
                     .setId(jarId)
                     .setBudgetId(budgetId)
                     .setJarName("initialJarName");
-            when(jarRepository.findByIdAndBudgetId(jarId, budgetId))
-                    .thenReturn(Optional.of(previousJar));
             Jar mockedUpdatedJar = new Jar()
                     .setId(jarId)
                     .setBudgetId(budgetId)
                     .setJarName(newName);
-            when(jarRepository.save(any(Jar.class))).thenReturn(mockedUpdatedJar);
+            when(jarRepository.setFields(any(Jar.class))).thenReturn(Optional.of(mockedUpdatedJar));
             // When:
             OASJarModification jarModification = new OASJarModification()
                     .id(jarId)
@@ -116,6 +121,67 @@ class JarServiceTests {
             assertThat(updatedJar.getJarName()).isEqualTo(newName);
         }
 
+        @Test
+        void given_modification_of_one_field_when_update_then_set_only_that_field_without_read() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            Jar storedJar = new Jar().setId(jarId).setBudgetId(budgetId).setJarName("renamed").setCapacity(10.0).setVersion(2L);
+            when(jarRepository.setFields(any(Jar.class))).thenReturn(Optional.of(storedJar));
+            OASJarModification jarModification = new OASJarModification()
+                    .id(jarId)
+                    .budgetId(budgetId)
+                    .jarName("renamed");
+            // When:
+            OASJar updatedJar = jarService.updateJar(jarId, budgetId, jarModification);
+            // Then:
+            assertThat(updatedJar.getJarName()).isEqualTo("renamed");
+            assertThat(updatedJar.getCapacity()).isEqualTo(10.0);
+            verify(jarRepository).setFields(argThat(jar -> jar.getCapacity() == null && "renamed".equals(jar.getJarName())));
+            verify(jarRepository, never()).findByIdAndBudgetId(jarId, budgetId);
+            verify(budgetTotalsRepository).incrementChangeVersion(budgetId);
+        }
+
+        @Test
+        void given_stale_version_when_update_then_conflict_with_current_jar() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            when(jarRepository.setFields(any(Jar.class))).thenReturn(Optional.empty());
+            when(jarRepository.findByIdAndBudgetId(jarId, budgetId))
+                    .thenReturn(Optional.of(new Jar().setId(jarId).setBudgetId(budgetId).setCapacity(30.0).setVersion(3L)));
+            OASJarModification jarModification = new OASJarModification()
+                    .id(jarId)
+                    .budgetId(budgetId)
+                    .capacity(20.0)
+                    .version(2L);
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.updateJar(jarId, budgetId, jarModification));
+            // Then:
+            assertThat(throwable).isInstanceOf(JarConflictException.class);
+            OASJar currentJar = ((JarConflictException) throwable).getCurrentJar();
+            assertThat(currentJar.getCapacity()).isEqualTo(30.0);
+            assertThat(currentJar.getVersion()).isEqualTo(3L);
+            verify(budgetTotalsRepository, never()).incrementChangeVersion(any());
+        }
+
+        @Test
+        void given_missing_jar_when_update_then_throw_not_found_without_read() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            when(jarRepository.setFields(any(Jar.class))).thenReturn(Optional.empty());
+            OASJarModification jarModification = new OASJarModification()
+                    .id(jarId)
+                    .budgetId(budgetId)
+                    .capacity(20.0);
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.updateJar(jarId, budgetId, jarModification));
+            // Then:
+            assertThat(throwable).isInstanceOf(JarNotFoundException.class);
+            verify(jarRepository, never()).findByIdAndBudgetId(jarId, budgetId);
+        }
+
         @Test
         void given_different_budgetId_in_body_and_path_when_update_then_throw() {
             // Given:
@@ -132,6 +198,64 @@ class JarServiceTests {
         }
     }
 
+    @Nested
+    class AmountChangeTests {
+        @Test
+        void given_amount_when_deposit_then_return_jar_after_single_update() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            Jar jarAfterDeposit = new Jar().setId(jarId).setBudgetId(budgetId).setCapacity(10.0).setCurrentAmount(10.0);
+            when(jarRepository.addToCurrentAmount(jarId, budgetId, 4.0))
+                    .thenReturn(Optional.of(jarAfterDeposit));
+            // When:
+            OASJar jar = jarService.depositToJar(jarId, budgetId, new OASJarAmount().amount(4.0));
+            // Then:
+            assertThat(jar.getCurrentAmount()).isEqualTo(10.0);
+            assertThat(jar.getStatus()).isEqualTo("COMPLETED");
+            verify(jarRepository, never()).findByIdAndBudgetId(any(), any());
+            verify(budgetTotalsRepository).incrementChangeVersion(budgetId);
+        }
+
+        @Test
+        void given_missing_jar_when_deposit_then_throw() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            when(jarRepository.addToCurrentAmount(jarId, budgetId, 4.0))
+                    .thenReturn(Optional.empty());
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.depositToJar(jarId, budgetId, new OASJarAmount().amount(4.0)));
+            // Then:
+            assertThat(throwable).isInstanceOf(JarNotFoundException.class);
+        }
+
+        @Test
+        void given_amount_over_current_amount_when_withdraw_then_conflict_with_current_jar() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            String jarId = UUID.randomUUID().toString();
+            when(jarRepository.addToCurrentAmount(jarId, budgetId, -5.0))
+                    .thenReturn(Optional.empty());
+            when(jarRepository.findByIdAndBudgetId(jarId, budgetId))
+                    .thenReturn(Optional.of(new Jar().setId(jarId).setBudgetId(budgetId).setCapacity(10.0).setCurrentAmount(3.0)));
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.withdrawFromJar(jarId, budgetId, new OASJarAmount().amount(5.0)));
+            // Then:
+            assertThat(throwable).isInstanceOf(JarConflictException.class);
+            assertThat(((JarConflictException) throwable).getCurrentJar().getCurrentAmount()).isEqualTo(3.0);
+        }
+
+        @Test
+        void given_non_positive_amount_when_withdraw_then_bad_request() {
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.withdrawFromJar("jarId", "budgetId", new OASJarAmount().amount(-1.0)));
+            // Then:
+            assertThat(throwable).isInstanceOf(BadRequestException.class);
+            verify(jarRepository, never()).addToCurrentAmount(any(), any(), anyDouble());
+        }
+    }
+
     @Nested
     class DeletionTests {
         @Test
@@ -165,8 +289,8 @@ class JarServiceTests {
             String jarId = UUID.randomUUID().toString();
             when(jarRepository.deleteJarByIdAndBudgetId(jarId, budgetId))
                     .thenReturn(1L);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // When:
             Throwable throwable = catchThrowable(() -> jarService.removeJarFromBudgetOrThrow(jarId, budgetId));
             // Then:
@@ -180,8 +304,8 @@ class JarServiceTests {
             String jarId = UUID.randomUUID().toString();
             when(jarRepository.deleteJarByIdAndBudgetId(jarId, budgetId))
                     .thenReturn(0L);
-            when(budgetRepository.findById(budgetId))
-                    .thenReturn(Optional.of(new Budget().setId(budgetId)));
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
             // When:
             Throwable throwable = catchThrowable(() -> jarService.removeJarFromBudgetOrThrow(jarId, budgetId));
             // Then:
@@ -196,7 +320,7 @@ class JarServiceTests {
             // Given:
             String budgetId = UUID.randomUUID().toString();
             ArrayList<Jar> jarList = new ArrayList<>();
-            Pageable pageable = PageRequest.of(0, 100);
+            Pageable pageable = PageRequest.of(0, 100, JarRepository.PAGE_ORDER);
             Page<Jar> page = new PageImpl<>(jarList, pageable, 0);
             when(jarRepository.findAllByBudgetId(budgetId, pageable))
                     .thenReturn(page);
@@ -216,7 +340,7 @@ class JarServiceTests {
             jarList.add(new Jar().setId(UUID.randomUUID().toString()));
             jarList.add(new Jar().setId(UUID.randomUUID().toString()));
             String budgetId = UUID.randomUUID().toString();
-            Pageable pageable = PageRequest.of(0, 100);
+            Pageable pageable = PageRequest.of(0, 100, JarRepository.PAGE_ORDER);
             Page<Jar> page = new PageImpl<>(jarList, pageable, 2);
             when(jarRepository.findAllByBudgetId(budgetId, pageable))
                     .thenReturn(page);
@@ -229,6 +353,135 @@ class JarServiceTests {
             assertThat(pageWithJars.getMeta().getTotalElements()).isEqualTo(2);
         }
 
+        @Test
+        void given_findAll_by_budgetId_when_includeTotals_is_invalid_then_throw() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Pageable pageable = PageRequest.of(0, 100);
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.findAllJarsByBudgetId(budgetId, pageable, "maybe"));
+            // Then:
+            assertThat(throwable).isInstanceOf(BadRequestException.class);
+        }
+
+        @Test
+        void given_findAll_by_budgetId_after_cursor_when_more_jars_left_then_return_next_cursor() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            JarCursor cursor = new JarCursor("a");
+            List<Jar> jarList = List.of(
+                    new Jar().setId("b").setBudgetId(budgetId),
+                    new Jar().setId("c").setBudgetId(budgetId),
+                    new Jar().setId("d").setBudgetId(budgetId));
+            when(jarRepository.findAllByBudgetIdAfter(budgetId, null, cursor, 3))
+                    .thenReturn(jarList);
+            // When:
+            OASJarPage pageWithJars = jarService.findAllJarsByBudgetId(budgetId, cursor.encode(), 2);
+            // Then:
+            assertThat(pageWithJars.getItems()).hasSize(2);
+            assertThat(pageWithJars.getMeta().getElements()).isEqualTo(2);
+            assertThat(JarCursor.decode(pageWithJars.getMeta().getNextCursor())).isEqualTo(new JarCursor("c"));
+        }
+
+        @Test
+        void given_status_filter_when_findAll_with_estimated_totals_then_query_stored_status_and_count_it() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            Pageable pageable = PageRequest.of(0, 100, JarRepository.PAGE_ORDER);
+            List<Jar> jarList = List.of(new Jar().setId("a").setBudgetId(budgetId).setCapacity(10.0).setCurrentAmount(5.0));
+            when(jarRepository.findSliceByBudgetIdAndStatus(budgetId, "IN PROGRESS", pageable))
+                    .thenReturn(new SliceImpl<>(jarList, pageable, false));
+            when(jarRepository.countByStatus(budgetId))
+                    .thenReturn(Map.of("IN PROGRESS", 1L, "COMPLETED", 4L));
+            // When:
+            OASJarPage pageWithJars = jarService.findAllJarsByBudgetId(budgetId, pageable, "estimated", "IN_PROGRESS");
+            // Then:
+            assertThat(pageWithJars.getItems()).extracting(OASJar::getStatus).containsExactly("IN PROGRESS");
+            assertThat(pageWithJars.getMeta().getTotalElements()).isEqualTo(1);
+            verify(budgetTotalsRepository, never()).countJars(budgetId);
+        }
+
+        @Test
+        void given_unknown_status_when_findAll_then_throw_before_querying() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.findAllJarsByBudgetId(budgetId, "cursor", 2, "IN PROGRESS"));
+            // Then:
+            assertThat(throwable).isInstanceOf(BadRequestException.class);
+            verifyNoInteractions(jarRepository);
+        }
+
+        @Test
+        void given_statuses_without_jars_when_count_by_status_then_they_are_zero() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(jarRepository.countByStatus(budgetId))
+                    .thenReturn(Map.of("COMPLETED", 3L));
+            // When:
+            OASJarStatusCounts counts = jarService.findJarStatusCounts(budgetId);
+            // Then:
+            assertThat(counts.getNotStarted()).isZero();
+            assertThat(counts.getInProgress()).isZero();
+            assertThat(counts.getCompleted()).isEqualTo(3L);
+        }
+
+        @Test
+        void given_changed_budget_when_find_list_etag_then_weak_etag_of_change_version_without_querying_jars() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(7L);
+            // When:
+            String eTag = jarService.findListETag(budgetId, null, "true", null);
+            // Then:
+            assertThat(eTag).isEqualTo("W/\"7\"");
+            verifyNoInteractions(jarRepository);
+        }
+
+        @Test
+        void given_budget_without_changes_when_find_list_etag_then_null() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(true);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(0L);
+            // When:
+            String eTag = jarService.findListETag(budgetId, null, "true", null);
+            // Then:
+            assertThat(eTag).isNull();
+        }
+
+        @Test
+        void given_missing_budget_when_find_list_etag_then_null() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            when(budgetRepository.existsById(budgetId))
+                    .thenReturn(false);
+            when(budgetTotalsRepository.findChangeVersion(budgetId))
+                    .thenReturn(7L);
+            // When:
+            String eTag = jarService.findListETag(budgetId, null, "true", null);
+            // Then:
+            assertThat(eTag).isNull();
+        }
+
+        @Test
+        void given_invalid_status_when_find_list_etag_then_throw_before_reading_change_version() {
+            // Given:
+            String budgetId = UUID.randomUUID().toString();
+            // When:
+            Throwable throwable = catchThrowable(() -> jarService.findListETag(budgetId, null, "true", "EMPTY"));
+            // Then:
+            assertThat(throwable).isInstanceOf(BadRequestException.class);
+            verifyNoInteractions(budgetTotalsRepository);
+        }
+
         @Test
         void given_findJar_when_jar_found_then_returned() {
             // Given:
@@ -0,0 +1,156 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.overview;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import pl.konradboniecki.budget.budgetmanagement.exception.BudgetNotFoundException;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotalsRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetOverview;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class BudgetOverviewServiceTest {
+
+    private BudgetRepository budgetRepository;
+    private JarRepository jarRepository;
+    private ExpenseRepository expenseRepository;
+    private BudgetTotalsRepository budgetTotalsRepository;
+    private BudgetOverviewService overviewService;
+
+    @BeforeEach
+    void setup() {
+        budgetRepository = mock(BudgetRepository.class);
+        jarRepository = mock(JarRepository.class);
+        expenseRepository = mock(ExpenseRepository.class);
+        budgetTotalsRepository = mock(BudgetTotalsRepository.class);
+        BudgetOverviewProperties properties = new BudgetOverviewProperties();
+        properties.setThreads(4);
+        properties.setTimeout(Duration.ofMillis(500));
+        properties.setJarLimit(1);
+        overviewService = new BudgetOverviewService(budgetRepository, jarRepository, expenseRepository, budgetTotalsRepository,
+                new BudgetMapper(), new JarMapper(), new ExpenseMapper(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        overviewService.destroy();
+    }
+
+    @Test
+    void given_budget_when_find_overview_then_queries_run_concurrently() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        CountDownLatch allStarted = new CountDownLatch(4);
+        when(budgetRepository.findById(budgetId))
+                .thenAnswer(invocation -> arrive(allStarted, Optional.of(new Budget().setId(budgetId).setMaxJars(6L))));
+        when(jarRepository.findFirstPage(budgetId, 2, Duration.ofMillis(500)))
+                .thenAnswer(invocation -> arrive(allStarted, List.of(
+                        new Jar().setId("jar-1").setBudgetId(budgetId),
+                        new Jar().setId("jar-2").setBudgetId(budgetId))));
+        when(expenseRepository.findFirstPage(budgetId, 11, Duration.ofMillis(500)))
+                .thenAnswer(invocation -> arrive(allStarted, List.of(new Expense().setId("expense-1").setBudgetId(budgetId))));
+        when(budgetTotalsRepository.findExpenseTotals(budgetId))
+                .thenAnswer(invocation -> arrive(allStarted, new BudgetTotals().setId(budgetId).setExpenses(1L).setExpenseAmount(5.0)));
+        // When:
+        OASBudgetOverview overview = overviewService.findOverview(budgetId);
+        // Then:
+        assertThat(overview.getBudget().getId()).isEqualTo(budgetId);
+        assertThat(overview.getJars().getItems()).hasSize(1);
+        assertThat(overview.getJars().getMeta().getNextCursor()).isNotNull();
+        assertThat(overview.getRecentExpenses().getItems()).hasSize(1);
+        assertThat(overview.getExpenseTotals().getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void given_missing_budget_when_find_overview_then_budget_not_found() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.findById(budgetId))
+                .thenReturn(Optional.empty());
+        when(budgetTotalsRepository.findExpenseTotals(budgetId))
+                .thenReturn(new BudgetTotals().setId(budgetId));
+        // Then:
+        assertThatThrownBy(() -> overviewService.findOverview(budgetId))
+                .isInstanceOf(BudgetNotFoundException.class);
+    }
+
+    @Test
+    void given_slow_query_when_find_overview_then_service_unavailable_after_timeout() {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        when(budgetRepository.findById(budgetId))
+                .thenReturn(Optional.of(new Budget().setId(budgetId)));
+        when(budgetTotalsRepository.findExpenseTotals(budgetId))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(5_000);
+                    return new BudgetTotals().setId(budgetId);
+                });
+        // When:
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> overviewService.findOverview(budgetId))
+                // Then:
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void given_full_pool_when_find_overview_then_queued_queries_are_cancelled() {
+        // Given:
+        BudgetOverviewProperties properties = new BudgetOverviewProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        BudgetOverviewService saturatedService = new BudgetOverviewService(budgetRepository, jarRepository, expenseRepository,
+                budgetTotalsRepository, new BudgetMapper(), new JarMapper(), new ExpenseMapper(), properties);
+        String budgetId = UUID.randomUUID().toString();
+        CountDownLatch release = new CountDownLatch(1);
+        when(budgetRepository.findById(budgetId))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return Optional.of(new Budget().setId(budgetId));
+                });
+        try {
+            // When:
+            assertThatThrownBy(() -> saturatedService.findOverview(budgetId))
+                    // Then:
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+            release.countDown();
+            verify(jarRepository, after(200).never()).findFirstPage(any(), anyInt(), any());
+        } finally {
+            release.countDown();
+            saturatedService.destroy();
+        }
+    }
+
+    private static <T> T arrive(CountDownLatch allStarted, T result) throws InterruptedException {
+        allStarted.countDown();
+        assertThat(allStarted.await(1, TimeUnit.SECONDS))
+                .as("all overview queries in flight at once")
+                .isTrue();
+        return result;
+    }
+}
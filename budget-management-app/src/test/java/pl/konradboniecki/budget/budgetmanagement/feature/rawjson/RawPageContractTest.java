@@ -0,0 +1,178 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.rawjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pl.konradboniecki.budget.budgetmanagement.BudgetManagementApplication;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+
+/**
+ * Serializes the same stored documents through the mapped page and through the raw page, with the
+ * application's object mapper, and requires the same bytes.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        classes = BudgetManagementApplication.class,
+        webEnvironment = WebEnvironment.NONE,
+        properties = "spring.cloud.config.enabled=false"
+)
+class RawPageContractTest {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MongoConverter mongoConverter;
+    @Autowired
+    private ExpenseMapper expenseMapper;
+    @Autowired
+    private JarMapper jarMapper;
+
+    @Test
+    void given_expense_slice_with_totals_then_raw_page_is_byte_identical() throws Exception {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        Pageable pageable = PageRequest.of(1, 2, ExpenseRepository.PAGE_ORDER);
+        List<RawBsonDocument> stored = List.of(
+                stored(new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId).setAmount(13.57)
+                        .setComment("kfc \"hot\" wings, żurek").setCreated(now()).setVersion(3L)),
+                stored(new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId).setAmount(100.0)
+                        .setCreated(now().minusSeconds(60))));
+        List<Expense> mapped = read(stored, Expense.class);
+        // When:
+        byte[] mappedJson = objectMapper.writeValueAsBytes(
+                expenseMapper.toOASExpensePage(new SliceImpl<>(mapped, pageable, true), 7L));
+        byte[] rawJson = objectMapper.writeValueAsBytes(
+                expenseMapper.toRawExpensePage(new SliceImpl<>(stored, pageable, true), 7L));
+        // Then:
+        assertThat(new String(rawJson)).isEqualTo(new String(mappedJson));
+        assertThat(rawJson).isEqualTo(mappedJson);
+    }
+
+    @Test
+    void given_expense_cursor_page_with_missing_fields_then_raw_page_is_byte_identical() throws Exception {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        Document withIntegerAmount = new Document("_id", UUID.randomUUID().toString())
+                .append("budgetId", budgetId)
+                .append("amount", 12)
+                .append("_class", Expense.class.getName());
+        List<RawBsonDocument> stored = List.of(
+                stored(new Expense().setId(UUID.randomUUID().toString()).setBudgetId(budgetId).setAmount(0.1)
+                        .setCreated(now()).setVersion(1L)),
+                new RawBsonDocument(withIntegerAmount, DOCUMENT_CODEC));
+        List<Expense> mapped = read(stored, Expense.class);
+        // When:
+        byte[] mappedJson = objectMapper.writeValueAsBytes(expenseMapper.toOASExpensePage(mapped, 2, false));
+        byte[] rawJson = objectMapper.writeValueAsBytes(expenseMapper.toRawExpensePage(stored, 2, false));
+        // Then:
+        assertThat(new String(rawJson)).isEqualTo(new String(mappedJson));
+        assertThat(rawJson).isEqualTo(mappedJson);
+    }
+
+    @Test
+    void given_empty_expense_page_then_raw_page_is_byte_identical() throws Exception {
+        // Given:
+        Pageable pageable = PageRequest.of(0, 10, ExpenseRepository.PAGE_ORDER);
+        // When:
+        byte[] mappedJson = objectMapper.writeValueAsBytes(
+                expenseMapper.toOASExpensePage(new SliceImpl<>(List.<Expense>of(), pageable, false), null));
+        byte[] rawJson = objectMapper.writeValueAsBytes(
+                expenseMapper.toRawExpensePage(new SliceImpl<>(List.<RawBsonDocument>of(), pageable, false), null));
+        // Then:
+        assertThat(rawJson).isEqualTo(mappedJson);
+    }
+
+    @Test
+    void given_jar_slice_with_next_page_then_raw_page_is_byte_identical() throws Exception {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        Pageable pageable = PageRequest.of(0, 3, JarRepository.PAGE_ORDER);
+        List<RawBsonDocument> stored = List.of(
+                stored(new Jar().setId(UUID.randomUUID().toString()).setBudgetId(budgetId).setJarName("Holidays")
+                        .setCapacity(1000.0).setCurrentAmount(250.5).setVersion(2L)),
+                stored(new Jar().setId(UUID.randomUUID().toString()).setBudgetId(budgetId).setJarName("Car")
+                        .setCapacity(50.0).setCurrentAmount(50.0)),
+                stored(new Jar().setId(UUID.randomUUID().toString()).setBudgetId(budgetId)));
+        List<Jar> mapped = read(stored, Jar.class);
+        // When:
+        byte[] mappedJson = objectMapper.writeValueAsBytes(
+                jarMapper.toOASJarPage(new SliceImpl<>(mapped, pageable, true), null));
+        byte[] rawJson = objectMapper.writeValueAsBytes(
+                jarMapper.toRawJarPage(new SliceImpl<>(stored, pageable, true), null));
+        // Then:
+        assertThat(new String(rawJson)).isEqualTo(new String(mappedJson));
+        assertThat(rawJson).isEqualTo(mappedJson);
+    }
+
+    @Test
+    void given_jars_stored_without_status_or_amounts_then_raw_page_is_byte_identical() throws Exception {
+        // Given:
+        String budgetId = UUID.randomUUID().toString();
+        Document withoutStatus = new Document("_id", UUID.randomUUID().toString())
+                .append("budgetId", budgetId)
+                .append("jarName", "legacy")
+                .append("currentAmount", 5)
+                .append("capacity", 10)
+                .append("_class", Jar.class.getName());
+        Document withoutAmounts = new Document("_id", UUID.randomUUID().toString())
+                .append("budgetId", budgetId)
+                .append("status", "COMPLETED")
+                .append("_class", Jar.class.getName());
+        List<RawBsonDocument> stored = List.of(
+                new RawBsonDocument(withoutStatus, DOCUMENT_CODEC),
+                new RawBsonDocument(withoutAmounts, DOCUMENT_CODEC));
+        List<Jar> mapped = read(stored, Jar.class);
+        // When:
+        byte[] mappedJson = objectMapper.writeValueAsBytes(jarMapper.toOASJarPage(mapped, 5, false));
+        byte[] rawJson = objectMapper.writeValueAsBytes(jarMapper.toRawJarPage(stored, 5, false));
+        // Then:
+        assertThat(new String(rawJson)).isEqualTo(new String(mappedJson));
+        assertThat(rawJson).isEqualTo(mappedJson);
+    }
+
+    private RawBsonDocument stored(Object entity) {
+        Document document = new Document();
+        mongoConverter.write(entity, document);
+        return new RawBsonDocument(document, DOCUMENT_CODEC);
+    }
+
+    /**
+     * Reads the documents the way the templates do, decoded to {@link Document} first.
+     */
+    private <T> List<T> read(List<RawBsonDocument> stored, Class<T> type) {
+        return stored.stream()
+                .map(document -> mongoConverter.read(type, DOCUMENT_CODEC.decode(document.asBsonReader(), DecoderContext.builder().build())))
+                .collect(Collectors.toList());
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
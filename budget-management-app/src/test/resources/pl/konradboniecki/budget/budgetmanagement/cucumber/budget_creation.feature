@@ -19,6 +19,12 @@ Feature: Budget Creation
       | {{my_family}} | 6       |
     Then budget is not created
 
+  Scenario: Concurrent creations for one family create only 1 budget
+    Given I'm authenticated with Basic Auth
+    And family racing_family doesn't have a budget
+    When I create 8 budgets for family racing_family concurrently
+    Then exactly 1 budget is created and the other creations conflict
+
   Scenario: Unauthorized user can't create budget
     Given I'm not authenticated
     When I create a budget for family any with properties:
@@ -12,6 +12,13 @@ Feature: Budget Deletion
     When I delete a budget for family my_family
     Then budget is deleted
 
+  Scenario: Jars and expenses of deleted budget are deleted in the background
+    Given I'm authenticated with Basic Auth
+    And budget of family my_family has 3 jars and 5 expenses
+    When I delete a budget for family my_family
+    Then budget is deleted
+    And deletion of the budget completes with 3 jars and 5 expenses deleted
+
   Scenario: Delete not existing budget
     Given I'm authenticated with Basic Auth
     When I delete a budget for family not_existing
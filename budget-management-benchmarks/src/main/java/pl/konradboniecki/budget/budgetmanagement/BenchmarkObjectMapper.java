@@ -0,0 +1,21 @@
+package pl.konradboniecki.budget.budgetmanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Object mapper configured like the one Spring Boot builds for the application, without starting
+ * a context in every benchmark fork.
+ */
+public final class BenchmarkObjectMapper {
+
+    private BenchmarkObjectMapper() {
+    }
+
+    public static ObjectMapper create() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package pl.konradboniecki.budget.budgetmanagement;
+
+import org.openjdk.jmh.annotations.*;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Existence checks and deletes used by the services, each next to the document load it replaced,
+ * against the database of {@link MongoBenchmarkContext}. Both delete variants insert the expense
+ * they delete. The bytes received per operation are printed at the end of every trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExistenceCheckBenchmark {
+
+    private MongoBenchmarkContext mongo;
+    private BudgetRepository budgetRepository;
+    private ExpenseRepository expenseRepository;
+    private String budgetId;
+    private String familyId;
+
+    @Setup
+    public void setUp() {
+        mongo = MongoBenchmarkContext.start();
+        budgetRepository = mongo.getBean(BudgetRepository.class);
+        expenseRepository = mongo.getBean(ExpenseRepository.class);
+        familyId = UUID.randomUUID().toString();
+        budgetId = budgetRepository.insert(new Budget()
+                .setId(UUID.randomUUID().toString())
+                .setFamilyId(familyId)
+                .setMaxJars(6L)).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        budgetRepository.deleteById(budgetId);
+        mongo.close();
+    }
+
+    @Benchmark
+    public Optional<Budget> findById(ReplyBytes replyBytes) {
+        return budgetRepository.findById(budgetId);
+    }
+
+    @Benchmark
+    public boolean existsById(ReplyBytes replyBytes) {
+        return budgetRepository.existsById(budgetId);
+    }
+
+    @Benchmark
+    public Optional<Budget> findByFamilyId(ReplyBytes replyBytes) {
+        return budgetRepository.findByFamilyId(familyId);
+    }
+
+    @Benchmark
+    public boolean existsByFamilyId(ReplyBytes replyBytes) {
+        return budgetRepository.existsByFamilyId(familyId);
+    }
+
+    @Benchmark
+    public void findAndDeleteExpense(ReplyBytes replyBytes) {
+        Expense expense = expenseRepository.insert(newExpense());
+        expenseRepository.findByIdAndBudgetId(expense.getId(), budgetId)
+                .ifPresent(found -> expenseRepository.deleteById(found.getId()));
+    }
+
+    @Benchmark
+    public Long deleteExpense(ReplyBytes replyBytes) {
+        Expense expense = expenseRepository.insert(newExpense());
+        return expenseRepository.deleteByIdAndBudgetId(expense.getId(), budgetId);
+    }
+
+    private Expense newExpense() {
+        return new Expense()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(budgetId)
+                .setAmount(10.0)
+                .setComment("benchmark expense with a comment of a realistic length")
+                .setCreated(Instant.now());
+    }
+}
@@ -0,0 +1,79 @@
+package pl.konradboniecki.budget.budgetmanagement;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application context started without a web server against a Mongo database, for the benchmarks
+ * of queries. Uses the database given with {@code -Dbenchmark.mongodb.uri}, otherwise starts a
+ * mongo:6.0 container for the trial. Counts the bytes of every command reply received, so that
+ * the benchmarks report what a query transfers next to how long it takes, see {@link ReplyBytes}.
+ */
+public final class MongoBenchmarkContext implements AutoCloseable {
+
+    private static final String URI_PROPERTY = "benchmark.mongodb.uri";
+    private static final AtomicLong responseBytes = new AtomicLong();
+
+    private final MongoDBContainer container;
+    private final ConfigurableApplicationContext context;
+
+    private MongoBenchmarkContext(MongoDBContainer container, String uri) {
+        this.container = container;
+        CommandListener responseSizeListener = new CommandListener() {
+            @Override
+            public void commandSucceeded(CommandSucceededEvent event) {
+                RawBsonDocument response = new RawBsonDocument(event.getResponse(), new BsonDocumentCodec());
+                responseBytes.addAndGet(response.getByteBuffer().remaining());
+            }
+        };
+        this.context = new SpringApplicationBuilder(BudgetManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton(
+                        "responseSizeListener",
+                        (MongoClientSettingsBuilderCustomizer) builder -> builder.addCommandListener(responseSizeListener)))
+                .properties(
+                        "spring.cloud.config.enabled=false",
+                        "spring.data.mongodb.uri=" + uri,
+                        "budget.totals.reconciliation.enabled=false",
+                        "budget.expenses.rollup.backfill.enabled=false")
+                .run();
+    }
+
+    public static MongoBenchmarkContext start() {
+        String uri = System.getProperty(URI_PROPERTY, "");
+        if (!uri.isBlank()) {
+            return new MongoBenchmarkContext(null, uri);
+        }
+        MongoDBContainer container = new MongoDBContainer("mongo:6.0");
+        container.start();
+        return new MongoBenchmarkContext(container, container.getReplicaSetUrl());
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * @return bytes of all command replies received in this JVM
+     */
+    public static long responseBytes() {
+        return responseBytes.get();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package pl.konradboniecki.budget.budgetmanagement;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Bytes of the Mongo replies received during each invocation, counted outside of the measured
+ * time and printed per operation at the end of the trial. Benchmarks of queries take it as a
+ * parameter.
+ */
+@State(Scope.Thread)
+public class ReplyBytes {
+
+    private long before;
+    private long received;
+    private long operations;
+
+    @Setup(Level.Invocation)
+    public void snapshot() {
+        before = MongoBenchmarkContext.responseBytes();
+    }
+
+    @TearDown(Level.Invocation)
+    public void count() {
+        received += MongoBenchmarkContext.responseBytes() - before;
+        operations++;
+    }
+
+    @TearDown
+    public void report(BenchmarkParams params) {
+        System.out.printf("%s: %d bytes/op received%n", params.getBenchmark(), received / Math.max(operations, 1));
+    }
+}
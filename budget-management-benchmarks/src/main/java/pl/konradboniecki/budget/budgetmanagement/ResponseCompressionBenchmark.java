@@ -0,0 +1,94 @@
+package pl.konradboniecki.budget.budgetmanagement;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipping a single jar and expense pages of several sizes, at the level Tomcat and Netty use and
+ * at the fastest one. Backs the {@code server.compression.min-response-size} threshold, the bytes
+ * saved are printed once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseCompressionBenchmark {
+
+    /**
+     * {@code jar} or the number of expenses on a page.
+     */
+    @Param({"jar", "1", "5", "10", "100", "1000"})
+    public String payload;
+
+    /**
+     * {@link Deflater#DEFAULT_COMPRESSION} used by Tomcat and Netty, or {@link Deflater#BEST_SPEED}.
+     */
+    @Param({"-1", "1"})
+    public int level;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        Object response = "jar".equals(payload) ? jar() : expensePage(Integer.parseInt(payload));
+        json = BenchmarkObjectMapper.create().writeValueAsBytes(response);
+        int compressedSize = gzip().length;
+        System.out.printf("%s, level %d: %d -> %d bytes (%d%% saved)%n",
+                payload, level, json.length, compressedSize, (json.length - compressedSize) * 100 / json.length);
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{
+            def.setLevel(level);
+        }}) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object jar() {
+        return new JarMapper().toOASJar(new Jar()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(UUID.randomUUID().toString())
+                .setJarName("holidays")
+                .setCapacity(100.0)
+                .setCurrentAmount(10.0)
+                .setVersion(1L));
+    }
+
+    private static Object expensePage(int pageSize) {
+        String budgetId = UUID.randomUUID().toString();
+        Instant created = Instant.parse("2024-03-01T10:15:30.123Z");
+        List<Expense> expenses = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            expenses.add(new Expense()
+                    .setId(UUID.randomUUID().toString())
+                    .setBudgetId(budgetId)
+                    .setAmount(10.0 + i)
+                    .setComment("expense with a comment of a realistic length " + i)
+                    .setCreated(created.minus(i, ChronoUnit.MINUTES))
+                    .setVersion(0L));
+        }
+        return new ExpenseMapper().toOASExpensePage(new SliceImpl<>(expenses, PageRequest.of(0, pageSize), true), null);
+    }
+}
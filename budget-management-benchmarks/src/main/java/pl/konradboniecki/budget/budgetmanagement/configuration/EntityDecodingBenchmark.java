@@ -0,0 +1,117 @@
+package pl.konradboniecki.budget.budgetmanagement.configuration;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetConverters;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.Expense;
+import pl.konradboniecki.budget.budgetmanagement.feature.expense.ExpenseConverters;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.Jar;
+import pl.konradboniecki.budget.budgetmanagement.feature.jar.JarConverters;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding stored documents through the reflective mapping and through the hand-written
+ * converters enabled by {@code budget.mongo.mapping=hand-written}, time per document.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityDecodingBenchmark {
+
+    private static final int DOCUMENTS = 1_000;
+
+    @Param({"reflective", "hand-written"})
+    public String mapping;
+
+    private MappingMongoConverter converter;
+    private List<Document> budgets;
+    private List<Document> jars;
+    private List<Document> expenses;
+
+    @Setup
+    public void setUp() {
+        converter = converter("hand-written".equals(mapping)
+                ? List.of(
+                BudgetConverters.READING, BudgetConverters.WRITING,
+                JarConverters.READING, JarConverters.WRITING,
+                ExpenseConverters.READING, ExpenseConverters.WRITING)
+                : List.of());
+        Instant created = Instant.parse("2024-03-01T10:15:30.123Z");
+        budgets = new ArrayList<>(DOCUMENTS);
+        jars = new ArrayList<>(DOCUMENTS);
+        expenses = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            String budgetId = UUID.randomUUID().toString();
+            budgets.add(new Document("_id", budgetId)
+                    .append("familyId", UUID.randomUUID().toString())
+                    .append("maxJars", 6L)
+                    .append("_class", Budget.class.getName()));
+            jars.add(new Document("_id", UUID.randomUUID().toString())
+                    .append("budgetId", budgetId)
+                    .append("jarName", "jar " + i)
+                    .append("currentAmount", (double) (i % 100))
+                    .append("capacity", 100.0)
+                    .append("status", "IN_PROGRESS")
+                    .append("version", 1L)
+                    .append("_class", Jar.class.getName()));
+            expenses.add(new Document("_id", UUID.randomUUID().toString())
+                    .append("budgetId", budgetId)
+                    .append("amount", 10.0 + i)
+                    .append("comment", "expense with a comment of a realistic length " + i)
+                    .append("created", Date.from(created.minus(i, ChronoUnit.MINUTES)))
+                    .append("version", 0L)
+                    .append("_class", Expense.class.getName()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void decodeBudget(Blackhole blackhole) {
+        decodeAll(Budget.class, budgets, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void decodeJar(Blackhole blackhole) {
+        decodeAll(Jar.class, jars, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void decodeExpense(Blackhole blackhole) {
+        decodeAll(Expense.class, expenses, blackhole);
+    }
+
+    private <T> void decodeAll(Class<T> type, List<Document> documents, Blackhole blackhole) {
+        for (Document document : documents) {
+            blackhole.consume(converter.read(type, document));
+        }
+    }
+
+    private static MappingMongoConverter converter(List<Object> converters) {
+        MongoCustomConversions conversions = new MongoCustomConversions(converters);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,73 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.budget;
+
+import org.openjdk.jmh.annotations.*;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudget;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetDeletion;
+import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link BudgetMapper} method. Lives in the mapper's package for the package-private
+ * {@link BudgetMapper#toBudget}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BudgetMapperBenchmark {
+
+    private final BudgetMapper budgetMapper = new BudgetMapper();
+
+    private Budget budget;
+    private OASBudgetCreation budgetCreation;
+    private BudgetDeletion deletion;
+
+    @Setup
+    public void setUp() {
+        budget = new Budget()
+                .setId(UUID.randomUUID().toString())
+                .setFamilyId(UUID.randomUUID().toString())
+                .setMaxJars(6L);
+        budgetCreation = new OASBudgetCreation()
+                .familyId(budget.getFamilyId())
+                .maxJars(6L);
+        deletion = new BudgetDeletion()
+                .setId(budget.getId())
+                .setStatus(BudgetDeletion.COMPLETED)
+                .setRequestedAt(Instant.parse("2024-03-01T10:15:30Z"))
+                .setFinishedAt(Instant.parse("2024-03-01T10:15:42Z"))
+                .setJarsDeleted(6)
+                .setExpensesDeleted(1_200);
+    }
+
+    @Benchmark
+    public Budget toBudget() {
+        return budgetMapper.toBudget(budgetCreation);
+    }
+
+    @Benchmark
+    public OASBudget toOASBudget() {
+        return budgetMapper.toOASBudget(budget);
+    }
+
+    @Benchmark
+    public OASBudgetCreation toOASBudgetCreation() {
+        return budgetMapper.toOASBudgetCreation(budget);
+    }
+
+    @Benchmark
+    public OASCreatedBudget toOASCreatedBudget() {
+        return budgetMapper.toOASCreatedBudget(budget);
+    }
+
+    @Benchmark
+    public OASBudgetDeletion toOASBudgetDeletion() {
+        return budgetMapper.toOASBudgetDeletion(deletion);
+    }
+}
@@ -0,0 +1,125 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import pl.konradboniecki.budget.budgetmanagement.MongoBenchmarkContext;
+import pl.konradboniecki.budget.budgetmanagement.ReplyBytes;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.Budget;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetRepository;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpense;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseAggregation;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePeriodAggregate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly totals of a budget with 100k expenses, computed by paging through the expense listing
+ * on the client and by the expenses:aggregate pipeline, against the database of
+ * {@link MongoBenchmarkContext}. Both results are compared once per trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseAggregationBenchmark {
+
+    private static final int EXPENSES = 100_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int INSERT_CHUNK = 1_000;
+
+    private MongoBenchmarkContext mongo;
+    private BudgetRepository budgetRepository;
+    private ExpenseRepository expenseRepository;
+    private ExpenseService expenseService;
+    private String budgetId;
+
+    @Setup
+    public void setUp() {
+        mongo = MongoBenchmarkContext.start();
+        budgetRepository = mongo.getBean(BudgetRepository.class);
+        expenseRepository = mongo.getBean(ExpenseRepository.class);
+        expenseService = mongo.getBean(ExpenseService.class);
+        // no budget totals, so the aggregation runs the pipeline instead of reading monthly rollups
+        budgetId = budgetRepository.insert(new Budget()
+                .setId(UUID.randomUUID().toString())
+                .setFamilyId(UUID.randomUUID().toString())
+                .setMaxJars(6L)).getId();
+        Instant yearAgo = Instant.now().minus(365, ChronoUnit.DAYS);
+        List<Expense> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < EXPENSES; i++) {
+            chunk.add(new Expense()
+                    .setId(UUID.randomUUID().toString())
+                    .setBudgetId(budgetId)
+                    .setAmount((double) (i % 500) / 4)
+                    .setComment("benchmark expense with a comment of a realistic length")
+                    .setCreated(yearAgo.plusSeconds(i * 315L)));
+            if (chunk.size() == INSERT_CHUNK) {
+                expenseRepository.insertAllUnordered(chunk);
+                chunk = new ArrayList<>(INSERT_CHUNK);
+            }
+        }
+        expenseRepository.insertAllUnordered(chunk);
+        Map<YearMonth, Double> paged = clientSidePaging();
+        Map<YearMonth, Double> aggregated = aggregationPipeline();
+        if (!paged.keySet().equals(aggregated.keySet())
+                || paged.entrySet().stream().anyMatch(month -> Math.abs(month.getValue() - aggregated.get(month.getKey())) > 0.001)) {
+            throw new IllegalStateException("Monthly totals differ, paged: " + paged + ", aggregated: " + aggregated);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        long deleted;
+        do {
+            deleted = expenseRepository.deleteBatchByBudgetId(budgetId, INSERT_CHUNK);
+        } while (deleted > 0);
+        budgetRepository.deleteById(budgetId);
+        mongo.close();
+    }
+
+    @Benchmark
+    public Map<YearMonth, Double> clientSidePaging(ReplyBytes replyBytes) {
+        return clientSidePaging();
+    }
+
+    @Benchmark
+    public Map<YearMonth, Double> aggregationPipeline(ReplyBytes replyBytes) {
+        return aggregationPipeline();
+    }
+
+    private Map<YearMonth, Double> clientSidePaging() {
+        Map<YearMonth, Double> totals = new TreeMap<>();
+        String cursor = null;
+        do {
+            OASExpensePage page = cursor == null
+                    ? expenseService.findAllExpensesByBudgetId(budgetId, PageRequest.of(0, PAGE_SIZE), "false")
+                    : expenseService.findAllExpensesByBudgetId(budgetId, cursor, PAGE_SIZE);
+            for (OASExpense expense : page.getItems()) {
+                totals.merge(YearMonth.from(expense.getCreated().atZone(ZoneOffset.UTC)), expense.getAmount(), Double::sum);
+            }
+            cursor = page.getMeta().getNextCursor();
+        } while (cursor != null);
+        return totals;
+    }
+
+    private Map<YearMonth, Double> aggregationPipeline() {
+        OASExpenseAggregation aggregation = expenseService.aggregateExpenses(budgetId, "month", null, null);
+        Map<YearMonth, Double> totals = new TreeMap<>();
+        for (OASExpensePeriodAggregate period : aggregation.getPeriods()) {
+            totals.put(YearMonth.from(period.getStart().atZone(ZoneOffset.UTC)), period.getTotal());
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,42 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseBenchmark {
+
+    private Expense expense;
+    private Expense modification;
+
+    @Setup
+    public void setUp() {
+        String budgetId = UUID.randomUUID().toString();
+        expense = new Expense()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(budgetId)
+                .setAmount(10.0)
+                .setComment("groceries")
+                .setCreated(Instant.now())
+                .setVersion(0L);
+        modification = new Expense()
+                .setId(expense.getId())
+                .setBudgetId(budgetId)
+                .setAmount(12.5)
+                .setComment("groceries and a newspaper")
+                .setCreated(Instant.now());
+    }
+
+    @Benchmark
+    public Expense mergeWith() {
+        return expense.mergeWith(modification);
+    }
+}
@@ -0,0 +1,171 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import pl.konradboniecki.budget.budgetmanagement.BenchmarkObjectMapper;
+import pl.konradboniecki.budget.budgetmanagement.feature.budget.BudgetTotals;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link ExpenseMapper} method, pages and aggregations of {@value #PAGE_SIZE} entries. As with
+ * jars, the raw page benchmarks serialize the page, that is where the stored documents are read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseMapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private final ExpenseMapper expenseMapper = new ExpenseMapper();
+    private final ObjectMapper objectMapper = BenchmarkObjectMapper.create();
+
+    private Expense expense;
+    private OASExpenseCreation expenseCreation;
+    private OASExpenseModification expenseModification;
+    private List<Expense> expenses;
+    private Slice<Expense> expenseSlice;
+    private List<RawBsonDocument> rawExpenses;
+    private Slice<RawBsonDocument> rawExpenseSlice;
+    private List<ExpenseAggregate> aggregates;
+    private BudgetTotals totals;
+
+    @Setup
+    public void setUp() {
+        String budgetId = UUID.randomUUID().toString();
+        Instant created = Instant.parse("2024-03-01T10:15:30.123Z");
+        expense = expense(budgetId, 0, created);
+        expenseCreation = new OASExpenseCreation()
+                .budgetId(budgetId)
+                .amount(10.0)
+                .comment("groceries");
+        expenseModification = new OASExpenseModification()
+                .id(expense.getId())
+                .budgetId(budgetId)
+                .amount(12.5)
+                .comment("groceries and a newspaper")
+                .created(created)
+                .version(0L);
+        expenses = new ArrayList<>(PAGE_SIZE);
+        rawExpenses = new ArrayList<>(PAGE_SIZE);
+        aggregates = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Expense pageExpense = expense(budgetId, i, created.minus(i, ChronoUnit.HOURS));
+            expenses.add(pageExpense);
+            rawExpenses.add(new RawBsonDocument(new Document("_id", pageExpense.getId())
+                    .append("budgetId", budgetId)
+                    .append("amount", pageExpense.getAmount())
+                    .append("comment", pageExpense.getComment())
+                    .append("created", Date.from(pageExpense.getCreated()))
+                    .append("version", pageExpense.getVersion()), DOCUMENT_CODEC));
+            aggregates.add(new ExpenseAggregate()
+                    .setStart(created.minus(i, ChronoUnit.DAYS).truncatedTo(ChronoUnit.DAYS))
+                    .setCount(4)
+                    .setTotal(40.0 + i)
+                    .setMin(1.0)
+                    .setMax(20.0 + i)
+                    .setAverage((40.0 + i) / 4));
+        }
+        expenseSlice = new SliceImpl<>(expenses, PageRequest.of(0, PAGE_SIZE), true);
+        rawExpenseSlice = new SliceImpl<>(rawExpenses, PageRequest.of(0, PAGE_SIZE), true);
+        totals = new BudgetTotals()
+                .setId(budgetId)
+                .setExpenses(250)
+                .setExpenseAmount(3_125.0)
+                .setLastExpenseCreated(created);
+    }
+
+    private static Expense expense(String budgetId, int i, Instant created) {
+        return new Expense()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(budgetId)
+                .setAmount(10.0 + i)
+                .setComment("expense " + i)
+                .setCreated(created)
+                .setVersion(0L);
+    }
+
+    @Benchmark
+    public Expense toExpense_creation() {
+        return expenseMapper.toExpense(expenseCreation);
+    }
+
+    @Benchmark
+    public Expense toExpense_modification() {
+        return expenseMapper.toExpense(expenseModification);
+    }
+
+    @Benchmark
+    public OASExpense toOASExpense() {
+        return expenseMapper.toOASExpense(expense);
+    }
+
+    @Benchmark
+    public OASExpenseCreation toOASExpenseCreation() {
+        return expenseMapper.toOASExpenseCreation(expense);
+    }
+
+    @Benchmark
+    public OASCreatedExpense toOASCreatedExpense() {
+        return expenseMapper.toOASCreatedExpense(expense);
+    }
+
+    @Benchmark
+    public OASExpenseModification toOASExpenseModification() {
+        return expenseMapper.toOASExpenseModification(expense);
+    }
+
+    @Benchmark
+    public OASExpensePage toOASExpensePage_slice() {
+        return expenseMapper.toOASExpensePage(expenseSlice, 250L);
+    }
+
+    @Benchmark
+    public OASExpensePage toOASExpensePage_cursor() {
+        return expenseMapper.toOASExpensePage(expenses, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public byte[] toRawExpensePage_slice() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(expenseMapper.toRawExpensePage(rawExpenseSlice, 250L));
+    }
+
+    @Benchmark
+    public byte[] toRawExpensePage_cursor() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(expenseMapper.toRawExpensePage(rawExpenses, PAGE_SIZE, true));
+    }
+
+    @Benchmark
+    public OASExpenseAggregation toOASExpenseAggregation() {
+        return expenseMapper.toOASExpenseAggregation(aggregates, "day");
+    }
+
+    @Benchmark
+    public OASExpensePeriodAggregate toOASExpensePeriodAggregate() {
+        return expenseMapper.toOASExpensePeriodAggregate(aggregates.get(0));
+    }
+
+    @Benchmark
+    public OASExpenseTotals toOASExpenseTotals() {
+        return expenseMapper.toOASExpenseTotals(totals);
+    }
+}
@@ -0,0 +1,64 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.expense;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import pl.konradboniecki.budget.budgetmanagement.BenchmarkObjectMapper;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpensePage;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson writing and reading an {@link OASExpensePage} as mapped for the expense listing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpensePageJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int items;
+
+    private final ObjectMapper objectMapper = BenchmarkObjectMapper.create();
+
+    private OASExpensePage page;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        String budgetId = UUID.randomUUID().toString();
+        Instant created = Instant.parse("2024-03-01T10:15:30.123Z");
+        List<Expense> expenses = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            expenses.add(new Expense()
+                    .setId(UUID.randomUUID().toString())
+                    .setBudgetId(budgetId)
+                    .setAmount(10.0 + i)
+                    .setComment("expense with a comment of a realistic length " + i)
+                    .setCreated(created.minus(i, ChronoUnit.MINUTES))
+                    .setVersion(0L));
+        }
+        page = new ExpenseMapper().toOASExpensePage(new SliceImpl<>(expenses, PageRequest.of(0, items), true), 5_000L);
+        json = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public OASExpensePage deserialize() throws IOException {
+        return objectMapper.readValue(json, OASExpensePage.class);
+    }
+}
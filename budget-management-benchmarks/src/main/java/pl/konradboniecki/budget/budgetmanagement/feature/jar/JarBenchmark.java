@@ -0,0 +1,59 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Jar#mergeWith} and the status derivation. The status setter is private and runs on every
+ * amount or capacity change, so it is measured through {@link Jar#setCurrentAmount} with an amount
+ * per derived status.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JarBenchmark {
+
+    /**
+     * Not started, in progress and completed against a capacity of 100.
+     */
+    @Param({"0", "50", "150"})
+    public double currentAmount;
+
+    private Jar jar;
+    private Jar modification;
+    private Jar statusJar;
+
+    @Setup
+    public void setUp() {
+        String budgetId = UUID.randomUUID().toString();
+        jar = new Jar()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(budgetId)
+                .setJarName("holidays")
+                .setCapacity(100.0)
+                .setCurrentAmount(10.0)
+                .setVersion(1L);
+        modification = new Jar()
+                .setId(jar.getId())
+                .setBudgetId(budgetId)
+                .setJarName("summer holidays")
+                .setCapacity(200.0)
+                .setCurrentAmount(currentAmount);
+        statusJar = new Jar().setCapacity(100.0);
+    }
+
+    @Benchmark
+    public Jar mergeWith() {
+        return jar.mergeWith(modification);
+    }
+
+    @Benchmark
+    public Jar setStatus() {
+        return statusJar.setCurrentAmount(currentAmount);
+    }
+}
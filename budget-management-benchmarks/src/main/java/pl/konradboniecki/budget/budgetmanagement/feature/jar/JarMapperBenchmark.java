@@ -0,0 +1,146 @@
+package pl.konradboniecki.budget.budgetmanagement.feature.jar;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import pl.konradboniecki.budget.budgetmanagement.BenchmarkObjectMapper;
+import pl.konradboniecki.budget.openapi.dto.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link JarMapper} method, pages of {@value #PAGE_SIZE} jars. A raw page copies the stored
+ * documents while it is written, so the raw page benchmarks include serializing the page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JarMapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+
+    private final JarMapper jarMapper = new JarMapper();
+    private final ObjectMapper objectMapper = BenchmarkObjectMapper.create();
+
+    private Jar jar;
+    private OASJarCreation jarCreation;
+    private OASJarModification jarModification;
+    private List<Jar> jars;
+    private Slice<Jar> jarSlice;
+    private List<RawBsonDocument> rawJars;
+    private Slice<RawBsonDocument> rawJarSlice;
+    private Map<String, Long> countsByStoredStatus;
+
+    @Setup
+    public void setUp() {
+        String budgetId = UUID.randomUUID().toString();
+        jar = jar(budgetId, 0);
+        jarCreation = new OASJarCreation()
+                .budgetId(budgetId)
+                .jarName("holidays")
+                .capacity(100.0)
+                .currentAmount(10.0);
+        jarModification = new OASJarModification()
+                .id(jar.getId())
+                .budgetId(budgetId)
+                .jarName("summer holidays")
+                .capacity(200.0)
+                .currentAmount(20.0)
+                .version(1L);
+        jars = new ArrayList<>(PAGE_SIZE);
+        rawJars = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Jar pageJar = jar(budgetId, i);
+            jars.add(pageJar);
+            rawJars.add(new RawBsonDocument(new Document("_id", pageJar.getId())
+                    .append("budgetId", budgetId)
+                    .append("jarName", pageJar.getJarName())
+                    .append("currentAmount", pageJar.getCurrentAmount())
+                    .append("capacity", pageJar.getCapacity())
+                    .append("status", pageJar.getStatus())
+                    .append("version", pageJar.getVersion()), DOCUMENT_CODEC));
+        }
+        jarSlice = new SliceImpl<>(jars, PageRequest.of(0, PAGE_SIZE), true);
+        rawJarSlice = new SliceImpl<>(rawJars, PageRequest.of(0, PAGE_SIZE), true);
+        countsByStoredStatus = Map.of("NOT STARTED", 3L, "IN PROGRESS", 5L, "COMPLETED", 2L);
+    }
+
+    private static Jar jar(String budgetId, int i) {
+        return new Jar()
+                .setId(UUID.randomUUID().toString())
+                .setBudgetId(budgetId)
+                .setJarName("jar " + i)
+                .setCapacity(100.0)
+                .setCurrentAmount((double) (i % 150))
+                .setVersion(1L);
+    }
+
+    @Benchmark
+    public Jar toJar_creation() {
+        return jarMapper.toJar(jarCreation);
+    }
+
+    @Benchmark
+    public Jar toJar_modification() {
+        return jarMapper.toJar(jarModification);
+    }
+
+    @Benchmark
+    public OASJar toOASJar() {
+        return jarMapper.toOASJar(jar);
+    }
+
+    @Benchmark
+    public OASJarCreation toOASJarCreation() {
+        return jarMapper.toOASJarCreation(jar);
+    }
+
+    @Benchmark
+    public OASCreatedJar toOASCreatedJar() {
+        return jarMapper.toOASCreatedJar(jar);
+    }
+
+    @Benchmark
+    public OASJarModification toOASJarModification() {
+        return jarMapper.toOASJarModification(jar);
+    }
+
+    @Benchmark
+    public OASJarPage toOASJarPage_slice() {
+        return jarMapper.toOASJarPage(jarSlice, 250L);
+    }
+
+    @Benchmark
+    public OASJarPage toOASJarPage_cursor() {
+        return jarMapper.toOASJarPage(jars, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public byte[] toRawJarPage_slice() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(jarMapper.toRawJarPage(rawJarSlice, 250L));
+    }
+
+    @Benchmark
+    public byte[] toRawJarPage_cursor() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(jarMapper.toRawJarPage(rawJars, PAGE_SIZE, true));
+    }
+
+    @Benchmark
+    public OASJarStatusCounts toOASJarStatusCounts() {
+        return jarMapper.toOASJarStatusCounts(countsByStoredStatus);
+    }
+}
@@ -0,0 +1,206 @@
+package pl.konradboniecki.budget.budgetmanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MongoDBContainer;
+import pl.konradboniecki.budget.openapi.dto.model.OASBudgetCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASCreatedBudget;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseBatchCreation;
+import pl.konradboniecki.budget.openapi.dto.model.OASExpenseCreation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Starts the application once per serving stack and lists expenses with 5k requests in flight,
+ * each on its own connection. The stacks are the Spring profiles given as the first argument:
+ * {@code default} (Tomcat platform thread pool), {@code virtual-threads} and {@code reactive}.
+ * Prints p50, p99 and max latency and the peak number of live threads in the JVM per round. The
+ * client threads are counted too, but the client uses a fixed pool, so the differences come from
+ * the server. Uses the database given with {@code -Dload.mongodb.uri}, otherwise starts a
+ * mongo:6.0 container.
+ */
+public final class ServingStackLoadTest {
+
+    private static final int CONCURRENT_CONNECTIONS = 5_000;
+    private static final int ROUNDS = 5;
+    private static final int EXPENSES = 100;
+    private static final String USER = "loadTestUser";
+    private static final String PASSWORD = UUID.randomUUID().toString();
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString((USER + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ServingStackLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        List<String> stacks = List.of((args.length > 0 ? args[0] : "default,virtual-threads,reactive").trim().split("\\s*,\\s*"));
+        String uri = System.getProperty("load.mongodb.uri", "");
+        MongoDBContainer container = null;
+        if (uri.isBlank()) {
+            container = new MongoDBContainer("mongo:6.0");
+            container.start();
+            uri = container.getReplicaSetUrl();
+        }
+        try {
+            for (String stack : stacks) {
+                if ("virtual-threads".equals(stack) && Runtime.version().feature() < 21) {
+                    System.out.println("[virtual-threads] skipped, virtual threads need Java 21");
+                    continue;
+                }
+                load(stack, uri);
+            }
+        } finally {
+            if (container != null) {
+                container.stop();
+            }
+        }
+    }
+
+    private static void load(String stack, String mongoUri) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BudgetManagementApplication.class)
+                .profiles(stack)
+                .properties(
+                        "server.port=0",
+                        "spring.cloud.config.enabled=false",
+                        "spring.data.mongodb.uri=" + mongoUri,
+                        "spring.security.user.name=" + USER,
+                        "spring.security.user.password=" + PASSWORD,
+                        "budget.totals.reconciliation.enabled=false",
+                        "budget.expenses.rollup.backfill.enabled=false",
+                        // let Tomcat queue every connection instead of refusing them
+                        "server.tomcat.max-connections=" + 2 * CONCURRENT_CONNECTIONS,
+                        "server.tomcat.accept-count=" + CONCURRENT_CONNECTIONS)
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI budgets = URI.create("http://localhost:" + port + "/api/budget-mgt/v1/budgets");
+
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(16);
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            String budgetId = seed(httpClient, budgets);
+            URI uri = URI.create(budgets + "/" + budgetId + "/expenses?limit=20");
+            try {
+                runRound(httpClient, uri);
+                for (int round = 1; round <= ROUNDS; round++) {
+                    threads.resetPeakThreadCount();
+                    List<Long> latencies = runRound(httpClient, uri);
+                    System.out.printf("[%s] round %d: p50 %d ms, p99 %d ms, max %d ms, peak live threads %d%n",
+                            stack, round,
+                            percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                            threads.getPeakThreadCount());
+                }
+            } finally {
+                send(httpClient, HttpRequest.newBuilder(URI.create(budgets + "/" + budgetId)).DELETE(), 202);
+                clientExecutor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Creates a budget with its expenses through the API, whatever repositories the stack uses.
+     */
+    private static String seed(HttpClient httpClient, URI budgets) {
+        OASCreatedBudget budget = read(send(httpClient, HttpRequest.newBuilder(budgets)
+                        .POST(json(new OASBudgetCreation()
+                                .familyId(UUID.randomUUID().toString())
+                                .maxJars(6L))), 201),
+                OASCreatedBudget.class);
+        List<OASExpenseCreation> expenses = IntStream.range(0, EXPENSES)
+                .mapToObj(i -> new OASExpenseCreation()
+                        .budgetId(budget.getId())
+                        .amount(10.0 + i)
+                        .comment("load test expense " + i))
+                .collect(Collectors.toList());
+        send(httpClient, HttpRequest.newBuilder(URI.create(budgets + "/" + budget.getId() + "/expenses:batch"))
+                .POST(json(new OASExpenseBatchCreation().items(expenses))), 200);
+        return budget.getId();
+    }
+
+    private static String send(HttpClient httpClient, HttpRequest.Builder request, int expectedStatus) {
+        try {
+            HttpResponse<String> response = httpClient.send(request
+                    .header("Authorization", AUTHORIZATION)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != expectedStatus) {
+                throw new IllegalStateException("Expected " + expectedStatus + ", got " + response.statusCode() + ": " + response.body());
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T read(String body, Class<T> type) {
+        try {
+            return OBJECT_MAPPER.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Long> runRound(HttpClient httpClient, URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", AUTHORIZATION)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .GET()
+                .build();
+        List<CompletableFuture<Long>> inFlight = new ArrayList<>(CONCURRENT_CONNECTIONS);
+        for (int i = 0; i < CONCURRENT_CONNECTIONS; i++) {
+            long start = System.nanoTime();
+            inFlight.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Expected 200, got " + response.statusCode());
+                        }
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }));
+        }
+        return inFlight.stream()
+                .map(CompletableFuture::join)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static long percentile(List<Long> sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.size()) - 1;
+        return sortedLatencies.get(Math.max(index, 0));
+    }
+}